@@ -1,5 +1,9 @@
 package alonzo.ast;
 
+import java.util.Stack;
+
+import alonzo.common.Validate;
+
 /**
  * Abstract superclass for all classes that represent an Abstract Syntax Tree node.
  * @see Var
@@ -8,6 +12,36 @@ package alonzo.ast;
  */
 public abstract class ASTNode {
 
+    /**
+     * The most free variables whose names a node caches. Beyond it, sets are not kept, so that
+     * deeply nested terms don't take quadratic space to describe. A function whose body has more
+     * may itself have fewer, so its set is computed from its body's on first use instead.
+     */
+    public static final int MAX_FREE_VARIABLES = 64;
+
+    private final int structuralHash;
+    private final SymbolTable symbols;
+    // SymbolSet.UNKNOWN until computed. Sets are immutable, so a race only computes one twice.
+    private SymbolSet freeVariables;
+    private final long size;
+    private final int depth;
+
+    // Zero until computed, like String's hash: a hash that happens to be zero is just recomputed.
+    private int alphaHash;
+
+    protected ASTNode(final int structuralHash,
+                      final SymbolTable symbols,
+                      final SymbolSet freeVariables,
+                      final long size,
+                      final int depth)
+    {
+        this.structuralHash = structuralHash;
+        this.symbols = symbols;
+        this.freeVariables = freeVariables;
+        this.size = size;
+        this.depth = depth;
+    }
+
     public boolean isVar() {
         return this instanceof Var;
     }
@@ -20,4 +54,164 @@ public abstract class ASTNode {
         return this instanceof App;
     }
 
+    /**
+     * @return a hash of this node's structure, including the names of its variables. Nodes that
+     *         are structurally identical have the same hash. It is computed from the children's
+     *         hashes when the node is constructed, so this is O(1).
+     */
+    public int structuralHash() {
+        return structuralHash;
+    }
+
+    /**
+     * @return the table the names of all this node's variables, bound and free, are interned in, or
+     *         null if they come from several tables.
+     */
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /**
+     * @return the names of the variables occurring free in this node, or null if there are more
+     *         than {@value #MAX_FREE_VARIABLES} of them. Like the other metadata below, it is
+     *         usually computed from the children's when the node is constructed, so this is O(1).
+     *         Only when a subterm has too many free variables to cache are they computed, on the
+     *         first call, in one pass over the subterms whose sets aren't cached, and cached.
+     */
+    public SymbolSet freeVariables() {
+        final SymbolSet free = freeVariables;
+        return free != SymbolSet.UNKNOWN ? free : computeFreeVariables();
+    }
+
+    /** @return true if this node has no free variables. */
+    public boolean isClosed() {
+        final SymbolSet free = freeVariables();
+        return free != null && free.isEmpty();
+    }
+
+    /**
+     * @return the number of nodes in this node's tree, counting a function's parameter as part of
+     *         the function. Shared subterms are counted each time they occur, and the count stops
+     *         at {@link Long#MAX_VALUE}.
+     */
+    public long size() {
+        return size;
+    }
+
+    /** @return the number of nodes on the longest path from this node down to a variable. */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * @return a hash of this term that ignores the names of bound variables, so that
+     *         alpha-equivalent terms have the same hash. It is the {@code hashCode()} of the
+     *         term's {@link alonzo.ast.nameless.DeBruijn nameless} form, computed without building
+     *         it in one pass over the term on first call, and cached.
+     */
+    public int alphaHash() {
+        int hash = alphaHash;
+        if (hash == 0) {
+            hash = AlphaEquivalence.hash(this);
+            alphaHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Checks whether two terms are equal up to the names of their bound variables. Terms of
+     * different {@link #size()}, {@link #depth()} or {@link #alphaHash()} are told apart at once;
+     * others are compared in one non-recursive pass over both, skipping closed subterms they
+     * share.
+     */
+    public static boolean alphaEquivalent(final ASTNode a, final ASTNode b) {
+        return AlphaEquivalence.equivalent(Validate.notNull(a, "null a"),
+                                           Validate.notNull(b, "null b"));
+    }
+
+    /** Alpha-equivalence. @see #alphaEquivalent(ASTNode, ASTNode) */
+    @Override
+    public final boolean equals(final Object obj) {
+        return obj instanceof ASTNode && alphaEquivalent(this, (ASTNode) obj);
+    }
+
+    /** @see #alphaHash() */
+    @Override
+    public final int hashCode() {
+        return alphaHash();
+    }
+
+    /**
+     * @return this node's free variables as cached: null if there are too many, or
+     *         {@link SymbolSet#UNKNOWN} if they have not been computed yet.
+     */
+    SymbolSet cachedFreeVariables() {
+        return freeVariables;
+    }
+
+    /** @return the given set if it is small enough to cache, and null otherwise. */
+    static SymbolSet cached(final SymbolSet freeVariables) {
+        return freeVariables.size() <= MAX_FREE_VARIABLES ? freeVariables : null;
+    }
+
+    /**
+     * Computes the free variables of this node from those of its subterms, without recursion,
+     * descending into subterms whose sets are too large to cache and caching the sets of those not
+     * computed yet.
+     */
+    private SymbolSet computeFreeVariables() {
+        final Stack<ASTNode> pending = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+        final Stack<SymbolSet> results = new Stack<>();
+
+        pending.push(this);
+        expanded.push(false);
+        while (!pending.isEmpty()) {
+            final ASTNode node = pending.pop();
+            final SymbolSet known = node.freeVariables;
+
+            if (!expanded.pop()) {
+                if (known != null && known != SymbolSet.UNKNOWN) {
+                    results.push(known);
+                    continue;
+                }
+                pending.push(node);
+                expanded.push(true);
+                if (node.isFun()) {
+                    pending.push(((Fun) node).body());
+                    expanded.push(false);
+                } else {
+                    pending.push(((App) node).argument());
+                    expanded.push(false);
+                    pending.push(((App) node).function());
+                    expanded.push(false);
+                }
+                continue;
+            }
+
+            final SymbolSet free;
+            if (node.isFun()) {
+                free = results.pop().without(((Fun) node).parameter());
+            } else {
+                final SymbolSet argument = results.pop();
+                free = results.pop().union(argument);
+            }
+            if (known == SymbolSet.UNKNOWN) { node.freeVariables = cached(free); }
+            results.push(free);
+        }
+
+        return freeVariables;
+    }
+
+    /** @return the table of both the given nodes, or null if they don't share one. */
+    static SymbolTable symbols(final ASTNode a, final ASTNode b) {
+        return a.symbols == b.symbols ? a.symbols : null;
+    }
+
+    /** @return the sum of the given sizes, or {@link Long#MAX_VALUE} if it would overflow. */
+    static long size(final long a, final long b) {
+        final long sum = a + b + 1;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
 }
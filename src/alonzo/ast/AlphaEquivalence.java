@@ -0,0 +1,144 @@
+package alonzo.ast;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Stack;
+
+import alonzo.common.Hashing;
+
+/**
+ * The alpha-invariant hash and alpha-equivalence check behind {@link ASTNode#alphaHash()} and
+ * {@link ASTNode#alphaEquivalent(ASTNode, ASTNode)}. Both resolve each variable as its De Bruijn
+ * index when it is bound and as its name when it is free, as {@link alonzo.ast.nameless.DeBruijn}
+ * does, but without building the nameless term. Explicit stacks are used so as not to blow the
+ * function call stack on deep terms.
+ */
+class AlphaEquivalence {
+
+    // Prevent this class from be instantiated.
+    private AlphaEquivalence() {}
+
+    /**
+     * @return the hash of the given term's nameless form, equal to the
+     *         {@link alonzo.ast.nameless.Term#hashCode()} of its conversion by
+     *         {@link alonzo.ast.nameless.DeBruijn#toNameless(ASTNode)}.
+     */
+    static int hash(final ASTNode root) {
+        final Scope scope = new Scope();
+        final Stack<ASTNode> pending = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+        final Stack<Integer> results = new Stack<>();
+
+        pending.push(root);
+        expanded.push(false);
+        while (!pending.isEmpty()) {
+            final ASTNode node = pending.pop();
+
+            if (!expanded.pop()) {
+                if (node.isVar()) {
+                    final int index = scope.index((Var) node);
+                    results.push(index < 0
+                                 ? Hashing.combine(2, ((Var) node).name().hashCode(), 0)
+                                 : Hashing.combine(1, index, 0));
+                    continue;
+                }
+
+                // Revisit the node once its children are done.
+                pending.push(node);
+                expanded.push(true);
+                if (node.isFun()) {
+                    scope.bind(((Fun) node).parameter());
+                    pending.push(((Fun) node).body());
+                } else {
+                    pending.push(((App) node).argument());
+                    expanded.push(false);
+                    pending.push(((App) node).function());
+                }
+                expanded.push(false);
+            } else if (node.isFun()) {
+                scope.unbind(((Fun) node).parameter());
+                results.push(Hashing.combine(3, results.pop(), 0));
+            } else {
+                final int argument = results.pop();
+                results.push(Hashing.combine(4, results.pop(), argument));
+            }
+        }
+
+        return results.pop();
+    }
+
+    /** @see ASTNode#alphaEquivalent(ASTNode, ASTNode) */
+    static boolean equivalent(final ASTNode a, final ASTNode b) {
+        if (a == b) { return true; }
+        if (a.size() != b.size() || a.depth() != b.depth() || a.alphaHash() != b.alphaHash()) {
+            return false;
+        }
+
+        final Scope lefts = new Scope();
+        final Scope rights = new Scope();
+        // A null left node marks the end of the scope of the functions on top of the others.
+        final Stack<ASTNode> pendingLefts = new Stack<>();
+        final Stack<ASTNode> pendingRights = new Stack<>();
+
+        pendingLefts.push(a);
+        pendingRights.push(b);
+        while (!pendingLefts.isEmpty()) {
+            final ASTNode left = pendingLefts.pop();
+            final ASTNode right = pendingRights.pop();
+
+            if (left == null) {
+                lefts.unbind(((Fun) pendingLefts.pop()).parameter());
+                rights.unbind(((Fun) pendingRights.pop()).parameter());
+                continue;
+            }
+            // A closed subterm means the same in any scope.
+            if (left == right && left.isClosed()) { continue; }
+
+            if (left.isVar() && right.isVar()) {
+                final int leftIndex = lefts.index((Var) left);
+                if (leftIndex != rights.index((Var) right)) { return false; }
+                if (leftIndex < 0 && !((Var) left).sameName((Var) right)) { return false; }
+            } else if (left.isFun() && right.isFun()) {
+                pendingLefts.push(left);
+                pendingRights.push(right);
+                pendingLefts.push(null);
+                pendingRights.push(null);
+                lefts.bind(((Fun) left).parameter());
+                rights.bind(((Fun) right).parameter());
+                pendingLefts.push(((Fun) left).body());
+                pendingRights.push(((Fun) right).body());
+            } else if (left.isApp() && right.isApp()) {
+                pendingLefts.push(((App) left).argument());
+                pendingRights.push(((App) right).argument());
+                pendingLefts.push(((App) left).function());
+                pendingRights.push(((App) right).function());
+            } else {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /** The functions enclosing a node being traversed, by parameter name. */
+    private static class Scope {
+        // For each name, the depths of the functions binding it, innermost on top.
+        private final Map<String, Stack<Integer>> binders = new HashMap<>();
+        private int depth = 0;
+
+        private void bind(final Var parameter) {
+            binders.computeIfAbsent(parameter.name(), n -> new Stack<>()).push(depth++);
+        }
+
+        private void unbind(final Var parameter) {
+            binders.get(parameter.name()).pop();
+            --depth;
+        }
+
+        /** @return the De Bruijn index of the given variable, or -1 if it is free. */
+        private int index(final Var var) {
+            final Stack<Integer> depths = binders.get(var.name());
+            return depths == null || depths.isEmpty() ? -1 : depth - depths.peek() - 1;
+        }
+    }
+}
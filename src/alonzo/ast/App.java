@@ -1,5 +1,6 @@
 package alonzo.ast;
 
+import alonzo.common.Hashing;
 import alonzo.common.Validate;
 
 /**
@@ -12,8 +13,14 @@ public class App extends ASTNode {
     private final ASTNode argument;
 
     public App(final ASTNode function, final ASTNode argument) {
-        this.function = Validate.notNull(function, "null function");
-        this.argument = Validate.notNull(argument, "null argument");
+        super(structuralHash(Validate.notNull(function, "null function"),
+                             Validate.notNull(argument, "null argument")),
+              symbols(function, argument),
+              freeVariables(function, argument),
+              size(function.size(), argument.size()),
+              Math.max(function.depth(), argument.depth()) + 1);
+        this.function = function;
+        this.argument = argument;
     }
 
     public ASTNode function() {
@@ -24,4 +31,23 @@ public class App extends ASTNode {
         return argument;
     }
 
+    /**
+     * @return the union of the children's free variables, null if either has too many to cache, or
+     *         {@link SymbolSet#UNKNOWN} if either's are not known yet.
+     */
+    private static SymbolSet freeVariables(final ASTNode function, final ASTNode argument) {
+        final SymbolSet functionFree = function.cachedFreeVariables();
+        final SymbolSet argumentFree = argument.cachedFreeVariables();
+        if (functionFree == null || argumentFree == null) { return null; }
+        if (functionFree == SymbolSet.UNKNOWN || argumentFree == SymbolSet.UNKNOWN) {
+            return SymbolSet.UNKNOWN;
+        }
+        return cached(functionFree.union(argumentFree));
+    }
+
+    /** @return the {@link #structuralHash()} an {@code App} of the given children would have. */
+    static int structuralHash(final ASTNode function, final ASTNode argument) {
+        return Hashing.combine(3, function.structuralHash(), argument.structuralHash());
+    }
+
 }
@@ -1,5 +1,6 @@
 package alonzo.ast;
 
+import alonzo.common.Hashing;
 import alonzo.common.Validate;
 
 /**
@@ -12,8 +13,12 @@ public class Fun extends ASTNode {
     private final ASTNode body;
 
     public Fun(final Var parameter, final ASTNode body) {
-        this.parameter = Validate.notNull(parameter, "null parameter");
-        this.body = Validate.notNull(body, "null body");
+        super(structuralHash(Validate.notNull(parameter, "null parameter"),
+                             Validate.notNull(body, "null body")),
+              symbols(parameter, body), freeVariables(parameter, body), size(0, body.size()),
+              body.depth() + 1);
+        this.parameter = parameter;
+        this.body = body;
     }
 
     public Var parameter() {
@@ -23,4 +28,17 @@ public class Fun extends ASTNode {
     public ASTNode body() {
         return body;
     }
+
+    /** @return the free variables of the body without the parameter, unless not known yet. */
+    private static SymbolSet freeVariables(final Var parameter, final ASTNode body) {
+        final SymbolSet free = body.cachedFreeVariables();
+        // The body's may be too many to cache, yet ours few enough once the parameter is bound.
+        if (free == null || free == SymbolSet.UNKNOWN) { return SymbolSet.UNKNOWN; }
+        return free.without(parameter);
+    }
+
+    /** @return the {@link #structuralHash()} a {@code Fun} of the given children would have. */
+    static int structuralHash(final Var parameter, final ASTNode body) {
+        return Hashing.combine(2, parameter.structuralHash(), body.structuralHash());
+    }
 }
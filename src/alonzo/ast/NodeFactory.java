@@ -0,0 +1,63 @@
+package alonzo.ast;
+
+import alonzo.common.Validate;
+
+/**
+ * Factory through which parsers and rewriters build {@link ASTNode}s. This implementation simply
+ * allocates a new node for every call, interning variable names in its {@link SymbolTable}.
+ * @see SharingNodeFactory
+ */
+public class NodeFactory {
+
+    private final SymbolTable symbols;
+
+    /**
+     * Constructs a NodeFactory interning names in the current thread's {@link SymbolTable}.
+     * @see SymbolTable#current()
+     */
+    public NodeFactory() {
+        this(SymbolTable.current());
+    }
+
+    public NodeFactory(final SymbolTable symbols) {
+        this.symbols = Validate.notNull(symbols, "null SymbolTable");
+    }
+
+    /** @return the table variable names built by this factory are interned in. */
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /**
+     * @param name The name of the variable, which may be a reused buffer.
+     * @return a variable with the given name.
+     */
+    public Var var(final CharSequence name) {
+        return var(symbols.intern(name));
+    }
+
+    /**
+     * @param symbol A symbol assigned by {@link #symbols()}.
+     * @return a variable with the given symbol's name.
+     */
+    public Var var(final int symbol) {
+        return new Var(symbol, symbols);
+    }
+
+    public Fun fun(final Var parameter, final ASTNode body) {
+        return new Fun(parameter, body);
+    }
+
+    public App app(final ASTNode function, final ASTNode argument) {
+        return new App(function, argument);
+    }
+
+    /**
+     * Returns a term structurally identical to the given one, built by this factory. This
+     * implementation returns the term as is.
+     */
+    public ASTNode share(final ASTNode root) {
+        return Validate.notNull(root, "null root");
+    }
+
+}
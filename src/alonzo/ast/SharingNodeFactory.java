@@ -0,0 +1,211 @@
+package alonzo.ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+import alonzo.common.Validate;
+
+/**
+ * {@link NodeFactory} that hash-conses the nodes it builds: structurally identical terms are only
+ * ever allocated once and then shared, so a term built through this factory is stored as a DAG
+ * rather than a tree. Two terms built by the same SharingNodeFactory are structurally identical if
+ * and only if they are the same object, so equality checks become reference comparisons.
+ *
+ * Lookups rely on each node's cached {@link ASTNode#structuralHash()} and on the identity of its
+ * children, so they cost O(1) regardless of the size of the term. Children not built by this
+ * factory are fine, but should be passed through {@link #share(ASTNode)} first to get the full
+ * benefit.
+ *
+ * Unlike its {@link SymbolTable}, a SharingNodeFactory is not thread-safe; it is meant to be scoped
+ * to a session. It holds on to every node it has built, which are released along with the factory.
+ */
+public class SharingNodeFactory extends NodeFactory {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private Var[] vars;
+
+    // Open-addressed hash table of the Funs and Apps built so far.
+    private ASTNode[] nodes;
+    private int size;
+
+    /**
+     * Constructs a SharingNodeFactory interning names in the current thread's
+     * {@link SymbolTable}.
+     * @see SymbolTable#current()
+     */
+    public SharingNodeFactory() {
+        this(SymbolTable.current());
+    }
+
+    public SharingNodeFactory(final SymbolTable symbols) {
+        super(symbols);
+
+        vars = new Var[64];
+        nodes = new ASTNode[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /** @return the number of distinct nodes built by this factory. */
+    public int size() {
+        int count = size;
+        for (final Var var : vars) {
+            if (var != null) { ++count; }
+        }
+        return count;
+    }
+
+    @Override
+    public Var var(final int symbol) {
+        if (symbol >= vars.length) {
+            vars = Arrays.copyOf(vars, Math.max(symbol + 1, vars.length * 2));
+        }
+
+        Var var = vars[symbol];
+        if (var == null) {
+            var = super.var(symbol);
+            vars[symbol] = var;
+        }
+        return var;
+    }
+
+    @Override
+    public Fun fun(final Var parameter, final ASTNode body) {
+        final Var shared = share(parameter);
+        final int hash = Fun.structuralHash(shared, body);
+
+        final int slot = find(hash, shared, body, true);
+        if (nodes[slot] != null) { return (Fun) nodes[slot]; }
+
+        return (Fun) insert(slot, super.fun(shared, body));
+    }
+
+    @Override
+    public App app(final ASTNode function, final ASTNode argument) {
+        final int hash = App.structuralHash(function, argument);
+
+        final int slot = find(hash, function, argument, false);
+        if (nodes[slot] != null) { return (App) nodes[slot]; }
+
+        return (App) insert(slot, super.app(function, argument));
+    }
+
+    /**
+     * Returns the node built by this factory that is structurally identical to the given term,
+     * building any parts of it this factory hasn't seen before. Explicit stacks are used so as not
+     * to blow the function call stack on deep terms, and each distinct node of the input is only
+     * visited once, so shared input is handled in time proportional to its DAG size.
+     */
+    @Override
+    public ASTNode share(final ASTNode root) {
+        final Map<ASTNode, ASTNode> shared = new IdentityHashMap<>();
+        final Stack<ASTNode> pending = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+        final List<ASTNode> results = new ArrayList<>();
+
+        pending.push(Validate.notNull(root, "null root"));
+        expanded.push(false);
+
+        while (!pending.isEmpty()) {
+            final ASTNode node = pending.pop();
+
+            if (!expanded.pop()) {
+                final ASTNode known = isBuilt(node) ? node : shared.get(node);
+                if (known != null) {
+                    results.add(known);
+                } else if (node.isVar()) {
+                    results.add(share((Var) node));
+                } else {
+                    // Revisit the node once both of its children are done.
+                    pending.push(node);
+                    expanded.push(true);
+                    pending.push(right(node));
+                    expanded.push(false);
+                    pending.push(left(node));
+                    expanded.push(false);
+                }
+            } else {
+                final ASTNode right = results.remove(results.size() - 1);
+                final ASTNode left = results.remove(results.size() - 1);
+
+                final ASTNode built = node.isFun() ? fun((Var) left, right) : app(left, right);
+                shared.put(node, built);
+                results.add(built);
+            }
+        }
+
+        return results.get(0);
+    }
+
+    private Var share(final Var var) {
+        return isBuilt(var) ? var : var(var.name());
+    }
+
+    /** @return true if the given node was built by this factory. */
+    private boolean isBuilt(final ASTNode node) {
+        if (node.isVar()) {
+            final Var var = (Var) node;
+            return var.symbols() == symbols() && var.symbol() < vars.length
+                && vars[var.symbol()] == var;
+        }
+
+        final int slot = find(node.structuralHash(), left(node), right(node), node.isFun());
+        return nodes[slot] == node;
+    }
+
+    private static ASTNode left(final ASTNode node) {
+        return node.isFun() ? ((Fun) node).parameter() : ((App) node).function();
+    }
+
+    private static ASTNode right(final ASTNode node) {
+        return node.isFun() ? ((Fun) node).body() : ((App) node).argument();
+    }
+
+    /** @return the slot holding the node with the given children, or the empty slot for it. */
+    private int find(final int hash, final ASTNode left, final ASTNode right, final boolean isFun) {
+        final int mask = nodes.length - 1;
+
+        int slot = hash & mask;
+        while (nodes[slot] != null) {
+            final ASTNode node = nodes[slot];
+            if (node.structuralHash() == hash && matches(node, left, right, isFun)) { return slot; }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static boolean matches(final ASTNode node,
+                                   final ASTNode left,
+                                   final ASTNode right,
+                                   final boolean isFun)
+    {
+        if (isFun) {
+            return node.isFun() && ((Fun) node).parameter() == left && ((Fun) node).body() == right;
+        }
+        return node.isApp() && ((App) node).function() == left && ((App) node).argument() == right;
+    }
+
+    private ASTNode insert(final int slot, final ASTNode node) {
+        nodes[slot] = node;
+        if (++size * 2 > nodes.length) { grow(); }
+        return node;
+    }
+
+    private void grow() {
+        final ASTNode[] old = nodes;
+        nodes = new ASTNode[old.length * 2];
+
+        final int mask = nodes.length - 1;
+        for (final ASTNode node : old) {
+            if (node == null) { continue; }
+
+            int slot = node.structuralHash() & mask;
+            while (nodes[slot] != null) { slot = (slot + 1) & mask; }
+            nodes[slot] = node;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package alonzo.ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import alonzo.common.Validate;
+
+/**
+ * Immutable set of variable names, stored compactly as the sorted symbols of a
+ * {@link SymbolTable}. Each {@link ASTNode} caches the set of its free variables, built from its
+ * children's when it is constructed. Sets of variables from the same table are merged by symbol; a
+ * set built from variables of different tables holds their sorted names instead, so membership is
+ * always by name. Operations return an existing set whenever the result is equal to it, so sets are
+ * shared between nodes as much as possible.
+ *
+ * Sets look names up in tables other than their own, which may be interning names in other threads
+ * meanwhile; this is safe as {@link SymbolTable} is thread-safe.
+ */
+public class SymbolSet {
+
+    private static final SymbolSet EMPTY = new SymbolSet(null, new int[0], null);
+
+    /**
+     * Placeholder for the free variables of a node that have not been computed yet. It is never
+     * returned by {@link ASTNode#freeVariables()}.
+     */
+    static final SymbolSet UNKNOWN = new SymbolSet(null, new int[0], null);
+
+    // Null for the empty set, which belongs to no table, and for sets mixing tables, which hold
+    // names rather than symbols.
+    private final SymbolTable symbols;
+    private final int[] sorted;
+    // Null unless the set mixes tables.
+    private final String[] names;
+
+    private SymbolSet(final SymbolTable symbols, final int[] sorted, final String[] names) {
+        this.symbols = symbols;
+        this.sorted = sorted;
+        this.names = names;
+    }
+
+    public static SymbolSet empty() {
+        return EMPTY;
+    }
+
+    /** @return the set holding the name of the given variable. */
+    public static SymbolSet of(final Var var) {
+        return of(var.symbol(), var.symbols());
+    }
+
+    static SymbolSet of(final int symbol, final SymbolTable symbols) {
+        return new SymbolSet(symbols, new int[] {symbol}, null);
+    }
+
+    /**
+     * @return the table whose symbols this set holds, or null if the set is empty or holds names
+     *         from several tables.
+     */
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    public int size() {
+        return names != null ? names.length : sorted.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** @return whether this set holds the name of the given variable. */
+    public boolean contains(final Var var) {
+        Validate.notNull(var, "null var");
+        if (var.symbols() == symbols) { return containsSymbol(var.symbol()); }
+        return contains(var.name());
+    }
+
+    public boolean contains(final CharSequence name) {
+        Validate.notNull(name, "null name");
+        if (names != null) { return Arrays.binarySearch(names, name.toString()) >= 0; }
+        return sorted.length > 0 && containsSymbol(symbols.symbol(name));
+    }
+
+    /**
+     * @return the names in this set, in the order their symbols were assigned, or in alphabetical
+     *         order if the set holds names from several tables.
+     */
+    public List<String> names() {
+        if (names != null) { return new ArrayList<>(Arrays.asList(names)); }
+
+        final List<String> names = new ArrayList<>(sorted.length);
+        for (final int symbol : sorted) {
+            names.add(symbols.name(symbol));
+        }
+        return names;
+    }
+
+    /** @return the set of the names in either this set or the given one. */
+    public SymbolSet union(final SymbolSet other) {
+        Validate.notNull(other, "null other");
+        if (other.isEmpty() || other == this) { return this; }
+        if (isEmpty()) { return other; }
+        if (names == null && other.names == null && other.symbols == symbols) {
+            return union(merge(sorted, other.sorted), other);
+        }
+
+        final int[] translated = symbols != null ? translate(other) : null;
+        if (translated != null) { return union(merge(sorted, translated), other); }
+        return union(merge(sortedNames(), other.sortedNames()), other);
+    }
+
+    /** @return this set without the name of the given variable. */
+    public SymbolSet without(final Var var) {
+        Validate.notNull(var, "null var");
+        if (!contains(var)) { return this; }
+        if (size() == 1) { return EMPTY; }
+
+        if (names != null) {
+            final int index = Arrays.binarySearch(names, var.name());
+            final String[] removed = new String[names.length - 1];
+            System.arraycopy(names, 0, removed, 0, index);
+            System.arraycopy(names, index + 1, removed, index, removed.length - index);
+            return new SymbolSet(null, null, removed);
+        }
+
+        final int symbol = var.symbols() == symbols ? var.symbol() : symbols.symbol(var.name());
+        final int index = Arrays.binarySearch(sorted, symbol);
+        final int[] removed = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, removed, 0, index);
+        System.arraycopy(sorted, index + 1, removed, index, removed.length - index);
+        return new SymbolSet(symbols, removed, null);
+    }
+
+    private boolean containsSymbol(final int symbol) {
+        return symbol >= 0 && Arrays.binarySearch(sorted, symbol) >= 0;
+    }
+
+    /** @return the union over this set's table, reusing either operand if it is equal to it. */
+    private SymbolSet union(final int[] union, final SymbolSet other) {
+        if (union.length == size()) { return this; }
+        if (union.length == other.size() && other.symbols == symbols) { return other; }
+        return new SymbolSet(symbols, union, null);
+    }
+
+    /** @return the union of names from several tables, reusing either operand if equal to it. */
+    private SymbolSet union(final String[] union, final SymbolSet other) {
+        if (union.length == size() && names != null) { return this; }
+        if (union.length == other.size() && other.names != null) { return other; }
+        return new SymbolSet(null, null, union);
+    }
+
+    /**
+     * @return the sorted symbols of the other set's names in this set's table, or null if the table
+     *         lacks any of them.
+     */
+    private int[] translate(final SymbolSet other) {
+        final List<String> otherNames = other.names();
+        final int[] translated = new int[otherNames.size()];
+        for (int i = 0; i < translated.length; ++i) {
+            translated[i] = symbols.symbol(otherNames.get(i));
+            if (translated[i] < 0) { return null; }
+        }
+        Arrays.sort(translated);
+        return translated;
+    }
+
+    private String[] sortedNames() {
+        if (names != null) { return names; }
+
+        final String[] sortedNames = names().toArray(new String[0]);
+        Arrays.sort(sortedNames);
+        return sortedNames;
+    }
+
+    private static int[] merge(final int[] a, final int[] b) {
+        final int[] union = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                union[size++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                union[size++] = b[j++];
+            } else {
+                union[size++] = a[i++];
+                ++j;
+            }
+        }
+        return size == union.length ? union : Arrays.copyOf(union, size);
+    }
+
+    private static String[] merge(final String[] a, final String[] b) {
+        final String[] union = new String[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length || j < b.length) {
+            final int order = i == a.length ? 1 : j == b.length ? -1 : a[i].compareTo(b[j]);
+            if (order < 0) {
+                union[size++] = a[i++];
+            } else if (order > 0) {
+                union[size++] = b[j++];
+            } else {
+                union[size++] = a[i++];
+                ++j;
+            }
+        }
+        return size == union.length ? union : Arrays.copyOf(union, size);
+    }
+}
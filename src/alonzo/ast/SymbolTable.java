@@ -0,0 +1,230 @@
+package alonzo.ast;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Supplier;
+
+import alonzo.common.Validate;
+
+/**
+ * Table of interned names. Each distinct name is assigned a small int id, its symbol, the first
+ * time it is interned, so that every {@link Var} with the same name in the same table shares one
+ * String and variables can be compared by id rather than with {@link String#equals(Object)}.
+ *
+ * A SymbolTable is thread-safe. Looking up names and symbols, including interning a name the table
+ * already holds, takes no lock; only assigning a new symbol is synchronized, on the table. Tables
+ * are scoped to a session, by constructing one and handing it to everything that builds nodes for
+ * that session, or else to a thread: {@link #current()} is the table used by default, and each
+ * thread has its own, so concurrent parses of unrelated sources never contend on a shared lock.
+ * A thread's table holds every name it has interned by default, so threads that live long, such
+ * as those of a pool, scope their work with {@link #withTable(SymbolTable, Supplier)} or drop
+ * their table with {@link #reset()}. Symbols are only meaningful relative to the table that
+ * assigned them.
+ */
+public class SymbolTable {
+
+    private static final ThreadLocal<SymbolTable> CURRENT =
+        ThreadLocal.withInitial(SymbolTable::new);
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // The arrays of the table, replaced as a whole when they grow. A symbol's name and hash are
+    // written before its slot, and its slot before the size, so readers seeing either see the name.
+    private volatile State state;
+    private volatile int size;
+
+    public SymbolTable() {
+        state = new State(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * @return the current thread's SymbolTable, used whenever nodes are built without specifying a
+     *         table.
+     */
+    public static SymbolTable current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the given action with the given table as the current thread's table, restoring the
+     * previous one afterwards, so that the names interned by default during the action are only
+     * held by {@code table}.
+     * @param table The table {@link #current()} returns during the action.
+     * @param action The action to run.
+     * @return the result of the action.
+     */
+    public static <T> T withTable(final SymbolTable table, final Supplier<T> action) {
+        Validate.notNull(table, "null SymbolTable");
+        Validate.notNull(action, "null action");
+
+        final SymbolTable previous = CURRENT.get();
+        CURRENT.set(table);
+        try {
+            return action.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Drops the current thread's table, so that the names it holds can be collected once no node
+     * refers to them. The next call to {@link #current()} on this thread returns a new table.
+     */
+    public static void reset() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns the symbol for the given name, assigning it the next unused symbol if it hasn't been
+     * interned before. No String is allocated unless the name is new to this table, so callers may
+     * pass a reused {@link StringBuilder}.
+     * @param name The name to intern.
+     * @return the symbol of {@code name}.
+     */
+    public int intern(final CharSequence name) {
+        Validate.notNull(name, "null name");
+
+        final int hash = hash(name);
+        final int symbol = state.lookup(name, hash);
+        return symbol >= 0 ? symbol : insert(name, hash);
+    }
+
+    /**
+     * @param name The name to look up.
+     * @return true if {@code name} has been interned in this table, false otherwise.
+     */
+    public boolean contains(final CharSequence name) {
+        return symbol(name) >= 0;
+    }
+
+    /**
+     * Looks up the symbol of the given name without interning it.
+     * @param name The name to look up.
+     * @return the symbol of {@code name}, or -1 if it hasn't been interned in this table.
+     */
+    public int symbol(final CharSequence name) {
+        Validate.notNull(name, "null name");
+
+        return state.lookup(name, hash(name));
+    }
+
+    /**
+     * @param symbol A symbol assigned by this table.
+     * @return the interned name of the given symbol.
+     * @throws IllegalArgumentException if the symbol was not assigned by this table.
+     */
+    public String name(final int symbol) {
+        Validate.isTrue(symbol >= 0 && symbol < size, "unknown symbol (%d)", symbol);
+        return state.names[symbol];
+    }
+
+    /** @return the number of names interned. Symbols range from 0 up to this value. */
+    public int size() {
+        return size;
+    }
+
+    /** Assigns the next symbol to the given name, unless another thread just did. */
+    private synchronized int insert(final CharSequence name, final int hash) {
+        State current = state;
+        int slot = current.find(name, hash);
+        if (current.slots.get(slot) != 0) { return current.slots.get(slot) - 1; }
+
+        final int symbol = size;
+        if (symbol == current.names.length) {
+            current = current.grow(symbol);
+            state = current;
+            slot = current.find(name, hash);
+        }
+
+        current.names[symbol] = name.toString();
+        current.hashes[symbol] = hash;
+        current.slots.set(slot, symbol + 1);
+        size = symbol + 1;
+        return symbol;
+    }
+
+    /** The same as {@link String#hashCode()}, spread so that the low bits are usable as a slot. */
+    private static int hash(final CharSequence name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); ++i) {
+            h = 31 * h + name.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean contentEquals(final String a, final CharSequence b) {
+        if (a.length() != b.length()) { return false; }
+
+        for (int i = 0; i < a.length(); ++i) {
+            if (a.charAt(i) != b.charAt(i)) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * The names and hashes of the symbols, and an open-addressed hash table of symbol+1, so that 0
+     * marks an empty slot. The slots are read and written with volatile semantics.
+     */
+    private static class State {
+        private final AtomicIntegerArray slots;
+        private final String[] names;
+        private final int[] hashes;
+
+        private State(final int capacity) {
+            this(new AtomicIntegerArray(capacity * 2), new String[capacity], new int[capacity]);
+        }
+
+        private State(final AtomicIntegerArray slots, final String[] names, final int[] hashes) {
+            this.slots = slots;
+            this.names = names;
+            this.hashes = hashes;
+        }
+
+        /**
+         * @return the symbol of {@code name}, or -1 if it isn't in these arrays. Each slot is read
+         *         once, since another thread may fill an empty slot with a different name.
+         */
+        private int lookup(final CharSequence name, final int hash) {
+            final int mask = slots.length() - 1;
+
+            int slot = hash & mask;
+            for (int entry = slots.get(slot); entry != 0; entry = slots.get(slot)) {
+                final int symbol = entry - 1;
+                if (hashes[symbol] == hash && contentEquals(names[symbol], name)) { return symbol; }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * @return the slot holding {@code name}, or the empty slot where it belongs. Only called
+         *         while holding the table's lock, so slots can't fill meanwhile.
+         */
+        private int find(final CharSequence name, final int hash) {
+            final int mask = slots.length() - 1;
+
+            int slot = hash & mask;
+            for (int entry = slots.get(slot); entry != 0; entry = slots.get(slot)) {
+                final int symbol = entry - 1;
+                if (hashes[symbol] == hash && contentEquals(names[symbol], name)) { return slot; }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /** @return a copy of these arrays holding the given number of symbols, twice as large. */
+        private State grow(final int size) {
+            final int capacity = names.length * 2;
+            final AtomicIntegerArray grown = new AtomicIntegerArray(capacity * 2);
+            final int mask = grown.length() - 1;
+            for (int symbol = 0; symbol < size; ++symbol) {
+                int slot = hashes[symbol] & mask;
+                while (grown.get(slot) != 0) { slot = (slot + 1) & mask; }
+                grown.set(slot, symbol + 1);
+            }
+            return new State(grown, Arrays.copyOf(names, capacity),
+                             Arrays.copyOf(hashes, capacity));
+        }
+    }
+}
@@ -1,20 +1,69 @@
 package alonzo.ast;
 
+import alonzo.common.Hashing;
 import alonzo.common.Validate;
 
 /**
- * Variable reference. An {@link ASTNode} representing a referenced variable.
+ * Variable reference. An {@link ASTNode} representing a referenced variable. Names are interned in
+ * a {@link SymbolTable}, so variables from the same table can be compared by {@link #symbol()}.
  */
 public class Var extends ASTNode {
 
     private final String name;
+    private final int symbol;
 
+    /**
+     * Constructs a variable whose name is interned in the current thread's {@link SymbolTable}.
+     * @see SymbolTable#current()
+     */
     public Var(final String name) {
-        this.name = Validate.notNull(name, "null name");
+        this(name, SymbolTable.current());
+    }
+
+    public Var(final String name, final SymbolTable symbols) {
+        this(intern(name, symbols), symbols);
+    }
+
+    /**
+     * @param symbol A symbol already assigned by {@code symbols}.
+     * @param symbols The table the symbol belongs to.
+     */
+    public Var(final int symbol, final SymbolTable symbols) {
+        super(structuralHash(Validate.notNull(symbols, "null SymbolTable").name(symbol)),
+              symbols, SymbolSet.of(symbol, symbols), 1, 1);
+        this.name = symbols.name(symbol);
+        this.symbol = symbol;
     }
 
     public String name() {
         return name;
     }
 
+    /** @return the id of this variable's name within {@link #symbols()}. */
+    public int symbol() {
+        return symbol;
+    }
+
+    /**
+     * @return true if the given variable has the same name as this one. This is an int comparison
+     *         when both come from the same {@link SymbolTable}.
+     */
+    public boolean sameName(final Var other) {
+        return symbols() == other.symbols() ? symbol == other.symbol
+                                        : name.equals(other.name);
+    }
+
+    /**
+     * Variables hash by name rather than symbol, so that hashes agree across
+     * {@link SymbolTable}s.
+     */
+    static int structuralHash(final String name) {
+        return Hashing.combine(1, name.hashCode(), 0);
+    }
+
+    private static int intern(final String name, final SymbolTable symbols) {
+        Validate.notNull(name, "null name");
+        return Validate.notNull(symbols, "null SymbolTable").intern(name);
+    }
+
 }
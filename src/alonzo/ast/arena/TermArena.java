@@ -0,0 +1,308 @@
+package alonzo.ast.arena;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Stack;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.SymbolTable;
+import alonzo.ast.Var;
+import alonzo.common.Validate;
+import alonzo.exc.UnexpectedIssueException;
+
+/**
+ * Alternative representation of terms, stored in an arena of parallel primitive arrays rather than
+ * as {@link ASTNode} objects. A node is identified by its int index into the arena:
+ * <ul>
+ *   <li>{@code kind[n]} is one of {@link #VAR}, {@link #FUN} or {@link #APP};</li>
+ *   <li>{@code symbol[n]} is the variable's name or the function's parameter, as a symbol of the
+ *       arena's {@link SymbolTable};</li>
+ *   <li>{@code left[n]} is the function's body or the application's function;</li>
+ *   <li>{@code right[n]} is the application's argument.</li>
+ * </ul>
+ * Unused slots hold {@link #NONE}. Nodes can only refer to nodes added before them, so children
+ * always have smaller indexes than their parents and a scan in index order visits every node after
+ * its children. For very large terms this avoids the per-object header and pointer chasing of the
+ * {@code ASTNode} classes. {@link #fromAST(ASTNode)} and {@link #toAST(int)} convert between the
+ * two representations.
+ *
+ * A TermArena is not thread-safe.
+ */
+public class TermArena {
+
+    public static final int VAR = 0;
+    public static final int FUN = 1;
+    public static final int APP = 2;
+
+    /** Value of unused slots of the {@code symbol}, {@code left} and {@code right} arrays. */
+    public static final int NONE = -1;
+
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private final SymbolTable symbols;
+
+    private int[] kind;
+    private int[] left;
+    private int[] right;
+    private int[] symbol;
+    private int size;
+
+    /**
+     * Constructs a TermArena whose symbols belong to the current thread's {@link SymbolTable}.
+     * @see SymbolTable#current()
+     */
+    public TermArena() {
+        this(SymbolTable.current(), MINIMUM_CAPACITY);
+    }
+
+    /**
+     * @param symbols The table the arena's symbols belong to.
+     * @param capacity The number of nodes to allocate room for up front.
+     */
+    public TermArena(final SymbolTable symbols, final int capacity) {
+        this.symbols = Validate.notNull(symbols, "null SymbolTable");
+        Validate.isTrue(capacity >= 0, "negative capacity (%d)", capacity);
+
+        final int initial = Math.max(capacity, MINIMUM_CAPACITY);
+        kind = new int[initial];
+        left = new int[initial];
+        right = new int[initial];
+        symbol = new int[initial];
+        size = 0;
+    }
+
+    /** @return the table this arena's symbols belong to. */
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /** @return the number of nodes in the arena. Nodes are numbered from 0 up to this value. */
+    public int size() {
+        return size;
+    }
+
+    /** Removes all nodes from the arena, keeping the allocated arrays for reuse. */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a variable node.
+     * @param name A symbol of {@link #symbols()}.
+     * @return the index of the new node.
+     */
+    public int var(final int name) {
+        Validate.isTrue(name >= 0 && name < symbols.size(), "unknown symbol (%d)", name);
+        return add(VAR, NONE, NONE, name);
+    }
+
+    /**
+     * Adds a function node.
+     * @param parameter A symbol of {@link #symbols()}.
+     * @param body The index of the function's body.
+     * @return the index of the new node.
+     */
+    public int fun(final int parameter, final int body) {
+        Validate.isTrue(parameter >= 0 && parameter < symbols.size(),
+                        "unknown symbol (%d)", parameter);
+        return add(FUN, checkNode(body), NONE, parameter);
+    }
+
+    /**
+     * Adds an application node.
+     * @param function The index of the applied function.
+     * @param argument The index of the argument.
+     * @return the index of the new node.
+     */
+    public int app(final int function, final int argument) {
+        return add(APP, checkNode(function), checkNode(argument), NONE);
+    }
+
+    /** @return the kind of the given node: {@link #VAR}, {@link #FUN} or {@link #APP}. */
+    public int kind(final int node) {
+        return kind[checkNode(node)];
+    }
+
+    /** @return the symbol of a variable's name or of a function's parameter. */
+    public int symbol(final int node) {
+        return symbol[checkNode(node)];
+    }
+
+    /** @return the body of a function or the function of an application. */
+    public int left(final int node) {
+        return left[checkNode(node)];
+    }
+
+    /** @return the argument of an application. */
+    public int right(final int node) {
+        return right[checkNode(node)];
+    }
+
+    /**
+     * Adds the given term to the arena, iteratively so as not to blow the function call stack on
+     * deep terms. Functions and applications occurring more than once within {@code root}, such as
+     * those built by a {@link alonzo.ast.SharingNodeFactory}, are only added once, and so is each
+     * variable name.
+     * @param root The term to add.
+     * @return the index of the node for {@code root}.
+     */
+    public int fromAST(final ASTNode root) {
+        final Map<ASTNode, Integer> added = new IdentityHashMap<>();
+        // The index plus one of the variable node added for each symbol, or zero.
+        int[] vars = new int[MINIMUM_CAPACITY];
+        final Stack<ASTNode> pending = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+        int[] results = new int[MINIMUM_CAPACITY];
+        int resultCount = 0;
+
+        pending.push(Validate.notNull(root, "null root"));
+        expanded.push(false);
+
+        while (!pending.isEmpty()) {
+            final ASTNode node = pending.pop();
+            final boolean isExpanded = expanded.pop();
+
+            final Integer shared = isExpanded || node.isVar() ? null : added.get(node);
+            int index;
+            if (shared != null) {
+                index = shared;
+            } else if (node.isVar()) {
+                // Variables are shared by symbol, through an array rather than the identity map.
+                final int symbol = symbolOf((Var) node);
+                if (symbol >= vars.length) {
+                    vars = Arrays.copyOf(vars, Math.max(symbol + 1, vars.length * 2));
+                }
+                if (vars[symbol] == 0) { vars[symbol] = var(symbol) + 1; }
+                index = vars[symbol] - 1;
+            } else if (!isExpanded) {
+                pending.push(node);
+                expanded.push(true);
+                if (node.isFun()) {
+                    pending.push(((Fun) node).body());
+                } else {
+                    pending.push(((App) node).argument());
+                    expanded.push(false);
+                    pending.push(((App) node).function());
+                }
+                expanded.push(false);
+                continue;
+            } else if (node.isFun()) {
+                index = fun(symbolOf(((Fun) node).parameter()), results[--resultCount]);
+                added.put(node, index);
+            } else {
+                final int argument = results[--resultCount];
+                index = app(results[--resultCount], argument);
+                added.put(node, index);
+            }
+
+            if (resultCount == results.length) {
+                results = Arrays.copyOf(results, resultCount * 2);
+            }
+            results[resultCount++] = index;
+        }
+
+        return results[0];
+    }
+
+    /**
+     * @return the given node converted into {@link ASTNode}s built by a plain {@link NodeFactory}.
+     * @see #toAST(int, NodeFactory)
+     */
+    public ASTNode toAST(final int root) {
+        return toAST(root, new NodeFactory(symbols));
+    }
+
+    /**
+     * Converts the given node into {@link ASTNode}s, without recursion. Nodes reachable from
+     * {@code root} are found first, then built in index order, which guarantees children are built
+     * before their parents. Nodes shared within the arena remain shared.
+     * @param root The index of the node to convert.
+     * @param factory The factory to build nodes through. Its {@link SymbolTable} must be this
+     *                arena's.
+     * @return the converted term.
+     */
+    public ASTNode toAST(final int root, final NodeFactory factory) {
+        checkNode(root);
+        Validate.isTrue(factory.symbols() == symbols, "factory has a different SymbolTable");
+
+        final boolean[] reachable = new boolean[root + 1];
+        int[] pending = new int[MINIMUM_CAPACITY];
+        int pendingCount = 0;
+        int lowest = root;
+
+        reachable[root] = true;
+        pending[pendingCount++] = root;
+        while (pendingCount > 0) {
+            final int node = pending[--pendingCount];
+            lowest = Math.min(lowest, node);
+
+            if (pendingCount + 2 > pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+            if (kind[node] != VAR && !reachable[left[node]]) {
+                reachable[left[node]] = true;
+                pending[pendingCount++] = left[node];
+            }
+            if (kind[node] == APP && !reachable[right[node]]) {
+                reachable[right[node]] = true;
+                pending[pendingCount++] = right[node];
+            }
+        }
+
+        final ASTNode[] built = new ASTNode[root + 1];
+        for (int node = lowest; node <= root; ++node) {
+            if (!reachable[node]) { continue; }
+
+            switch (kind[node]) {
+            case VAR:
+                built[node] = factory.var(symbol[node]);
+                break;
+            case FUN:
+                built[node] = factory.fun(factory.var(symbol[node]), built[left[node]]);
+                break;
+            case APP:
+                built[node] = factory.app(built[left[node]], built[right[node]]);
+                break;
+            default:
+                throw new UnexpectedIssueException("Unexpected node kind: \"%d\".", kind[node]);
+            }
+        }
+
+        return built[root];
+    }
+
+    private int symbolOf(final Var var) {
+        return var.symbols() == symbols ? var.symbol() : symbols.intern(var.name());
+    }
+
+    private int add(final int nodeKind,
+                    final int nodeLeft,
+                    final int nodeRight,
+                    final int nodeSymbol)
+    {
+        if (size == kind.length) {
+            final int capacity = size * 2;
+            kind = Arrays.copyOf(kind, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            symbol = Arrays.copyOf(symbol, capacity);
+        }
+
+        kind[size] = nodeKind;
+        left[size] = nodeLeft;
+        right[size] = nodeRight;
+        symbol[size] = nodeSymbol;
+        return size++;
+    }
+
+    private int checkNode(final int node) {
+        if (node < 0 || node >= size) {
+            throw new IndexOutOfBoundsException(String.format("node %d of %d", node, size));
+        }
+        return node;
+    }
+}
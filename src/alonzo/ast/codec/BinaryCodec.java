@@ -0,0 +1,429 @@
+package alonzo.ast.codec;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.Var;
+import alonzo.common.Validate;
+import alonzo.exc.UnexpectedIssueException;
+
+/**
+ * Compact binary encoding of terms, much smaller and faster to read back than their text. An
+ * encoded term is:
+ * <ul>
+ * <li>the {@link #VERSION} byte;</li>
+ * <li>a symbol table: the number of distinct names, then each name as its length and its UTF-8
+ *     bytes, numbered in order from 0;</li>
+ * <li>the nodes in postorder, children before their parents, each as a one-byte tag:
+ *     {@link #VAR} followed by the symbol of the variable's name, {@link #FUN} followed by the
+ *     symbol of the parameter's name, with the body being the node before, {@link #APP}, applying
+ *     the node before the previous one to the previous one, or {@link #REF} followed by a
+ *     back-reference to a function or application already written;</li>
+ * <li>the {@link #END} tag.</li>
+ * </ul>
+ * All numbers are unsigned varints: 7 bits per byte, low bits first, the high bit set on all but
+ * the last byte. Functions and applications are numbered in the order written, and a
+ * back-reference is the distance from the next such number down to the one referred to. A node
+ * occurring more than once within a term, such as those shared by
+ * {@link alonzo.ast.SharingNodeFactory} or by substitution, is written once and referred to
+ * afterwards, so shared terms stay shared and stay small.
+ *
+ * Reading is a loop over the bytes driving a stack of nodes, and writing uses explicit stacks, so
+ * neither blows the function call stack on deep terms. Read terms share a single variable node
+ * for all occurrences of each name. Terms are read from and written to
+ * {@link InputStream}s, {@link OutputStream}s and {@link ByteBuffer}s; reading from a stream
+ * consumes exactly the bytes of one term, so several can follow each other in a stream.
+ */
+public class BinaryCodec {
+
+    public static final int VERSION = 1;
+
+    public static final int VAR = 0;
+    public static final int FUN = 1;
+    public static final int APP = 2;
+    public static final int REF = 3;
+    public static final int END = 4;
+
+    private static final int MINIMUM_CAPACITY = 16;
+
+    // Prevent this class from be instantiated.
+    private BinaryCodec() {}
+
+    /** @return the encoding of the given term. */
+    public static byte[] encode(final ASTNode root) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(root, bytes);
+        } catch (final IOException e) {
+            throw new UnexpectedIssueException(e, "Writing to memory failed");
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the encoding of the given term to a stream, through a buffer flushed before
+     * returning. The stream is not closed.
+     */
+    public static void write(final ASTNode root, final OutputStream out) throws IOException {
+        Validate.notNull(out, "null OutputStream");
+        final BufferedOutputStream buffered = new BufferedOutputStream(out);
+        new Writer(Validate.notNull(root, "null root")) {
+            @Override
+            void writeByte(final int b) throws IOException {
+                buffered.write(b);
+            }
+        }.write();
+        buffered.flush();
+    }
+
+    /**
+     * Writes the encoding of the given term into a buffer, from its position on.
+     * @throws java.nio.BufferOverflowException if the buffer has too little room left.
+     */
+    public static void write(final ASTNode root, final ByteBuffer buffer) {
+        Validate.notNull(buffer, "null ByteBuffer");
+        try {
+            new Writer(Validate.notNull(root, "null root")) {
+                @Override
+                void writeByte(final int b) {
+                    buffer.put((byte) b);
+                }
+            }.write();
+        } catch (final IOException e) {
+            throw new UnexpectedIssueException(e, "Writing to a buffer failed");
+        }
+    }
+
+    /** @return the term of the given encoding, built through the given factory. */
+    public static ASTNode decode(final byte[] encoded, final NodeFactory factory)
+        throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(Validate.notNull(encoded, "null encoded"));
+        final ASTNode root = read(buffer, factory);
+        if (buffer.hasRemaining()) { throw new IOException("Trailing bytes after term"); }
+        return root;
+    }
+
+    /**
+     * Reads a term from a stream, one byte at a time and no further than its end. Reading from a
+     * buffered stream is much faster.
+     * @param in The stream to read from.
+     * @param factory The factory to build the term through.
+     * @return the term read.
+     * @throws IOException if the stream could not be read or does not hold an encoded term.
+     */
+    public static ASTNode read(final InputStream in, final NodeFactory factory)
+        throws IOException
+    {
+        Validate.notNull(in, "null InputStream");
+        return new Reader(Validate.notNull(factory, "null NodeFactory")) {
+            @Override
+            int readByte() throws IOException {
+                final int b = in.read();
+                if (b < 0) { throw new IOException("Truncated term"); }
+                return b;
+            }
+
+            @Override
+            long remaining() {
+                return Long.MAX_VALUE;
+            }
+        }.read();
+    }
+
+    /**
+     * Reads a term from a buffer, from its position on, leaving the position just after the
+     * term.
+     * @see #read(InputStream, NodeFactory)
+     */
+    public static ASTNode read(final ByteBuffer buffer, final NodeFactory factory)
+        throws IOException
+    {
+        Validate.notNull(buffer, "null ByteBuffer");
+        return new Reader(Validate.notNull(factory, "null NodeFactory")) {
+            @Override
+            int readByte() throws IOException {
+                try {
+                    return buffer.get() & 0xFF;
+                } catch (final BufferUnderflowException e) {
+                    throw new IOException("Truncated term", e);
+                }
+            }
+
+            @Override
+            long remaining() {
+                return buffer.remaining();
+            }
+        }.read();
+    }
+
+    /** Writes one term, byte by byte. */
+    private abstract static class Writer {
+        private final ASTNode root;
+        private final Map<String, Integer> symbols;
+        private final List<String> names;
+        // The number of each function and application written, by identity.
+        private final Map<ASTNode, Integer> written;
+
+        Writer(final ASTNode root) {
+            this.root = root;
+            this.symbols = new HashMap<>();
+            this.names = new ArrayList<>();
+            this.written = new IdentityHashMap<>();
+        }
+
+        abstract void writeByte(int b) throws IOException;
+
+        void write() throws IOException {
+            collectNames();
+
+            writeByte(VERSION);
+            writeVarint(names.size());
+            for (final String name : names) {
+                final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                writeVarint(bytes.length);
+                for (final byte b : bytes) {
+                    writeByte(b & 0xFF);
+                }
+            }
+
+            writeNodes();
+            writeByte(END);
+        }
+
+        /** Numbers the names of the term in the order they are first met. */
+        private void collectNames() {
+            final Set<ASTNode> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            final Stack<ASTNode> pending = new Stack<>();
+
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                final ASTNode node = pending.pop();
+                if (node.isVar()) {
+                    symbol((Var) node);
+                } else if (visited.add(node)) {
+                    if (node.isFun()) {
+                        symbol(((Fun) node).parameter());
+                        pending.push(((Fun) node).body());
+                    } else {
+                        pending.push(((App) node).argument());
+                        pending.push(((App) node).function());
+                    }
+                }
+            }
+        }
+
+        private int symbol(final Var var) {
+            final Integer symbol = symbols.get(var.name());
+            if (symbol != null) { return symbol; }
+
+            symbols.put(var.name(), names.size());
+            names.add(var.name());
+            return names.size() - 1;
+        }
+
+        private void writeNodes() throws IOException {
+            final Stack<ASTNode> pending = new Stack<>();
+            final Stack<Boolean> expanded = new Stack<>();
+
+            pending.push(root);
+            expanded.push(false);
+            while (!pending.isEmpty()) {
+                final ASTNode node = pending.pop();
+                final boolean isExpanded = expanded.pop();
+
+                if (node.isVar()) {
+                    writeByte(VAR);
+                    writeVarint(symbols.get(((Var) node).name()));
+                    continue;
+                }
+
+                final Integer number = written.get(node);
+                if (number != null) {
+                    writeByte(REF);
+                    writeVarint(written.size() - number);
+                } else if (!isExpanded) {
+                    // Revisit the node once its children are written.
+                    pending.push(node);
+                    expanded.push(true);
+                    if (node.isFun()) {
+                        pending.push(((Fun) node).body());
+                    } else {
+                        pending.push(((App) node).argument());
+                        expanded.push(false);
+                        pending.push(((App) node).function());
+                    }
+                    expanded.push(false);
+                } else {
+                    if (node.isFun()) {
+                        writeByte(FUN);
+                        writeVarint(symbols.get(((Fun) node).parameter().name()));
+                    } else {
+                        writeByte(APP);
+                    }
+                    written.put(node, written.size());
+                }
+            }
+        }
+
+        private void writeVarint(final int value) throws IOException {
+            int rest = value;
+            while ((rest & ~0x7F) != 0) {
+                writeByte((rest & 0x7F) | 0x80);
+                rest >>>= 7;
+            }
+            writeByte(rest);
+        }
+    }
+
+    /**
+     * Reads one term, byte by byte. Counts and lengths read are checked against the bytes left
+     * when those are known, and arrays sized by them otherwise grow as their contents are read,
+     * so malformed input fails with an {@link IOException} rather than a huge allocation.
+     */
+    private abstract static class Reader {
+        private final NodeFactory factory;
+
+        Reader(final NodeFactory factory) {
+            this.factory = factory;
+        }
+
+        abstract int readByte() throws IOException;
+
+        /** @return the number of bytes left to read, or {@link Long#MAX_VALUE} if unknown. */
+        abstract long remaining();
+
+        ASTNode read() throws IOException {
+            final int version = readByte();
+            if (version != VERSION) {
+                throw new IOException(String.format("Unsupported encoding version %d", version));
+            }
+
+            // The variable of each name, built once and shared by all its occurrences. Each name
+            // takes at least the byte of its length.
+            final int symbols = readCount("Symbol count");
+            Var[] vars = new Var[Math.min(symbols, MINIMUM_CAPACITY)];
+            for (int i = 0; i < symbols; ++i) {
+                if (i == vars.length) { vars = Arrays.copyOf(vars, Math.min(symbols, i * 2)); }
+                vars[i] = factory.var(readName());
+            }
+
+            ASTNode[] stack = new ASTNode[MINIMUM_CAPACITY];
+            int size = 0;
+            // The functions and applications read so far, in order, for back-references.
+            ASTNode[] nodes = new ASTNode[MINIMUM_CAPACITY];
+            int count = 0;
+
+            while (true) {
+                final int tag = readByte();
+                if (tag == END) { break; }
+
+                final ASTNode node;
+                switch (tag) {
+                case VAR:
+                    node = var(vars, readVarint());
+                    break;
+                case FUN:
+                    requireOperands(size, 1, "FUN");
+                    node = factory.fun(var(vars, readVarint()), stack[--size]);
+                    break;
+                case APP:
+                    requireOperands(size, 2, "APP");
+                    final ASTNode argument = stack[--size];
+                    node = factory.app(stack[--size], argument);
+                    break;
+                case REF:
+                    final int distance = readVarint();
+                    if (distance < 1 || distance > count) {
+                        throw new IOException(String.format("Back-reference %d out of range",
+                                                            distance));
+                    }
+                    node = nodes[count - distance];
+                    break;
+                default:
+                    throw new IOException(String.format("Unknown node tag %d", tag));
+                }
+
+                if (tag == FUN || tag == APP) {
+                    if (count == nodes.length) { nodes = Arrays.copyOf(nodes, count * 2); }
+                    nodes[count++] = node;
+                }
+                if (size == stack.length) { stack = Arrays.copyOf(stack, size * 2); }
+                stack[size++] = node;
+            }
+
+            if (size != 1) {
+                throw new IOException(String.format("Term ends with %d nodes unused", size));
+            }
+            return stack[0];
+        }
+
+        private String readName() throws IOException {
+            final int length = readCount("Name length");
+            byte[] bytes = new byte[Math.min(length, MINIMUM_CAPACITY)];
+            for (int i = 0; i < length; ++i) {
+                if (i == bytes.length) { bytes = Arrays.copyOf(bytes, Math.min(length, i * 2)); }
+                bytes[i] = (byte) readByte();
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /** @return a count of items of at least a byte each, which must fit in the bytes left. */
+        private int readCount(final String what) throws IOException {
+            final int count = readVarint();
+            final long remaining = remaining();
+            if (count > remaining) {
+                throw new IOException(String.format("%s %d exceeds the %d bytes left", what, count,
+                                                    remaining));
+            }
+            return count;
+        }
+
+        private static Var var(final Var[] vars, final int symbol) throws IOException {
+            if (symbol >= vars.length) {
+                throw new IOException(String.format("Unknown symbol %d", symbol));
+            }
+            return vars[symbol];
+        }
+
+        private static void requireOperands(final int size, final int needed, final String tag)
+            throws IOException
+        {
+            if (size < needed) {
+                throw new IOException(String.format("%s without enough operands", tag));
+            }
+        }
+
+        private int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                final int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    if (value < 0) { break; }
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+    }
+}
@@ -21,8 +21,22 @@ public abstract class Formatter {
 
     private final Charset charset;
 
+    // The encoded punctuation, computed once rather than for every node formatted. The arrays are
+    // shared by every node formatted, so they are only ever written out, never handed out.
+    private final byte[] funOpen;
+    private final byte[] funDot;
+    private final byte[] appOpen;
+    private final byte[] appSpace;
+    private final byte[] close;
+
     protected Formatter(final Charset charset) {
         this.charset = Validate.notNull(charset, "null charset");
+
+        funOpen = bytes("(λ");
+        funDot = bytes(".");
+        appOpen = bytes("(");
+        appSpace = bytes(" ");
+        close = bytes(")");
     }
 
     /**
@@ -54,4 +68,29 @@ public abstract class Formatter {
     protected byte[] bytes(final String name) {
         return name.getBytes(charset);
     }
+
+    /** Writes the opening of a function, up to its parameter: {@code (λ}. */
+    protected void writeFunOpen(final OutputStream out) throws IOException {
+        out.write(funOpen);
+    }
+
+    /** Writes the separator between a function's parameter and its body: {@code .}. */
+    protected void writeFunDot(final OutputStream out) throws IOException {
+        out.write(funDot);
+    }
+
+    /** Writes the opening of an application: {@code (}. */
+    protected void writeAppOpen(final OutputStream out) throws IOException {
+        out.write(appOpen);
+    }
+
+    /** Writes the separator between an application's function and its argument: a space. */
+    protected void writeAppSpace(final OutputStream out) throws IOException {
+        out.write(appSpace);
+    }
+
+    /** Writes the closing of a function or an application: {@code )}. */
+    protected void writeClose(final OutputStream out) throws IOException {
+        out.write(close);
+    }
 }
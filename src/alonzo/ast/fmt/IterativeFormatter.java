@@ -55,17 +55,17 @@ public class IterativeFormatter extends Formatter {
     {
         switch (state) {
         case ASTContext.BEFORE_NODE:
-            out.write(bytes("(λ"));
+            writeFunOpen(out);
             contexts.push(ASTContext.of(fun, ASTContext.AFTER_PARAMETER));
             contexts.push(ASTContext.initial(fun.parameter()));
             break;
         case ASTContext.AFTER_PARAMETER:
-            out.write(bytes("."));
+            writeFunDot(out);
             contexts.push(ASTContext.of(fun, ASTContext.AFTER_BODY));
             contexts.push(ASTContext.initial(fun.body()));
             break;
         case ASTContext.AFTER_BODY:
-            out.write(bytes(")"));
+            writeClose(out);
             break;
         default: throw new UnexpectedIssueException("Unexpected state: \"%s\".", state);
         }
@@ -79,17 +79,17 @@ public class IterativeFormatter extends Formatter {
     {
         switch (state) {
         case ASTContext.BEFORE_NODE:
-            out.write(bytes("("));
+            writeAppOpen(out);
             contexts.push(ASTContext.of(app, ASTContext.AFTER_LEFT));
             contexts.push(ASTContext.initial(app.function()));
             break;
         case ASTContext.AFTER_LEFT:
-            out.write(bytes(" "));
+            writeAppSpace(out);
             contexts.push(ASTContext.of(app, ASTContext.AFTER_RIGHT));
             contexts.push(ASTContext.initial(app.argument()));
             break;
         case ASTContext.AFTER_RIGHT:
-            out.write(bytes(")"));
+            writeClose(out);
             break;
         default: throw new UnexpectedIssueException("Unexpected status: \"%s\".", state);
         }
@@ -38,19 +38,19 @@ public class RecursiveFormatter extends Formatter {
     }
 
     private void formatFun(final OutputStream out, final Fun fun) throws IOException {
-        out.write(bytes("(λ"));
+        writeFunOpen(out);
         format(out, fun.parameter());
-        out.write(bytes("."));
+        writeFunDot(out);
         format(out, fun.body());
-        out.write(bytes(")"));
+        writeClose(out);
     }
 
     private void formatApp(final OutputStream out, final App app) throws IOException {
-        out.write(bytes("("));
+        writeAppOpen(out);
         format(out, app.function());
-        out.write(bytes(" "));
+        writeAppSpace(out);
         format(out, app.argument());
-        out.write(bytes(")"));
+        writeClose(out);
     }
 
 }
@@ -0,0 +1,27 @@
+package alonzo.ast.nameless;
+
+import alonzo.common.Hashing;
+import alonzo.common.Validate;
+
+/** Function application. A {@link Term} representing the application of a function to a term. */
+public class Apply extends Term {
+
+    private final Term function;
+    private final Term argument;
+
+    public Apply(final Term function, final Term argument) {
+        super(Hashing.combine(4, Validate.notNull(function, "null function").hashCode(),
+                              Validate.notNull(argument, "null argument").hashCode()));
+        this.function = function;
+        this.argument = argument;
+    }
+
+    public Term function() {
+        return function;
+    }
+
+    public Term argument() {
+        return argument;
+    }
+
+}
@@ -0,0 +1,28 @@
+package alonzo.ast.nameless;
+
+import alonzo.common.Hashing;
+import alonzo.common.Validate;
+
+/**
+ * Bound variable. A {@link Term} referring to the parameter of the {@link Lambda} {@link #index()}
+ * functions out from it, counting from 0 for the innermost enclosing function.
+ */
+public class Bound extends Term {
+
+    private final int index;
+
+    public Bound(final int index) {
+        super(Hashing.combine(1, validate(index), 0));
+        this.index = index;
+    }
+
+    public int index() {
+        return index;
+    }
+
+    private static int validate(final int index) {
+        Validate.isTrue(index >= 0, "negative index (%d)", index);
+        return index;
+    }
+
+}
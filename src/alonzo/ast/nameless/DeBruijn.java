@@ -0,0 +1,224 @@
+package alonzo.ast.nameless;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.Var;
+import alonzo.common.Validate;
+
+/**
+ * Converts between {@link ASTNode}s and their nameless {@link Term} form. Both directions keep
+ * their state on explicit stacks so as not to blow the function call stack on deep terms.
+ */
+public class DeBruijn {
+
+    // Prevent this class from be instantiated.
+    private DeBruijn() {}
+
+    /**
+     * @param root The term to convert.
+     * @return the nameless form of the given term. Alpha-equivalent terms have equal nameless
+     *         forms.
+     */
+    public static Term toNameless(final ASTNode root) {
+        // For each name, the depths of the functions binding it, innermost on top.
+        final Map<String, Stack<Integer>> binders = new HashMap<>();
+        final Stack<ASTNode> pending = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+        final Stack<Term> results = new Stack<>();
+        int depth = 0;
+
+        pending.push(Validate.notNull(root, "null root"));
+        expanded.push(false);
+
+        while (!pending.isEmpty()) {
+            final ASTNode node = pending.pop();
+
+            if (!expanded.pop()) {
+                if (node.isVar()) {
+                    final Stack<Integer> depths = binders.get(((Var) node).name());
+                    results.push(depths == null || depths.isEmpty()
+                                 ? new Free(((Var) node).name())
+                                 : new Bound(depth - depths.peek() - 1));
+                    continue;
+                }
+
+                // Revisit the node once its children are done.
+                pending.push(node);
+                expanded.push(true);
+                if (node.isFun()) {
+                    final String name = ((Fun) node).parameter().name();
+                    binders.computeIfAbsent(name, n -> new Stack<>()).push(depth++);
+                    pending.push(((Fun) node).body());
+                } else {
+                    pending.push(((App) node).argument());
+                    expanded.push(false);
+                    pending.push(((App) node).function());
+                }
+                expanded.push(false);
+            } else if (node.isFun()) {
+                final String name = ((Fun) node).parameter().name();
+                binders.get(name).pop();
+                --depth;
+                results.push(new Lambda(name, results.pop()));
+            } else {
+                final Term argument = results.pop();
+                results.push(new Apply(results.pop(), argument));
+            }
+        }
+
+        return results.pop();
+    }
+
+    /**
+     * @return the given nameless term converted into {@link ASTNode}s built by a
+     *         {@link NodeFactory} over the current thread's {@link alonzo.ast.SymbolTable}.
+     * @see #toAST(Term, NodeFactory)
+     */
+    public static ASTNode toAST(final Term root) {
+        return toAST(root, new NodeFactory());
+    }
+
+    /**
+     * Converts a nameless term back into {@link ASTNode}s, generating a name for each function's
+     * parameter. A function's {@link Lambda#hint()} is used when it is free for use, and a numeric
+     * suffix is added to it otherwise. A name is free for use when it is not the name of a free
+     * variable of the term, nor the name of a parameter already in scope, which guarantees no
+     * variable is captured. The result is alpha-equivalent to any term {@code root} was converted
+     * from, but may differ from it by a renaming where that term shadowed names.
+     * @param root The nameless term to convert.
+     * @param factory The factory to build nodes through.
+     * @return the converted term.
+     * @throws IllegalArgumentException if {@code root} has a {@link Bound} variable whose index
+     *         is not bound by an enclosing {@link Lambda}.
+     */
+    public static ASTNode toAST(final Term root, final NodeFactory factory) {
+        Validate.notNull(factory, "null NodeFactory");
+
+        final Names names = new Names(freeNames(Validate.notNull(root, "null root")));
+        final List<String> scope = new ArrayList<>();
+        final Stack<Term> pending = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+        final Stack<ASTNode> results = new Stack<>();
+
+        pending.push(root);
+        expanded.push(false);
+
+        while (!pending.isEmpty()) {
+            final Term term = pending.pop();
+
+            if (!expanded.pop()) {
+                if (term.isBound()) {
+                    final int index = ((Bound) term).index();
+                    Validate.isTrue(index < scope.size(), "unbound index (%d)", index);
+                    results.push(factory.var(scope.get(scope.size() - index - 1)));
+                    continue;
+                }
+                if (term.isFree()) {
+                    results.push(factory.var(((Free) term).name()));
+                    continue;
+                }
+
+                pending.push(term);
+                expanded.push(true);
+                if (term.isLambda()) {
+                    scope.add(names.take(((Lambda) term).hint()));
+                    pending.push(((Lambda) term).body());
+                } else {
+                    pending.push(((Apply) term).argument());
+                    expanded.push(false);
+                    pending.push(((Apply) term).function());
+                }
+                expanded.push(false);
+            } else if (term.isLambda()) {
+                final String name = scope.remove(scope.size() - 1);
+                names.release(name);
+                results.push(factory.fun(factory.var(name), results.pop()));
+            } else {
+                final ASTNode argument = results.pop();
+                results.push(factory.app(results.pop(), argument));
+            }
+        }
+
+        return results.pop();
+    }
+
+    /** @return the names of the free variables of the given term. */
+    private static Set<String> freeNames(final Term root) {
+        final Set<String> names = new HashSet<>();
+        final Stack<Term> pending = new Stack<>();
+
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final Term term = pending.pop();
+            if (term.isFree()) {
+                names.add(((Free) term).name());
+            } else if (term.isLambda()) {
+                pending.push(((Lambda) term).body());
+            } else if (term.isApply()) {
+                pending.push(((Apply) term).argument());
+                pending.push(((Apply) term).function());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * The names that can't be given to a parameter: those of free variables and of parameters in
+     * scope. Taking a name already in use adds the smallest numeric suffix that makes it unused,
+     * and the next suffix to try is remembered per base name, so long chains of functions with the
+     * same hint are named in linear time.
+     */
+    private static class Names {
+        private final Set<String> used;
+        private final Map<String, Integer> suffixes;
+
+        Names(final Set<String> free) {
+            this.used = free;
+            this.suffixes = new HashMap<>();
+        }
+
+        /** @return {@code hint}, or a suffixed version of it if it is used, now marked used. */
+        String take(final String hint) {
+            String name = hint;
+            if (used.contains(hint)) {
+                final String base = base(hint);
+                int suffix = suffixes.getOrDefault(base, 1);
+                while (used.contains(base + suffix)) { ++suffix; }
+                suffixes.put(base, suffix + 1);
+                name = base + suffix;
+            }
+            used.add(name);
+            return name;
+        }
+
+        /** Marks a name returned by {@link #take(String)} as unused, once out of scope. */
+        void release(final String name) {
+            used.remove(name);
+
+            final String base = base(name);
+            final int digits = name.length() - base.length();
+            if (digits > 0 && digits < 10 && suffixes.containsKey(base)) {
+                final int suffix = Integer.parseInt(name.substring(base.length()));
+                suffixes.put(base, Math.min(suffixes.get(base), suffix));
+            }
+        }
+
+        /** @return the name stripped of any numeric suffix. */
+        private static String base(final String name) {
+            int end = name.length();
+            while (end > 1 && Character.isDigit(name.charAt(end - 1))) { --end; }
+            return name.substring(0, end);
+        }
+    }
+
+}
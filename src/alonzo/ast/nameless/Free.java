@@ -0,0 +1,20 @@
+package alonzo.ast.nameless;
+
+import alonzo.common.Hashing;
+import alonzo.common.Validate;
+
+/** Free variable. A {@link Term} referring to a variable not bound within the term, by name. */
+public class Free extends Term {
+
+    private final String name;
+
+    public Free(final String name) {
+        super(Hashing.combine(2, Validate.notNull(name, "null name").hashCode(), 0));
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+}
@@ -0,0 +1,31 @@
+package alonzo.ast.nameless;
+
+import alonzo.common.Hashing;
+import alonzo.common.Validate;
+
+/**
+ * Function definition. A {@link Term} representing a function whose parameter is referred to by
+ * {@link Bound} variables in its body. The function remembers a name for its parameter, used as a
+ * hint when converting back to named form, but the name takes no part in equality.
+ */
+public class Lambda extends Term {
+
+    private final String hint;
+    private final Term body;
+
+    public Lambda(final String hint, final Term body) {
+        super(Hashing.combine(3, Validate.notNull(body, "null body").hashCode(), 0));
+        this.hint = Validate.notNull(hint, "null hint");
+        this.body = body;
+    }
+
+    /** @return the name the parameter would preferably be given when converted to named form. */
+    public String hint() {
+        return hint;
+    }
+
+    public Term body() {
+        return body;
+    }
+
+}
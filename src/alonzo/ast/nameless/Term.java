@@ -0,0 +1,85 @@
+package alonzo.ast.nameless;
+
+import java.util.Stack;
+
+/**
+ * Abstract superclass for terms in nameless form, where each bound variable is replaced by its
+ * De Bruijn index: the number of functions between the variable and the function that binds it.
+ * Free variables keep their names. Nameless terms are compared structurally by
+ * {@link #equals(Object)}, so two terms are equal exactly when the {@link alonzo.ast.ASTNode}s
+ * they were converted from are alpha-equivalent. Hashes are computed when a term is constructed,
+ * so {@link #hashCode()} is O(1) and unequal terms are usually told apart without a traversal.
+ * @see DeBruijn
+ * @see Bound
+ * @see Free
+ * @see Lambda
+ * @see Apply
+ */
+public abstract class Term {
+
+    private final int hash;
+
+    Term(final int hash) {
+        this.hash = hash;
+    }
+
+    public boolean isBound() {
+        return this instanceof Bound;
+    }
+
+    public boolean isFree() {
+        return this instanceof Free;
+    }
+
+    public boolean isLambda() {
+        return this instanceof Lambda;
+    }
+
+    public boolean isApply() {
+        return this instanceof Apply;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Structural equality, ignoring the parameter name hints of {@link Lambda}s. The comparison
+     * uses explicit stacks so as not to blow the function call stack on deep terms.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) { return true; }
+        if (!(obj instanceof Term)) { return false; }
+
+        final Stack<Term> lefts = new Stack<>();
+        final Stack<Term> rights = new Stack<>();
+        lefts.push(this);
+        rights.push((Term) obj);
+
+        while (!lefts.isEmpty()) {
+            final Term left = lefts.pop();
+            final Term right = rights.pop();
+
+            if (left == right) { continue; }
+            if (left.hash != right.hash || left.getClass() != right.getClass()) { return false; }
+
+            if (left.isBound()) {
+                if (((Bound) left).index() != ((Bound) right).index()) { return false; }
+            } else if (left.isFree()) {
+                if (!((Free) left).name().equals(((Free) right).name())) { return false; }
+            } else if (left.isLambda()) {
+                lefts.push(((Lambda) left).body());
+                rights.push(((Lambda) right).body());
+            } else {
+                lefts.push(((Apply) left).argument());
+                rights.push(((Apply) right).argument());
+                lefts.push(((Apply) left).function());
+                rights.push(((Apply) right).function());
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,287 @@
+package alonzo.ast.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.SymbolTable;
+import alonzo.ast.Var;
+import alonzo.common.Validate;
+import alonzo.io.SourceLocation;
+import alonzo.io.SourceReader;
+
+/**
+ * {@link Parser} implemented as a single pass over a {@link SourceReader}, keeping its state on an
+ * explicit stack so as not to blow the function call stack on too-deeply nested input.
+ *
+ * The accepted grammar is the usual one for the lambda calculus:
+ * <pre>
+ *   term  := atom+                   (application, associating to the left)
+ *   atom  := name | '(' term ')' | lambda name '.' term
+ * </pre>
+ * where {@code lambda} is either {@code λ} or {@code \}, and a lambda's body extends as far to the
+ * right as possible. Names are runs of any characters other than whitespace and the reserved
+ * characters {@code λ \ . ( )}. This accepts everything the {@link alonzo.ast.fmt.Formatter}s
+ * produce.
+ *
+ * UTF-8 input that is already in memory can be parsed with {@link #parse(ByteBuffer)}, which skips
+ * character decoding altogether by way of {@link Utf8Lexer}.
+ *
+ * Nodes are built through a {@link NodeFactory}, and names are interned in its {@link SymbolTable}
+ * straight from a reused buffer, so a String is only allocated the first time a name is seen.
+ * Unless constructed with a factory or table, the parser uses the {@link SymbolTable#current()}
+ * table of the thread calling {@code parse}.
+ */
+public class IterativeParser extends Parser {
+
+    private final NodeFactory factory;
+
+    public IterativeParser() {
+        this(Parser.DEFAULT_CHARSET);
+    }
+
+    public IterativeParser(final Charset charset) {
+        super(charset);
+        this.factory = null;
+    }
+
+    public IterativeParser(final SymbolTable symbols) {
+        this(Parser.DEFAULT_CHARSET, symbols);
+    }
+
+    public IterativeParser(final Charset charset, final SymbolTable symbols) {
+        this(charset, new NodeFactory(symbols));
+    }
+
+    /**
+     * Constructs an IterativeParser building nodes through the given factory, e.g. a
+     * {@link alonzo.ast.SharingNodeFactory}.
+     */
+    public IterativeParser(final NodeFactory factory) {
+        this(Parser.DEFAULT_CHARSET, factory);
+    }
+
+    public IterativeParser(final Charset charset, final NodeFactory factory) {
+        super(charset);
+        this.factory = Validate.notNull(factory, "null NodeFactory");
+    }
+
+    @Override
+    public ASTNode parse(final SourceReader reader) throws IOException {
+        final NodeFactory factory = factory();
+        final TermBuilder builder = new TermBuilder(factory, IterativeParser::location);
+        final StringBuilder name = new StringBuilder();
+
+        int c = skipWhitespace(reader);
+        while (c != SourceReader.END_OF_STREAM) {
+            if (c == '(') {
+                builder.openParen(position(reader));
+                reader.readChar();
+            } else if (c == ')') {
+                builder.closeParen(position(reader));
+                reader.readChar();
+            } else if (isLambda(c)) {
+                final long position = position(reader);
+                reader.readChar();
+                builder.openLambda(parseParameter(reader, builder, factory, name), position);
+            } else if (c == '.') {
+                throw builder.error(position(reader), "Unexpected '.'");
+            } else {
+                builder.append(factory.var(readName(reader, name)));
+            }
+
+            c = skipWhitespace(reader);
+        }
+
+        return builder.finish(position(reader));
+    }
+
+    /**
+     * Parses an {@code ASTNode} from the UTF-8 encoded bytes between the given buffer's position
+     * and limit, regardless of the {@link Charset} this parser was constructed with. The input is
+     * tokenized by {@link Utf8Lexer} without being decoded.
+     * @param in The UTF-8 encoded bytes to parse. Its position is not changed.
+     * @return the parsed {@code ASTNode}.
+     * @throws alonzo.exc.ParseException if the bytes do not form a valid term.
+     */
+    public ASTNode parse(final ByteBuffer in) {
+        final Tokens tokens = Utf8Lexer.lex(in);
+        final NodeFactory factory = factory();
+        final TermBuilder builder = new TermBuilder(factory, offset -> location(in, (int) offset));
+        final NameDecoder names = new NameDecoder(in, factory);
+
+        final int size = tokens.size();
+        for (int t = 0; t < size; ++t) {
+            final int start = tokens.start(t);
+
+            switch (tokens.kind(t)) {
+            case Tokens.NAME:
+                builder.append(names.decode(start, tokens.length(t)));
+                break;
+            case Tokens.LEFT_PAREN:
+                builder.openParen(start);
+                break;
+            case Tokens.RIGHT_PAREN:
+                builder.closeParen(start);
+                break;
+            case Tokens.DOT:
+                throw builder.error(start, "Unexpected '.'");
+            case Tokens.LAMBDA:
+                if (t + 1 >= size || tokens.kind(t + 1) != Tokens.NAME) {
+                    throw builder.error(offset(in, tokens, t + 1), "Expected a parameter name");
+                }
+                if (t + 2 >= size || tokens.kind(t + 2) != Tokens.DOT) {
+                    throw builder.error(offset(in, tokens, t + 2),
+                                        "Expected '.' after parameter name");
+                }
+                builder.openLambda(names.decode(tokens.start(t + 1), tokens.length(t + 1)), start);
+                t += 2;
+                break;
+            default: throw builder.error(start, "Unexpected token kind: \"%d\".", tokens.kind(t));
+            }
+        }
+
+        return builder.finish(in.limit());
+    }
+
+    /**
+     * @return an {@code ASTNode} parsed from the given UTF-8 encoded bytes.
+     * @see #parse(ByteBuffer)
+     */
+    public ASTNode parse(final byte[] in) {
+        return parse(ByteBuffer.wrap(in));
+    }
+
+    private NodeFactory factory() {
+        return factory != null ? factory : new NodeFactory(SymbolTable.current());
+    }
+
+    private Var parseParameter(final SourceReader reader,
+                               final TermBuilder builder,
+                               final NodeFactory factory,
+                               final StringBuilder name)
+    throws IOException
+    {
+        int c = skipWhitespace(reader);
+        if (!isNameCharacter(c)) {
+            throw builder.error(position(reader), "Expected a parameter name");
+        }
+        final Var parameter = factory.var(readName(reader, name));
+
+        c = skipWhitespace(reader);
+        if (c != '.') {
+            throw builder.error(position(reader), "Expected '.' after parameter name");
+        }
+        reader.readChar();
+
+        return parameter;
+    }
+
+    /** @return the first character that is not whitespace, without consuming it. */
+    private static int skipWhitespace(final SourceReader reader) throws IOException {
+        int c = reader.peekChar();
+        while (c != SourceReader.END_OF_STREAM && Character.isWhitespace(c)) {
+            reader.readChar();
+            c = reader.peekChar();
+        }
+        return c;
+    }
+
+    /** Reads a name into {@code name}, which is reused as scratch space. */
+    private static StringBuilder readName(final SourceReader reader, final StringBuilder name)
+    throws IOException
+    {
+        name.setLength(0);
+        while (isNameCharacter(reader.peekChar())) {
+            name.append((char) reader.readChar());
+        }
+        return name;
+    }
+
+    private static boolean isLambda(final int c) {
+        return c == 'λ' || c == '\\';
+    }
+
+    private static boolean isNameCharacter(final int c) {
+        return c != SourceReader.END_OF_STREAM
+            && !Character.isWhitespace(c) && !isLambda(c) && c != '.' && c != '(' && c != ')';
+    }
+
+    /** Packs the reader's current line and character into a single {@link TermBuilder} position. */
+    private static long position(final SourceReader reader) {
+        return ((long) reader.line() << 32) | reader.character();
+    }
+
+    private static SourceLocation location(final long position) {
+        return SourceLocation.of((int) position, (int) (position >>> 32));
+    }
+
+    /** @return the offset of the t'th token, or the end of the input if there is no such token. */
+    private static int offset(final ByteBuffer in, final Tokens tokens, final int t) {
+        return t < tokens.size() ? tokens.start(t) : in.limit();
+    }
+
+    /**
+     * Computes the location of a byte offset by scanning the input up to it, counting characters
+     * in the same way a {@link SourceReader} does. This is only done when reporting an error.
+     */
+    private static SourceLocation location(final ByteBuffer in, final int offset) {
+        int character = 0;
+        int line = 1;
+        for (int i = in.position(); i < offset; ++i) {
+            final int b = in.get(i) & 0xFF;
+            if (b == '\n') {
+                character = 0;
+                ++line;
+            } else if (b >= 0xF0) {
+                // Four byte sequences are read as a surrogate pair.
+                character += 2;
+            } else if ((b & 0xC0) != 0x80) {
+                ++character;
+            }
+        }
+        return SourceLocation.of(character, line);
+    }
+
+    /**
+     * Turns the bytes of name tokens into {@link Var}s. ASCII names, by far the most common, are
+     * interned straight from a reused buffer; others are decoded into a String first.
+     */
+    private static class NameDecoder {
+        private final ByteBuffer in;
+        private final NodeFactory factory;
+        private final StringBuilder scratch;
+
+        NameDecoder(final ByteBuffer in, final NodeFactory factory) {
+            this.in = in;
+            this.factory = factory;
+            this.scratch = new StringBuilder();
+        }
+
+        Var decode(final int start, final int length) {
+            scratch.setLength(0);
+            for (int i = start; i < start + length; ++i) {
+                final byte b = in.get(i);
+                if (b < 0) { return factory.var(decodeUtf8(start, length)); }
+                scratch.append((char) b);
+            }
+            return factory.var(scratch);
+        }
+
+        private String decodeUtf8(final int start, final int length) {
+            if (in.hasArray()) {
+                return new String(in.array(), in.arrayOffset() + start, length,
+                                  StandardCharsets.UTF_8);
+            }
+
+            final byte[] bytes = new byte[length];
+            for (int i = 0; i < length; ++i) {
+                bytes[i] = in.get(start + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,17 +1,24 @@
 package alonzo.ast.parser;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import alonzo.ast.ASTNode;
 import alonzo.common.Validate;
 import alonzo.exc.UnexpectedIssueException;
+import alonzo.io.AlonzoReader;
+import alonzo.io.MappedFileReader;
+import alonzo.io.SourceReader;
 
 /**
  * Abstract superclass of any {@link ASTNode} parsers.
+ * @see IterativeParser
  */
 public abstract class Parser {
 
@@ -26,31 +33,65 @@ public abstract class Parser {
         this.charset = Validate.notNull(charset, "null charset");
     }
 
+    /**
+     * Parses an {@code ASTNode} from the given {@code SourceReader}, reading characters until the
+     * end of the stream is reached. The reader is not closed.
+     * @param reader The {@code SourceReader} to read the {@code ASTNode} from.
+     * @return the parsed {@code ASTNode}.
+     * @throws IOException if {@code reader} had an issue being read from.
+     * @throws alonzo.exc.ParseException if the characters read do not form a valid term.
+     */
+    public abstract ASTNode parse(final SourceReader reader) throws IOException;
+
     /**
      * Parses an {@code ASTNode} from the given {@code InputStream}. All characters are read from
      * {@code in} using the {@link Charset} this class was constructed with.
      * @param in The {@code InputStream} to read the {@code ASTNode} from.
      * @return the parsed {@code ASTNode}.
      * @throws IOException if {@code in} had an issue being read from.
+     * @see #parse(SourceReader)
+     */
+    public ASTNode parse(final InputStream in) throws IOException {
+        return parse(new AlonzoReader(new InputStreamReader(in, charset)));
+    }
+
+    /**
+     * Parses an {@code ASTNode} from the file at the given {@code Path}, decoding it using the
+     * {@link Charset} this class was constructed with. UTF-8 files are read straight out of a
+     * memory-mapped region of the file by a {@link MappedFileReader}.
+     * @param path The {@code Path} of the file to read the {@code ASTNode} from.
+     * @return the parsed {@code ASTNode}.
+     * @throws IOException if the file had an issue being read from.
+     * @see #parse(SourceReader)
      */
-    public abstract ASTNode parse(final InputStream in) throws IOException;
+    public ASTNode parse(final Path path) throws IOException {
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            try (final MappedFileReader reader = new MappedFileReader(path)) {
+                return parse(reader);
+            }
+        }
+
+        try (final AlonzoReader reader =
+                 new AlonzoReader(new InputStreamReader(Files.newInputStream(path), charset)))
+        {
+            return parse(reader);
+        }
+    }
 
     /**
      * @return an {@code ASTNode} parsed from the given {@code String}.
-     * @see #parse(InputStream)
+     * @see #parse(SourceReader)
      */
     public ASTNode parse(final String input) {
-        final ByteArrayInputStream in = new ByteArrayInputStream(bytes(input));
-
         try {
-            return parse(in);
+            return parse(new AlonzoReader(new StringReader(input)));
         } catch (final IOException e) {
             throw new UnexpectedIssueException(
-                "This shouldn't happen, as ByteArrayInputStream shouldn't throw IOException.", e);
+                "This shouldn't happen, as StringReader shouldn't throw IOException.", e);
         }
     }
 
-    protected byte[] bytes(final String s) {
-        return s.getBytes(charset);
+    protected Charset charset() {
+        return charset;
     }
 }
@@ -0,0 +1,162 @@
+package alonzo.ast.parser;
+
+import java.util.Stack;
+import java.util.function.LongFunction;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.Var;
+import alonzo.common.Validate;
+import alonzo.exc.ParseException;
+import alonzo.io.SourceLocation;
+
+/**
+ * The shift-reduce core of {@link IterativeParser}, shared by its character-level and token-level
+ * front ends. State is kept on an explicit stack so as not to blow the function call stack on
+ * too-deeply nested input.
+ *
+ * Positions passed in are opaque to this class; they are only handed back to the front end's
+ * locator to build a {@link SourceLocation} when a {@link ParseException} is thrown.
+ */
+class TermBuilder {
+
+    private final Stack<Frame> frames;
+    private final NodeFactory factory;
+    private final LongFunction<SourceLocation> locator;
+
+    /**
+     * @param factory The factory to build nodes through.
+     * @param locator Converts a position given to this builder into a {@code SourceLocation}.
+     */
+    TermBuilder(final NodeFactory factory, final LongFunction<SourceLocation> locator) {
+        this.factory = Validate.notNull(factory, "null NodeFactory");
+        this.locator = Validate.notNull(locator, "null locator");
+
+        frames = new Stack<>();
+        frames.push(Frame.root());
+    }
+
+    /** Appends the given term to the application being built at the current level. */
+    void append(final ASTNode node) {
+        append(frames.peek(), node);
+    }
+
+    void openParen(final long position) {
+        frames.push(Frame.paren(position));
+    }
+
+    void openLambda(final Var parameter, final long position) {
+        frames.push(Frame.lambda(parameter, position));
+    }
+
+    void closeParen(final long position) {
+        closeLambdas();
+
+        final Frame frame = frames.peek();
+        if (frame.kind() != Frame.PAREN) {
+            throw error(position, "Unmatched ')'");
+        }
+        if (frame.term() == null) {
+            throw error(frame.position(), "Empty parentheses");
+        }
+
+        frames.pop();
+        append(frames.peek(), frame.term());
+    }
+
+    /**
+     * @param end The position of the end of the input.
+     * @return the completed term.
+     */
+    ASTNode finish(final long end) {
+        closeLambdas();
+
+        final Frame frame = frames.peek();
+        if (frame.kind() == Frame.PAREN) {
+            throw error(frame.position(), "Unclosed '('");
+        }
+        if (frame.term() == null) {
+            throw error(end, "Expected a term");
+        }
+
+        return frame.term();
+    }
+
+    ParseException error(final long position, final String fmtString, final Object... args) {
+        return new ParseException(locator.apply(position), fmtString, args);
+    }
+
+    /**
+     * Lambda bodies extend as far right as possible, so when a closing parenthesis or the end of
+     * input is reached every lambda opened since the enclosing parenthesis is complete.
+     */
+    private void closeLambdas() {
+        while (frames.peek().kind() == Frame.LAMBDA) {
+            final Frame frame = frames.pop();
+            if (frame.term() == null) {
+                throw error(frame.position(), "Empty function body");
+            }
+            append(frames.peek(), factory.fun(frame.parameter(), frame.term()));
+        }
+    }
+
+    /** Applies the frame's term so far to the given node. */
+    private void append(final Frame frame, final ASTNode node) {
+        frame.term(frame.term() == null ? node : factory.app(frame.term(), node));
+    }
+
+    /**
+     * A partially parsed construct: the whole input, a parenthesized term or a function body. The
+     * terms seen so far at this level are accumulated into a left-associated application.
+     */
+    private static class Frame {
+        static final int ROOT = 0;
+        static final int PAREN = 1;
+        static final int LAMBDA = 2;
+
+        private final int kind;
+        private final Var parameter;
+        private final long position;
+
+        private ASTNode term;
+
+        public static Frame root() {
+            return new Frame(ROOT, null, 0);
+        }
+
+        public static Frame paren(final long position) {
+            return new Frame(PAREN, null, position);
+        }
+
+        public static Frame lambda(final Var parameter, final long position) {
+            return new Frame(LAMBDA, parameter, position);
+        }
+
+        private Frame(final int kind, final Var parameter, final long position) {
+            this.kind = kind;
+            this.parameter = parameter;
+            this.position = position;
+        }
+
+        public void term(final ASTNode term) {
+            this.term = term;
+        }
+
+        public int kind() {
+            return kind;
+        }
+
+        public Var parameter() {
+            return parameter;
+        }
+
+        /** @return the position of the token that opened this frame. */
+        public long position() {
+            return position;
+        }
+
+        public ASTNode term() {
+            return term;
+        }
+    }
+}
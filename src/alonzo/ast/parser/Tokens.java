@@ -0,0 +1,73 @@
+package alonzo.ast.parser;
+
+import java.util.Arrays;
+
+/**
+ * A sequence of tokens produced by {@link Utf8Lexer}, stored as parallel primitive arrays of token
+ * kind, start offset and length so that lexing allocates nothing per token. Offsets are indexes
+ * into the lexed {@link java.nio.ByteBuffer}, and lengths are in bytes.
+ */
+public class Tokens {
+
+    public static final int LAMBDA = 0;
+    public static final int DOT = 1;
+    public static final int LEFT_PAREN = 2;
+    public static final int RIGHT_PAREN = 3;
+    public static final int NAME = 4;
+
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private int[] kinds;
+    private int[] starts;
+    private int[] lengths;
+    private int size;
+
+    Tokens(final int expectedSize) {
+        final int capacity = Math.max(expectedSize, MINIMUM_CAPACITY);
+        kinds = new int[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        size = 0;
+    }
+
+    /** @return the number of tokens. */
+    public int size() {
+        return size;
+    }
+
+    /** @return the kind of the i'th token, one of the constants of this class. */
+    public int kind(final int i) {
+        return kinds[checkIndex(i)];
+    }
+
+    /** @return the offset of the first byte of the i'th token. */
+    public int start(final int i) {
+        return starts[checkIndex(i)];
+    }
+
+    /** @return the length in bytes of the i'th token. */
+    public int length(final int i) {
+        return lengths[checkIndex(i)];
+    }
+
+    void add(final int kind, final int start, final int length) {
+        if (size == kinds.length) {
+            final int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+
+        kinds[size] = kind;
+        starts[size] = start;
+        lengths[size] = length;
+        ++size;
+    }
+
+    private int checkIndex(final int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(String.format("%d of %d tokens", i, size));
+        }
+        return i;
+    }
+}
@@ -0,0 +1,93 @@
+package alonzo.ast.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tokenizer working directly on UTF-8 encoded bytes, without decoding them into chars. It
+ * recognises the same tokens as {@link IterativeParser}: {@code λ} and its alias {@code \},
+ * {@code .}, parentheses, and names, which are runs of any bytes that aren't whitespace or one of
+ * the others. Whitespace separates tokens and is dropped.
+ *
+ * Only the multi-byte sequences that could be {@code λ} or whitespace are ever looked at more
+ * closely; all other bytes at or above {@code 0x80} are simply part of a name.
+ */
+public class Utf8Lexer {
+
+    private static final int WHITESPACE = -1;
+    private static final int NAME_BYTE = -2;
+
+    // Prevent this class from be instantiated.
+    private Utf8Lexer() {}
+
+    /**
+     * Tokenizes the bytes between the given buffer's position and limit. The buffer's position is
+     * not changed.
+     * @param in The UTF-8 encoded bytes to tokenize.
+     * @return the tokens found, with offsets relative to the start of {@code in}.
+     */
+    public static Tokens lex(final ByteBuffer in) {
+        final int limit = in.limit();
+        final Tokens tokens = new Tokens((limit - in.position()) / 4);
+
+        int nameStart = -1;
+        int i = in.position();
+        while (i < limit) {
+            final int b = in.get(i) & 0xFF;
+
+            int kind = NAME_BYTE;
+            int width = 1;
+            if (b < 0x80) {
+                kind = asciiKind(b);
+            } else if (b == 0xCE && i + 1 < limit && (in.get(i + 1) & 0xFF) == 0xBB) {
+                kind = Tokens.LAMBDA;
+                width = 2;
+            } else if (b >= 0xE1 && b <= 0xE3 && i + 2 < limit
+                       && isContinuation(in.get(i + 1)) && isContinuation(in.get(i + 2))
+                       && Character.isWhitespace(threeByteCodePoint(in, i)))
+            {
+                // U+1680, U+2000 to U+3000: the only whitespace outside of ASCII.
+                kind = WHITESPACE;
+                width = 3;
+            }
+
+            if (kind == NAME_BYTE) {
+                if (nameStart < 0) { nameStart = i; }
+                ++i;
+                continue;
+            }
+
+            if (nameStart >= 0) {
+                tokens.add(Tokens.NAME, nameStart, i - nameStart);
+                nameStart = -1;
+            }
+            if (kind != WHITESPACE) {
+                tokens.add(kind, i, width);
+            }
+            i += width;
+        }
+
+        if (nameStart >= 0) {
+            tokens.add(Tokens.NAME, nameStart, limit - nameStart);
+        }
+
+        return tokens;
+    }
+
+    private static int asciiKind(final int b) {
+        switch (b) {
+        case '\\': return Tokens.LAMBDA;
+        case '.':  return Tokens.DOT;
+        case '(':  return Tokens.LEFT_PAREN;
+        case ')':  return Tokens.RIGHT_PAREN;
+        default:   return Character.isWhitespace(b) ? WHITESPACE : NAME_BYTE;
+        }
+    }
+
+    private static boolean isContinuation(final byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    private static int threeByteCodePoint(final ByteBuffer in, final int i) {
+        return ((in.get(i) & 0x0F) << 12) | ((in.get(i + 1) & 0x3F) << 6) | (in.get(i + 2) & 0x3F);
+    }
+}
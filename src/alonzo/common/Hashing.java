@@ -0,0 +1,25 @@
+package alonzo.common;
+
+public class Hashing {
+
+    // Prevent this class from be instantiated.
+    private Hashing() {}
+
+    /**
+     * Combines a tag, such as a node kind, with two hashes, such as those of a node's children.
+     * The result is run through the Murmur3 finalizer, so that similar trees don't cluster in hash
+     * tables.
+     */
+    public static int combine(final int tag, final int a, final int b) {
+        int h = tag;
+        h = 31 * h + a;
+        h = 31 * h + b;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+}
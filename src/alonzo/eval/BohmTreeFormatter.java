@@ -0,0 +1,154 @@
+package alonzo.eval;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.Var;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+
+/**
+ * {@link Formatter} writing the normal form of a term rather than the term itself, streaming it as
+ * it is found. The term is reduced to head normal form {@code λx1...λxn.(h M1 ... Mk)}, and the
+ * functions, the opening brackets of the applications and the head {@code h} are written out
+ * straight away, since no further reduction can change them. Each argument {@code Mi} is then
+ * reduced and written the same way, in turn, so what is written is the Böhm tree of the term, top
+ * down. The stream is flushed whenever what has been written so far would otherwise wait on a
+ * reduction, so a client can start reading a large normal form long before it is complete, and
+ * can stop reading one that never is.
+ *
+ * The output is formatted as {@link IterativeFormatter} formats, and is alpha-equivalent to the
+ * normal form other evaluators reach. Arguments are reduced apart from the functions enclosing
+ * them, whose parameters are then free variables that substitution avoids capturing. When the
+ * budget is exhausted, the parts of the term not yet written are written as they are, so the
+ * output is still equivalent to the original term.
+ */
+public class BohmTreeFormatter extends Formatter {
+
+    private final Formatter plain;
+    private final StrategyEvaluator evaluator;
+
+    public BohmTreeFormatter() {
+        this(Formatter.DEFAULT_CHARSET);
+    }
+
+    public BohmTreeFormatter(final Charset charset) {
+        super(charset);
+        this.plain = new IterativeFormatter(charset);
+        this.evaluator = new StrategyEvaluator(BuiltinStrategy.HEAD);
+    }
+
+    /**
+     * Formats the normal form of the given term. This never returns if the term has none, unless
+     * {@code out} throws.
+     * @see #format(OutputStream, ASTNode, Budget)
+     */
+    @Override
+    public void format(final OutputStream out, final ASTNode root) throws IOException {
+        format(out, root, Budget.unlimited());
+    }
+
+    /**
+     * Formats the normal form of the given term, as far as the budget allows, outputting to the
+     * given {@code OutputStream} as each part of it is found.
+     * @param out The {@code OutputStream} to format the normal form of {@code root} to.
+     * @param root The term to normalize and format.
+     * @param budget The limits on the reduction done, over the whole term.
+     * @return {@link StopReason#NORMAL_FORM} if the whole normal form was written, or why the
+     *         budget stopped reduction.
+     * @throws IOException if {@code out} had an issue being written to.
+     */
+    public StopReason format(final OutputStream out, final ASTNode root, final Budget budget)
+    throws IOException
+    {
+        final Meter meter = budget.start();
+        // Terms left to normalize and write, and the punctuation between them.
+        final Stack<Object> pending = new Stack<>();
+        final List<ASTNode> arguments = new ArrayList<>();
+        StopReason stopReason = StopReason.NORMAL_FORM;
+
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final Object next = pending.pop();
+            if (next == Punctuation.APP_SPACE) {
+                writeAppSpace(out);
+                continue;
+            }
+            if (next == Punctuation.CLOSE) {
+                writeClose(out);
+                continue;
+            }
+
+            ASTNode term = (ASTNode) next;
+            if (stopReason == StopReason.NORMAL_FORM && !isHeadNormal(term)) {
+                out.flush();
+                final Result result = evaluator.evaluate(term, meter, BuiltinStrategy.HEAD);
+                term = result.term();
+                if (result.stopReason() != StopReason.HEAD_NORMAL_FORM) {
+                    stopReason = result.stopReason();
+                }
+            }
+            if (stopReason != StopReason.NORMAL_FORM) {
+                plain.format(out, term);
+                continue;
+            }
+
+            int functions = 0;
+            while (term.isFun()) {
+                writeFunOpen(out);
+                out.write(bytes(((Fun) term).parameter().name()));
+                writeFunDot(out);
+                term = ((Fun) term).body();
+                ++functions;
+            }
+
+            arguments.clear();
+            while (term.isApp()) {
+                arguments.add(((App) term).argument());
+                term = ((App) term).function();
+            }
+            for (int i = 0; i < arguments.size(); ++i) {
+                writeAppOpen(out);
+            }
+            out.write(bytes(((Var) term).name()));
+
+            // Arguments were gathered last first, so the first is pushed last.
+            for (int i = 0; i < functions; ++i) {
+                pending.push(Punctuation.CLOSE);
+            }
+            for (final ASTNode argument : arguments) {
+                pending.push(Punctuation.CLOSE);
+                pending.push(argument);
+                pending.push(Punctuation.APP_SPACE);
+            }
+        }
+
+        out.flush();
+        return stopReason;
+    }
+
+    /** @return whether the given term is a variable applied to arguments, under functions. */
+    private static boolean isHeadNormal(final ASTNode root) {
+        ASTNode term = root;
+        while (term.isFun()) {
+            term = ((Fun) term).body();
+        }
+        while (term.isApp()) {
+            term = ((App) term).function();
+        }
+        return term.isVar();
+    }
+
+    /** The punctuation left to write between the terms pending. */
+    private enum Punctuation {
+        APP_SPACE,
+        CLOSE
+    }
+}
@@ -0,0 +1,71 @@
+package alonzo.eval;
+
+import java.time.Duration;
+
+import alonzo.common.Validate;
+
+/**
+ * Limits on how much work an {@link Evaluator} may do on a single term: a maximum number of
+ * reduction steps and a wall-clock timeout. Without limits, evaluating a divergent term such as
+ * {@code (λx.(x x) λx.(x x))} never returns. A Budget is immutable and can be reused across
+ * evaluations; each evaluation tracks its own usage through a {@link Meter}.
+ */
+public class Budget {
+
+    private static final Budget UNLIMITED = new Budget(Long.MAX_VALUE, null);
+
+    private final long maxSteps;
+    private final Duration timeout;
+
+    /** @return a Budget without limits, under which evaluations only stop at a normal form. */
+    public static Budget unlimited() {
+        return UNLIMITED;
+    }
+
+    /** @return a Budget allowing the given number of reduction steps, for as long as they take. */
+    public static Budget ofSteps(final long maxSteps) {
+        return new Budget(maxSteps, null);
+    }
+
+    /** @return a Budget allowing any number of reduction steps within the given time. */
+    public static Budget ofTimeout(final Duration timeout) {
+        return new Budget(Long.MAX_VALUE, Validate.notNull(timeout, "null timeout"));
+    }
+
+    /** @return a Budget allowing the given number of reduction steps within the given time. */
+    public static Budget of(final long maxSteps, final Duration timeout) {
+        return new Budget(maxSteps, Validate.notNull(timeout, "null timeout"));
+    }
+
+    private Budget(final long maxSteps, final Duration timeout) {
+        Validate.isTrue(maxSteps >= 0, "negative maxSteps (%d)", maxSteps);
+        Validate.isTrue(timeout == null || !timeout.isNegative(), "negative timeout (%s)", timeout);
+        this.maxSteps = maxSteps;
+        this.timeout = timeout;
+    }
+
+    /** @return the maximum number of reduction steps, {@code Long.MAX_VALUE} if unlimited. */
+    public long maxSteps() {
+        return maxSteps;
+    }
+
+    public boolean hasTimeout() {
+        return timeout != null;
+    }
+
+    /** @return the maximum time an evaluation may take, or null if unlimited. */
+    public Duration timeout() {
+        return timeout;
+    }
+
+    /** @return a new {@link Meter} tracking usage of this budget, with the clock starting now. */
+    public Meter start() {
+        return new Meter(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Budget(maxSteps=%d, timeout=%s)", maxSteps, timeout);
+    }
+
+}
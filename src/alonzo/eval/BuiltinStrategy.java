@@ -0,0 +1,70 @@
+package alonzo.eval;
+
+/** The built-in {@link ReductionStrategy}s. */
+public enum BuiltinStrategy implements ReductionStrategy {
+
+    /**
+     * The leftmost, outermost redex is contracted first, everywhere in the term. Finds a term's
+     * normal form whenever it has one.
+     */
+    NORMAL_ORDER(true, true, false, StopReason.NORMAL_FORM),
+
+    /**
+     * The leftmost, innermost redex is contracted first, everywhere in the term, so arguments are
+     * reduced before being substituted. This never returns for some terms which have a normal
+     * form, such as those discarding an argument with none.
+     */
+    APPLICATIVE_ORDER(true, true, true, StopReason.NORMAL_FORM),
+
+    /**
+     * Only the redex at the head of the term is contracted, under its functions, until the term is
+     * a variable applied to arguments that are left as they are.
+     */
+    HEAD(true, false, false, StopReason.HEAD_NORMAL_FORM),
+
+    /**
+     * Only the redex at the head of the term is contracted, until the term is a function or a
+     * variable applied to arguments. Neither the body of the function nor the arguments are
+     * reduced.
+     */
+    WEAK_HEAD(false, false, false, StopReason.WEAK_HEAD_NORMAL_FORM),
+
+    ;
+
+    private final boolean underFunctions;
+    private final boolean arguments;
+    private final boolean innermostFirst;
+    private final StopReason goal;
+
+    private BuiltinStrategy(final boolean underFunctions,
+                            final boolean arguments,
+                            final boolean innermostFirst,
+                            final StopReason goal)
+    {
+        this.underFunctions = underFunctions;
+        this.arguments = arguments;
+        this.innermostFirst = innermostFirst;
+        this.goal = goal;
+    }
+
+    @Override
+    public boolean reducesUnderFunctions() {
+        return underFunctions;
+    }
+
+    @Override
+    public boolean reducesArguments() {
+        return arguments;
+    }
+
+    @Override
+    public boolean reducesInnermostFirst() {
+        return innermostFirst;
+    }
+
+    @Override
+    public StopReason goal() {
+        return goal;
+    }
+
+}
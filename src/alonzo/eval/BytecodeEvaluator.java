@@ -0,0 +1,455 @@
+package alonzo.eval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.nameless.Apply;
+import alonzo.ast.nameless.Bound;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.nameless.Free;
+import alonzo.ast.nameless.Lambda;
+import alonzo.ast.nameless.Term;
+import alonzo.common.Validate;
+import alonzo.exc.UnexpectedIssueException;
+
+/**
+ * {@link Evaluator} compiling terms into flat instructions for a Krivine machine, which performs
+ * call-by-name reduction as {@link KrivineEvaluator} does, but runs from {@code int} arrays rather
+ * than by walking {@link ASTNode}s. Instructions are an opcode and an operand:
+ * <ul>
+ * <li>{@code ACCESS n} enters the closure bound to De Bruijn index {@code n};</li>
+ * <li>{@code PUSH a} pushes the argument whose code is at address {@code a}, as a closure over
+ *     the current environment, then carries on with the function, which follows;</li>
+ * <li>{@code GRAB h} pops an argument and binds it as the innermost variable, or if there is none
+ *     left, stops at a function whose parameter is named after constant {@code h};</li>
+ * <li>{@code FREE c} stops at the free variable named after constant {@code c}.</li>
+ * </ul>
+ * There are no call or return instructions: every transfer of control is a jump, and the only
+ * state is the argument stack and the environment.
+ *
+ * Environments are linked lists of cells allocated by bumping a pointer through an {@code int}
+ * heap, each cell holding a closure and the next cell. When the heap is full, live cells are
+ * copied into a fresh heap, which is grown if they fill more than half of it.
+ *
+ * Once the machine stops, the normal form is read back as by {@link KrivineEvaluator}: a function
+ * is entered with its parameter bound to an opaque variable, and the arguments of the variable at
+ * the head are themselves reduced. Step counts are the same as {@link NormalOrderEvaluator}'s.
+ * When the budget is exhausted, the remaining state of the machine is read back without further
+ * reduction: closures are quoted, their code translated back into terms with the variables they
+ * bind substituted.
+ */
+public class BytecodeEvaluator extends Evaluator {
+
+    /** The default number of environment cells the heap initially has room for. */
+    public static final int DEFAULT_HEAP_CELLS = 1 << 12;
+
+    static final int ACCESS = 0;
+    static final int PUSH = 1;
+    static final int GRAB = 2;
+    static final int FREE = 3;
+
+    private final int heapCells;
+
+    public BytecodeEvaluator() {
+        super();
+        this.heapCells = DEFAULT_HEAP_CELLS;
+    }
+
+    public BytecodeEvaluator(final NodeFactory factory) {
+        this(DEFAULT_HEAP_CELLS, factory);
+    }
+
+    /**
+     * @param heapCells The number of environment cells the heap initially has room for.
+     * @param factory The factory to build the nodes of results through.
+     */
+    public BytecodeEvaluator(final int heapCells, final NodeFactory factory) {
+        super(factory);
+        Validate.isTrue(heapCells > 0, "non-positive heapCells (%d)", heapCells);
+        this.heapCells = heapCells;
+    }
+
+    @Override
+    public Result evaluate(final ASTNode term, final Budget budget) {
+        final Program program = compile(DeBruijn.toNameless(Validate.notNull(term, "null term")));
+        final Machine machine = new Machine(program, heapCells, budget.start());
+
+        final Term result = machine.normalize();
+        final Meter meter = machine.meter;
+        final StopReason reason =
+            meter.stopReason() != null ? meter.stopReason() : StopReason.NORMAL_FORM;
+        return new Result(DeBruijn.toAST(result, factory()), reason, meter.steps());
+    }
+
+    /**
+     * Compiles a term, starting at address 0. The code of each term runs through its functions
+     * and applications down to the variable at its head, and the code of the arguments of its
+     * applications is laid out after it.
+     */
+    static Program compile(final Term root) {
+        final Program program = new Program();
+        final Stack<Term> blocks = new Stack<>();
+        // Where the address of each block is to be written, or -1 for the root's.
+        final Stack<Integer> patches = new Stack<>();
+
+        blocks.push(root);
+        patches.push(-1);
+        while (!blocks.isEmpty()) {
+            Term term = blocks.pop();
+            final int patch = patches.pop();
+            if (patch >= 0) { program.code[patch] = program.size; }
+
+            while (true) {
+                if (term.isLambda()) {
+                    program.emit(GRAB, program.constant(((Lambda) term).hint()));
+                    term = ((Lambda) term).body();
+                } else if (term.isApply()) {
+                    program.emit(PUSH, -1);
+                    blocks.push(((Apply) term).argument());
+                    patches.push(program.size - 1);
+                    term = ((Apply) term).function();
+                } else if (term.isBound()) {
+                    program.emit(ACCESS, ((Bound) term).index());
+                    break;
+                } else {
+                    program.emit(FREE, program.constant(((Free) term).name()));
+                    break;
+                }
+            }
+        }
+
+        program.code = Arrays.copyOf(program.code, program.size);
+        return program;
+    }
+
+    /** Compiled code, as pairs of opcode and operand, and the names it refers to. */
+    static class Program {
+        private int[] code;
+        private int size;
+        private final List<String> constants;
+        private final Map<String, Integer> indices;
+
+        private Program() {
+            this.code = new int[64];
+            this.size = 0;
+            this.constants = new ArrayList<>();
+            this.indices = new HashMap<>();
+        }
+
+        /** @return a copy of the instructions, two ints each. */
+        int[] code() {
+            return Arrays.copyOf(code, size);
+        }
+
+        /** @return the names referred to by {@code GRAB} and {@code FREE} instructions. */
+        String[] constants() {
+            return constants.toArray(new String[constants.size()]);
+        }
+
+        private void emit(final int opcode, final int operand) {
+            if (size + 2 > code.length) { code = Arrays.copyOf(code, code.length * 2); }
+            code[size++] = opcode;
+            code[size++] = operand;
+        }
+
+        private int constant(final String name) {
+            final Integer index = indices.get(name);
+            if (index != null) { return index; }
+
+            indices.put(name, constants.size());
+            constants.add(name);
+            return constants.size() - 1;
+        }
+    }
+
+    /**
+     * The machine and its read-back. Closures are pairs of a code address and an environment
+     * pointer; an opaque variable is a closure with address {@link #OPAQUE}, whose environment
+     * pointer is instead the number of functions enclosing its own.
+     */
+    private static class Machine {
+        private static final int NIL = -1;
+        private static final int OPAQUE = -1;
+        private static final int FORWARDED = -2;
+        private static final int CELL = 3;
+
+        // Read-back tasks, four ints each: the kind, then up to three operands.
+        private static final int EVAL = 0;
+        private static final int LAMBDA = 1;
+        private static final int SPINE = 2;
+        private static final int TASK = 4;
+
+        private final int[] code;
+        private final String[] constants;
+        private final Meter meter;
+
+        // Environment cells: the closure's address, its environment, and the next cell.
+        private int[] heap;
+        private int top;
+
+        // Arguments, as closures of two ints each.
+        private int[] stack;
+        private int sp;
+
+        private int[] tasks;
+        private int taskTop;
+
+        // Environment pointers held outside the heap, stack and tasks, updated by collections.
+        private int env;
+        private final int[] scratch;
+
+        Machine(final Program program, final int heapCells, final Meter meter) {
+            this.code = program.code;
+            this.constants = program.constants();
+            this.meter = meter;
+            this.heap = new int[CELL * heapCells];
+            this.top = 0;
+            this.stack = new int[256];
+            this.sp = 0;
+            this.tasks = new int[TASK * 64];
+            this.taskTop = 0;
+            this.env = NIL;
+            this.scratch = new int[2];
+        }
+
+        /** @return the normal form of the program, or as far as it got within the budget. */
+        Term normalize() {
+            final Stack<Term> results = new Stack<>();
+            pushTask(EVAL, 0, NIL, 0);
+
+            while (taskTop > 0) {
+                taskTop -= TASK;
+                final int kind = tasks[taskTop];
+                final int a = tasks[taskTop + 1];
+                final int b = tasks[taskTop + 2];
+                final int c = tasks[taskTop + 3];
+
+                if (kind == EVAL) {
+                    if (meter.stopReason() != null) {
+                        results.push(quote(a, b, c));
+                    } else {
+                        run(a, b, c, results);
+                    }
+                } else if (kind == LAMBDA) {
+                    results.push(new Lambda(constants[a], results.pop()));
+                } else {
+                    final Term[] arguments = new Term[a];
+                    for (int i = arguments.length - 1; i >= 0; --i) {
+                        arguments[i] = results.pop();
+                    }
+                    Term spine = results.pop();
+                    for (final Term argument : arguments) {
+                        spine = new Apply(spine, argument);
+                    }
+                    results.push(spine);
+                }
+            }
+
+            return results.pop();
+        }
+
+        /**
+         * Runs the machine from the given address and environment until it stops, or until the
+         * budget is exhausted, then schedules the read-back of where it stopped. {@code depth} is
+         * the number of functions entered by read-back so far.
+         */
+        private void run(final int start, final int startEnv, final int depth,
+                         final Stack<Term> results)
+        {
+            final int base = sp;
+            int pc = start;
+            env = startEnv;
+
+            while (true) {
+                final int operand = code[pc + 1];
+                switch (code[pc]) {
+                case GRAB:
+                    if (sp == base) {
+                        pushTask(LAMBDA, operand, 0, 0);
+                        pushTask(EVAL, pc + 2, cons(OPAQUE, depth, env), depth + 1);
+                        return;
+                    }
+                    if (!meter.step()) {
+                        results.push(quote(pc, env, depth));
+                        readBackArguments(base, depth);
+                        return;
+                    }
+                    sp -= 2;
+                    env = cons(stack[sp], stack[sp + 1], env);
+                    pc += 2;
+                    break;
+                case PUSH:
+                    if (sp + 2 > stack.length) { stack = Arrays.copyOf(stack, stack.length * 2); }
+                    stack[sp++] = operand;
+                    stack[sp++] = env;
+                    pc += 2;
+                    break;
+                case ACCESS:
+                    int cell = env;
+                    for (int i = 0; i < operand; ++i) {
+                        cell = heap[cell + 2];
+                    }
+                    if (heap[cell] == OPAQUE) {
+                        results.push(new Bound(depth - heap[cell + 1] - 1));
+                        readBackArguments(base, depth);
+                        return;
+                    }
+                    pc = heap[cell];
+                    env = heap[cell + 1];
+                    break;
+                case FREE:
+                    results.push(new Free(constants[operand]));
+                    readBackArguments(base, depth);
+                    return;
+                default:
+                    throw new UnexpectedIssueException("Unknown opcode %d at %d", code[pc], pc);
+                }
+            }
+        }
+
+        /**
+         * @return the term of the closure at the given address and environment, with the variables
+         *         its environment binds substituted and none of its redexes reduced. The functions
+         *         the quote enters bind their parameters in none of the heap's environments, but
+         *         are counted on top of each environment instead, so the heap isn't touched.
+         */
+        private Term quote(final int address, final int closureEnv, final int depth) {
+            // Each frame: the address, the environment, the number of functions entered on top of
+            // that environment, the depth, and whether the frame's operands have been quoted.
+            final Stack<int[]> pending = new Stack<>();
+            final Stack<Term> results = new Stack<>();
+
+            pending.push(new int[] {address, closureEnv, 0, depth, 0});
+            while (!pending.isEmpty()) {
+                final int[] frame = pending.pop();
+                final int pc = frame[0];
+                final int operand = code[pc + 1];
+
+                if (frame[4] == 1) {
+                    if (code[pc] == GRAB) {
+                        results.push(new Lambda(constants[operand], results.pop()));
+                    } else {
+                        final Term argument = results.pop();
+                        results.push(new Apply(results.pop(), argument));
+                    }
+                    continue;
+                }
+
+                switch (code[pc]) {
+                case GRAB:
+                    pending.push(new int[] {pc, frame[1], frame[2], frame[3], 1});
+                    pending.push(new int[] {pc + 2, frame[1], frame[2] + 1, frame[3] + 1, 0});
+                    break;
+                case PUSH:
+                    pending.push(new int[] {pc, frame[1], frame[2], frame[3], 1});
+                    pending.push(new int[] {operand, frame[1], frame[2], frame[3], 0});
+                    pending.push(new int[] {pc + 2, frame[1], frame[2], frame[3], 0});
+                    break;
+                case ACCESS:
+                    if (operand < frame[2]) {
+                        results.push(new Bound(operand));
+                        break;
+                    }
+                    int cell = frame[1];
+                    for (int i = frame[2]; i < operand; ++i) {
+                        cell = heap[cell + 2];
+                    }
+                    if (heap[cell] == OPAQUE) {
+                        results.push(new Bound(frame[3] - heap[cell + 1] - 1));
+                    } else {
+                        pending.push(new int[] {heap[cell], heap[cell + 1], 0, frame[3], 0});
+                    }
+                    break;
+                case FREE:
+                    results.push(new Free(constants[operand]));
+                    break;
+                default:
+                    throw new UnexpectedIssueException("Unknown opcode %d at %d", code[pc], pc);
+                }
+            }
+
+            return results.pop();
+        }
+
+        /** Schedules the read-back of the arguments above {@code base}, in order, and pops them. */
+        private void readBackArguments(final int base, final int depth) {
+            pushTask(SPINE, (sp - base) / 2, 0, 0);
+            for (int i = base; i < sp; i += 2) {
+                pushTask(EVAL, stack[i], stack[i + 1], depth);
+            }
+            sp = base;
+        }
+
+        private void pushTask(final int kind, final int a, final int b, final int c) {
+            if (taskTop + TASK > tasks.length) { tasks = Arrays.copyOf(tasks, tasks.length * 2); }
+            tasks[taskTop] = kind;
+            tasks[taskTop + 1] = a;
+            tasks[taskTop + 2] = b;
+            tasks[taskTop + 3] = c;
+            taskTop += TASK;
+        }
+
+        /** @return a new cell binding the given closure in front of {@code next}. */
+        private int cons(final int address, final int closureEnv, final int next) {
+            if (top + CELL > heap.length) {
+                scratch[0] = address == OPAQUE ? NIL : closureEnv;
+                scratch[1] = next;
+                collect();
+                return cons(address, address == OPAQUE ? closureEnv : scratch[0], scratch[1]);
+            }
+
+            final int cell = top;
+            heap[top++] = address;
+            heap[top++] = closureEnv;
+            heap[top++] = next;
+            return cell;
+        }
+
+        /**
+         * Copies the cells reachable from the machine's state into a fresh heap, breadth first,
+         * and updates every pointer to them. If they fill more than half of it, the heap is
+         * grown so that collections stay rare.
+         */
+        private void collect() {
+            final int[] from = heap;
+            heap = new int[from.length];
+            top = 0;
+
+            env = forward(from, env);
+            scratch[0] = forward(from, scratch[0]);
+            scratch[1] = forward(from, scratch[1]);
+            for (int i = 1; i < sp; i += 2) {
+                stack[i] = forward(from, stack[i]);
+            }
+            for (int i = 0; i < taskTop; i += TASK) {
+                if (tasks[i] == EVAL) { tasks[i + 2] = forward(from, tasks[i + 2]); }
+            }
+
+            for (int scan = 0; scan < top; scan += CELL) {
+                if (heap[scan] != OPAQUE) { heap[scan + 1] = forward(from, heap[scan + 1]); }
+                heap[scan + 2] = forward(from, heap[scan + 2]);
+            }
+
+            if (2 * top > heap.length) { heap = Arrays.copyOf(heap, heap.length * 2); }
+        }
+
+        /** @return the new address of the given cell, copying it if it hasn't been yet. */
+        private int forward(final int[] from, final int cell) {
+            if (cell == NIL) { return NIL; }
+            if (from[cell] == FORWARDED) { return from[cell + 1]; }
+
+            final int copy = top;
+            System.arraycopy(from, cell, heap, top, CELL);
+            top += CELL;
+            from[cell] = FORWARDED;
+            from[cell + 1] = copy;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package alonzo.eval;
+
+import alonzo.ast.ASTNode;
+import alonzo.common.Validate;
+
+/**
+ * {@link Evaluator} answering from a {@link NormalFormCache} where it can, and otherwise
+ * delegating to another evaluator and caching the outcome. Normalizing a term alpha-equivalent to
+ * one normalized before then costs a hash lookup and an alpha-equivalence check instead of the
+ * whole reduction. Individual evaluations can opt out of the cache, for instance to measure the
+ * reduction itself or to avoid filling the cache with terms known to be used only once.
+ */
+public class CachingEvaluator extends Evaluator {
+
+    private final Evaluator evaluator;
+    private final NormalFormCache cache;
+
+    /**
+     * @param evaluator The evaluator to delegate to on a cache miss.
+     * @param cache The cache, which may be shared with evaluators counting steps the same way.
+     */
+    public CachingEvaluator(final Evaluator evaluator, final NormalFormCache cache) {
+        super();
+        this.evaluator = Validate.notNull(evaluator, "null evaluator");
+        this.cache = Validate.notNull(cache, "null cache");
+    }
+
+    @Override
+    public Result evaluate(final ASTNode term, final Budget budget) {
+        return evaluate(term, budget, true);
+    }
+
+    /**
+     * @param useCache Whether to look the term up in the cache and record its outcome there;
+     *                 otherwise, the evaluation is simply delegated.
+     * @see #evaluate(ASTNode, Budget)
+     */
+    public Result evaluate(final ASTNode term, final Budget budget, final boolean useCache) {
+        Validate.notNull(term, "null term");
+        Validate.notNull(budget, "null budget");
+        if (!useCache) { return evaluator.evaluate(term, budget); }
+
+        final Result cached = cache.lookup(term, budget);
+        if (cached != null) { return cached; }
+
+        final Result result = evaluator.evaluate(term, budget);
+        cache.record(term, result);
+        return result;
+    }
+
+    public NormalFormCache cache() {
+        return cache;
+    }
+
+}
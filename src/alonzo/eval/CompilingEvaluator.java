@@ -0,0 +1,661 @@
+package alonzo.eval;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.nameless.Apply;
+import alonzo.ast.nameless.Bound;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.nameless.Free;
+import alonzo.ast.nameless.Lambda;
+import alonzo.ast.nameless.Term;
+import alonzo.common.Validate;
+import alonzo.exc.UnexpectedIssueException;
+
+/**
+ * {@link Evaluator} compiling terms into trees of {@link MethodHandle}s before running them, so a
+ * term evaluated repeatedly is only ever translated once and the JIT can optimize its code. Each
+ * function becomes a closure capturing exactly the variables its body uses, and each application
+ * a direct call of a closure, with its argument wrapped in a thunk that is evaluated at most once.
+ * The value a term evaluates to is read back into its normal form by applying closures to opaque
+ * variables, so the normal form is found whenever there is one.
+ *
+ * Compiled code is cached by the term's nameless form, so alpha-equivalent terms share code; the
+ * least recently used code is evicted once the cache is full. Each call of a closure counts as
+ * one step of the budget. As with {@link KrivineEvaluator.Mode#CALL_BY_NEED}, arguments are shared
+ * rather than reduced each time they are used, so step counts are close to that evaluator's.
+ *
+ * Compiled code runs on the function call stack, which it measures in levels of nested
+ * applications within code: each call of compiled code counts as {@value #CALL_DEPTH} levels on top
+ * of those of its code. Before the stack grows deeper than a limit, the term is evaluated again
+ * from the start by a fallback interpreter, within what is left of the budget. The limit must fit
+ * in the stack of the threads evaluating terms.
+ *
+ * When the budget is exhausted, the evaluation goes on without entering any more closures, each
+ * call left as an unreduced application, and the value it reaches is read back as the partial
+ * result. Values shared by thunks are read back once for each time they occur, so that read-back
+ * is limited to {@value #READ_BACK_FACTOR} times the size of the term plus the steps taken; past
+ * it, the fallback evaluator is used within what is left of the budget, as for deep stacks.
+ */
+public class CompilingEvaluator extends Evaluator {
+
+    /** The default number of compiled terms kept in the cache. */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    /**
+     * The default depth of the stack beyond which the fallback evaluator is used, which fits in a
+     * stack of 512 KiB.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 1 << 11;
+
+    /** The depth a call of compiled code adds to the stack on top of that of its code. */
+    public static final int CALL_DEPTH = 8;
+
+    /**
+     * The most values read back once the budget is exhausted, per node of the term and step taken.
+     */
+    public static final int READ_BACK_FACTOR = 16;
+
+    private static final MethodHandle APPLY;
+    private static final MethodHandle LOAD;
+    private static final MethodHandle CLOSURE;
+    private static final MethodHandle THUNK;
+
+    // The type of compiled code: (Machine, Value[] env) -> Value.
+    private static final MethodType CODE;
+
+    static {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final Class<?> self = CompilingEvaluator.class;
+        try {
+            APPLY = lookup.findStatic(self, "apply", MethodType.methodType(
+                Value.class, Machine.class, Value.class, Value.class));
+            LOAD = lookup.findStatic(self, "load", MethodType.methodType(
+                Value.class, Value[].class, int.class));
+            CLOSURE = lookup.findStatic(self, "closure", MethodType.methodType(
+                Value.class, MethodHandle.class, int.class, int[].class, String.class,
+                Value[].class));
+            THUNK = lookup.findStatic(self, "thunk", MethodType.methodType(
+                Value.class, MethodHandle.class, int.class, Value[].class));
+        } catch (final ReflectiveOperationException e) {
+            throw new UnexpectedIssueException("Could not look up %s", e.getMessage());
+        }
+        CODE = MethodType.methodType(Value.class, Machine.class, Value[].class);
+    }
+
+    private final Evaluator fallback;
+    private final int maxDepth;
+    private final Map<Term, Code> cache;
+
+    /** Constructs a CompilingEvaluator falling back on a call-by-need evaluator. */
+    public CompilingEvaluator() {
+        this(new KrivineEvaluator(KrivineEvaluator.Mode.CALL_BY_NEED));
+    }
+
+    public CompilingEvaluator(final Evaluator fallback) {
+        this(fallback, DEFAULT_CACHE_SIZE, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * @param fallback The evaluator used when the stack grows deeper than {@code maxDepth}.
+     * @param cacheSize The number of compiled terms to keep, 0 disabling the cache.
+     * @param maxDepth The depth of the stack beyond which {@code fallback} is used.
+     */
+    public CompilingEvaluator(final Evaluator fallback, final int cacheSize, final int maxDepth) {
+        super();
+        this.fallback = Validate.notNull(fallback, "null fallback");
+        this.maxDepth = validMaxDepth(maxDepth);
+        this.cache = newCache(cacheSize);
+    }
+
+    /**
+     * @param fallback The evaluator used when the stack grows deeper than {@code maxDepth}.
+     * @param cacheSize The number of compiled terms to keep, 0 disabling the cache.
+     * @param maxDepth The depth of the stack beyond which {@code fallback} is used.
+     * @param factory The factory to build the nodes of results through.
+     */
+    public CompilingEvaluator(final Evaluator fallback,
+                              final int cacheSize,
+                              final int maxDepth,
+                              final NodeFactory factory)
+    {
+        super(factory);
+        this.fallback = Validate.notNull(fallback, "null fallback");
+        this.maxDepth = validMaxDepth(maxDepth);
+        this.cache = newCache(cacheSize);
+    }
+
+    private static int validMaxDepth(final int maxDepth) {
+        Validate.isTrue(maxDepth > 0, "non-positive maxDepth (%d)", maxDepth);
+        return maxDepth;
+    }
+
+    /** @return an access-ordered map keeping at most the given number of compiled terms. */
+    private static Map<Term, Code> newCache(final int cacheSize) {
+        Validate.isTrue(cacheSize >= 0, "negative cacheSize (%d)", cacheSize);
+        return new LinkedHashMap<Term, Code>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Term, Code> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public Result evaluate(final ASTNode term, final Budget budget) {
+        final Term nameless = DeBruijn.toNameless(Validate.notNull(term, "null term"));
+        final Machine machine = new Machine(budget.start(), maxDepth);
+
+        final Meter meter = machine.meter;
+        try {
+            final Code code = compiled(nameless);
+            final Value root = machine.run(code.handle, code.height, new Value[0]);
+            final Term value = readBack(machine, root, term.size());
+            final StopReason reason =
+                meter.stopReason() != null ? meter.stopReason() : StopReason.NORMAL_FORM;
+            return new Result(DeBruijn.toAST(value, factory()), reason, meter.steps());
+        } catch (final Abort e) {
+            // The stack would grow too deep, or the partial result too large; fall back.
+        }
+
+        final Result result = fallback.evaluate(term, meter.remaining());
+        return new Result(result.term(), result.stopReason(), meter.steps() + result.steps());
+    }
+
+    /** @return the number of compiled terms currently cached. */
+    int cached() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private Code compiled(final Term term) {
+        synchronized (cache) {
+            final Code code = cache.get(term);
+            if (code != null) { return code; }
+        }
+
+        final Code code = compile(term);
+        synchronized (cache) {
+            cache.put(term, code);
+        }
+        return code;
+    }
+
+    /**
+     * Compiles a term into code taking the values of its free bound variables in an array. The
+     * array's layout is chosen by the enclosing function: its parameter comes first, followed by
+     * the variables it captures, in order of their indices.
+     */
+    private static Code compile(final Term root) {
+        final Map<Term, int[]> free = freeIndices(root);
+        final Stack<Term> pending = new Stack<>();
+        // For each index bound outside the term, its slot in the array, or -1 if it is unused.
+        final Stack<int[]> layouts = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+        final Stack<MethodHandle> results = new Stack<>();
+        final Stack<Integer> heights = new Stack<>();
+
+        pending.push(root);
+        layouts.push(new int[0]);
+        expanded.push(false);
+
+        while (!pending.isEmpty()) {
+            final Term term = pending.pop();
+            final int[] layout = layouts.pop();
+            final boolean isExpanded = expanded.pop();
+
+            if (term.isBound()) {
+                results.push(code(MethodHandles.insertArguments(LOAD, 1,
+                                                                slot(layout, (Bound) term))));
+                heights.push(1);
+            } else if (term.isFree()) {
+                final Value value = Neutral.free(((Free) term).name());
+                results.push(MethodHandles.dropArguments(
+                    MethodHandles.constant(Value.class, value), 0, CODE.parameterList()));
+                heights.push(1);
+            } else if (term.isLambda()) {
+                final int[] captured = free.get(term);
+                if (isExpanded) {
+                    final int[] slots = new int[captured.length];
+                    for (int i = 0; i < captured.length; ++i) {
+                        slots[i] = layout[captured[i]];
+                    }
+                    results.push(code(MethodHandles.insertArguments(
+                        CLOSURE, 0, results.pop(), heights.pop(), slots,
+                        ((Lambda) term).hint())));
+                    heights.push(1);
+                    continue;
+                }
+
+                final int[] inner =
+                    new int[captured.length > 0 ? captured[captured.length - 1] + 2 : 1];
+                Arrays.fill(inner, -1);
+                inner[0] = 0;
+                for (int i = 0; i < captured.length; ++i) {
+                    inner[captured[i] + 1] = i + 1;
+                }
+
+                pending.push(term);
+                layouts.push(layout);
+                expanded.push(true);
+                pending.push(((Lambda) term).body());
+                layouts.push(inner);
+                expanded.push(false);
+            } else if (isExpanded) {
+                final MethodHandle argument = results.pop();
+                final MethodHandle function = results.pop();
+                final int argumentHeight = heights.pop();
+                final int functionHeight = heights.pop();
+                final boolean delayed = ((Apply) term).argument().isApply();
+                results.push(application(function, argument, argumentHeight, delayed));
+                heights.push(1 + Math.max(functionHeight, delayed ? 1 : argumentHeight));
+            } else {
+                pending.push(term);
+                layouts.push(layout);
+                expanded.push(true);
+                pending.push(((Apply) term).argument());
+                layouts.push(layout);
+                expanded.push(false);
+                pending.push(((Apply) term).function());
+                layouts.push(layout);
+                expanded.push(false);
+            }
+        }
+
+        return new Code(results.pop(), heights.pop());
+    }
+
+    /**
+     * @return code applying the value of {@code function} to that of {@code argument}, which is
+     *         delayed in a thunk if it is an application rather than a variable or a function,
+     *         whose values are at hand.
+     */
+    private static MethodHandle application(final MethodHandle function,
+                                            final MethodHandle argument,
+                                            final int argumentHeight,
+                                            final boolean delayed)
+    {
+        final MethodHandle value = delayed
+            ? code(MethodHandles.insertArguments(THUNK, 0, argument, argumentHeight)) : argument;
+
+        // (Machine, Machine, Value[], Machine, Value[]) -> Value, then with the duplicate
+        // arguments merged.
+        final MethodHandle spread = MethodHandles.collectArguments(
+            MethodHandles.collectArguments(APPLY, 2, value), 1, function);
+        return MethodHandles.permuteArguments(spread, CODE, 0, 0, 1, 0, 1);
+    }
+
+    /** @return the given handle on a Value[], adapted to also take the Machine as compiled code. */
+    private static MethodHandle code(final MethodHandle handle) {
+        return MethodHandles.dropArguments(handle, 0, Machine.class);
+    }
+
+    private static int slot(final int[] layout, final Bound bound) {
+        final int index = bound.index();
+        if (index >= layout.length || layout[index] < 0) {
+            throw new UnexpectedIssueException("No slot for index %d", index);
+        }
+        return layout[index];
+    }
+
+    /**
+     * @return the indices of the free bound variables of each function within the given term,
+     *         relative to the function itself, in increasing order.
+     */
+    private static Map<Term, int[]> freeIndices(final Term root) {
+        final Map<Term, int[]> functions = new IdentityHashMap<>();
+        final Stack<Term> pending = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+        final Stack<int[]> results = new Stack<>();
+
+        pending.push(root);
+        expanded.push(false);
+        while (!pending.isEmpty()) {
+            final Term term = pending.pop();
+            final boolean isExpanded = expanded.pop();
+
+            if (term.isBound()) {
+                results.push(new int[] { ((Bound) term).index() });
+            } else if (term.isFree()) {
+                results.push(new int[0]);
+            } else if (!isExpanded) {
+                pending.push(term);
+                expanded.push(true);
+                if (term.isLambda()) {
+                    pending.push(((Lambda) term).body());
+                    expanded.push(false);
+                } else {
+                    pending.push(((Apply) term).argument());
+                    expanded.push(false);
+                    pending.push(((Apply) term).function());
+                    expanded.push(false);
+                }
+            } else if (term.isLambda()) {
+                final int[] body = results.pop();
+                final int start = body.length > 0 && body[0] == 0 ? 1 : 0;
+                final int[] captured = new int[body.length - start];
+                for (int i = start; i < body.length; ++i) {
+                    captured[i - start] = body[i] - 1;
+                }
+                functions.put(term, captured);
+                results.push(captured);
+            } else {
+                final int[] argument = results.pop();
+                results.push(union(results.pop(), argument));
+            }
+        }
+
+        return functions;
+    }
+
+    private static int[] union(final int[] a, final int[] b) {
+        final int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length || j < b.length) {
+            final int next;
+            if (j == b.length || (i < a.length && a[i] <= b[j])) {
+                next = a[i++];
+            } else {
+                next = b[j++];
+            }
+            if (size == 0 || merged[size - 1] != next) { merged[size++] = next; }
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * Reads the given value back into its normal form, instantiating closures with opaque
+     * variables. Values are only forced as far as the read-back needs them. Once the budget is
+     * exhausted, the closures that were not called are read back along with their arguments.
+     * @param size The size of the term evaluated, from which the read-back's limit is set.
+     * @throws Abort if the budget is exhausted and the limit on values read back is reached.
+     */
+    private static Term readBack(final Machine machine, final Value root, final long size) {
+        final Stack<Object> tasks = new Stack<>();
+        final Stack<Integer> depths = new Stack<>();
+        final Stack<Term> results = new Stack<>();
+        // The values left to read back once the budget is exhausted, or -1 until it is.
+        long remaining = -1;
+
+        tasks.push(root);
+        depths.push(0);
+        while (!tasks.isEmpty()) {
+            final Object task = tasks.pop();
+            final int depth = depths.pop();
+
+            if (task instanceof String) {
+                results.push(new Lambda((String) task, results.pop()));
+                continue;
+            }
+            if (task instanceof Integer) {
+                final Term[] arguments = new Term[(Integer) task];
+                for (int i = arguments.length - 1; i >= 0; --i) {
+                    arguments[i] = results.pop();
+                }
+                Term spine = results.pop();
+                for (final Term argument : arguments) {
+                    spine = new Apply(spine, argument);
+                }
+                results.push(spine);
+                continue;
+            }
+
+            if (remaining < 0 && machine.meter.stopReason() != null) {
+                remaining = READ_BACK_FACTOR * (size + machine.meter.steps());
+            }
+            if (remaining == 0) { throw Abort.TOO_LARGE; }
+            if (remaining > 0) { --remaining; }
+
+            final Value value = machine.force((Value) task);
+            if (value instanceof Closure) {
+                final Closure closure = (Closure) value;
+                tasks.push(closure.hint);
+                depths.push(depth);
+                tasks.push(machine.enter(closure, Neutral.level(depth)));
+                depths.push(depth + 1);
+                continue;
+            }
+
+            final List<Value> arguments = new ArrayList<>();
+            Neutral head = (Neutral) value;
+            while (head.function != null) {
+                arguments.add(head.argument);
+                head = head.function;
+            }
+            if (head.closure != null) {
+                arguments.add(head.argument);
+            } else {
+                results.push(head.name != null ? new Free(head.name)
+                                                : new Bound(depth - head.level - 1));
+            }
+
+            // The arguments were collected last first.
+            tasks.push(arguments.size());
+            depths.push(depth);
+            for (final Value argument : arguments) {
+                tasks.push(argument);
+                depths.push(depth);
+            }
+            if (head.closure != null) {
+                tasks.push(head.closure);
+                depths.push(depth);
+            }
+        }
+
+        return results.pop();
+    }
+
+    // Entry points of compiled code, looked up as method handles.
+
+    private static Value apply(final Machine machine, final Value function, final Value argument) {
+        final Value value = machine.force(function);
+        if (value instanceof Neutral) { return Neutral.apply((Neutral) value, argument); }
+
+        if (!machine.meter.step()) { return Neutral.unapplied((Closure) value, argument); }
+        return machine.enter((Closure) value, argument);
+    }
+
+    private static Value load(final Value[] env, final int slot) {
+        return env[slot];
+    }
+
+    private static Value closure(final MethodHandle body,
+                                 final int height,
+                                 final int[] slots,
+                                 final String hint,
+                                 final Value[] env)
+    {
+        final Value[] captured = new Value[slots.length];
+        for (int i = 0; i < slots.length; ++i) {
+            captured[i] = env[slots[i]];
+        }
+        return new Closure(body, height, captured, hint);
+    }
+
+    private static Value thunk(final MethodHandle code, final int height, final Value[] env) {
+        return new Thunk(code, height, env);
+    }
+
+    /** Compiled code, and the number of levels of nested applications within it. */
+    private static class Code {
+        private final MethodHandle handle;
+        private final int height;
+
+        Code(final MethodHandle handle, final int height) {
+            this.handle = handle;
+            this.height = height;
+        }
+    }
+
+    /** The state of a single evaluation: its meter and how deep the stack of calls is. */
+    private static class Machine {
+        private final Meter meter;
+        private final int maxDepth;
+        private long depth;
+
+        Machine(final Meter meter, final int maxDepth) {
+            this.meter = meter;
+            this.maxDepth = maxDepth;
+            this.depth = 0;
+        }
+
+        /**
+         * @return the value of the given thunk, or the given value if it is not a thunk. A thunk
+         *         may evaluate to another thunk, as an argument passed on to another function
+         *         does, in which case every thunk of the chain is overwritten with the value.
+         */
+        Value force(final Value value) {
+            final List<Thunk> chain = new ArrayList<>();
+            Value current = value;
+            while (current instanceof Thunk) {
+                final Thunk thunk = (Thunk) current;
+                if (thunk.value != null) {
+                    current = thunk.value;
+                } else {
+                    chain.add(thunk);
+                    current = run(thunk.code, thunk.height, thunk.env);
+                }
+            }
+
+            for (final Thunk thunk : chain) {
+                thunk.value = current;
+            }
+            return current;
+        }
+
+        /** @return the value of the closure's body, with its parameter bound to the argument. */
+        Value enter(final Closure closure, final Value argument) {
+            final Value[] env = new Value[closure.captured.length + 1];
+            env[0] = argument;
+            System.arraycopy(closure.captured, 0, env, 1, closure.captured.length);
+            return run(closure.body, closure.height, env);
+        }
+
+        /**
+         * @throws Abort if the code's height would take the stack deeper than the maximum depth.
+         */
+        Value run(final MethodHandle code, final int height, final Value[] env) {
+            final long added = CALL_DEPTH + height;
+            if (depth + added > maxDepth) { throw Abort.TOO_DEEP; }
+
+            depth += added;
+            try {
+                return (Value) code.invokeExact(this, env);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable e) {
+                throw new UnexpectedIssueException("Compiled code threw %s", e);
+            } finally {
+                depth -= added;
+            }
+        }
+    }
+
+    /**
+     * Thrown through compiled code to stop an evaluation whose stack would grow too deep, or
+     * through read-back to stop one whose partial result would be too large.
+     */
+    private static class Abort extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        static final Abort TOO_DEEP = new Abort();
+        static final Abort TOO_LARGE = new Abort();
+
+        private Abort() {
+            super(null, null, false, false);
+        }
+    }
+
+    private abstract static class Value {}
+
+    /** A function's compiled body paired with the values of the variables it captures. */
+    private static class Closure extends Value {
+        private final MethodHandle body;
+        private final int height;
+        private final Value[] captured;
+        private final String hint;
+
+        Closure(final MethodHandle body,
+                final int height,
+                final Value[] captured,
+                final String hint)
+        {
+            this.body = body;
+            this.height = height;
+            this.captured = captured;
+            this.hint = hint;
+        }
+    }
+
+    /** An argument's compiled code and environment, overwritten by its value once forced. */
+    private static class Thunk extends Value {
+        private final MethodHandle code;
+        private final int height;
+        private final Value[] env;
+        private Value value;
+
+        Thunk(final MethodHandle code, final int height, final Value[] env) {
+            this.code = code;
+            this.height = height;
+            this.env = env;
+            this.value = null;
+        }
+    }
+
+    /**
+     * A value that can't be reduced further: a free variable, an opaque variable standing for the
+     * parameter of a function entered by read-back, a closure the budget ran out before calling
+     * with its argument, or one of these applied to arguments.
+     */
+    private static class Neutral extends Value {
+        private final String name;
+        private final int level;
+        private final Closure closure;
+        private final Neutral function;
+        private final Value argument;
+
+        static Neutral free(final String name) {
+            return new Neutral(name, -1, null, null, null);
+        }
+
+        static Neutral level(final int level) {
+            return new Neutral(null, level, null, null, null);
+        }
+
+        static Neutral unapplied(final Closure closure, final Value argument) {
+            return new Neutral(null, -1, closure, null, argument);
+        }
+
+        static Neutral apply(final Neutral function, final Value argument) {
+            return new Neutral(null, -1, null, function, argument);
+        }
+
+        private Neutral(final String name,
+                        final int level,
+                        final Closure closure,
+                        final Neutral function,
+                        final Value argument)
+        {
+            this.name = name;
+            this.level = level;
+            this.closure = closure;
+            this.function = function;
+            this.argument = argument;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package alonzo.eval;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.SymbolTable;
+import alonzo.common.Validate;
+
+/**
+ * Abstract superclass of any evaluators, which reduce {@link ASTNode}s towards their normal form.
+ * Evaluators build the nodes of their results through a {@link NodeFactory}. Unless constructed
+ * with one, they use a factory over the {@link SymbolTable#current()} table of the thread calling
+ * {@code evaluate}, which {@link SymbolTable#withTable(SymbolTable, java.util.function.Supplier)}
+ * scopes to a single evaluation.
+ * @see NormalOrderEvaluator
+ */
+public abstract class Evaluator {
+
+    private final NodeFactory factory;
+
+    protected Evaluator() {
+        this.factory = null;
+    }
+
+    protected Evaluator(final NodeFactory factory) {
+        this.factory = Validate.notNull(factory, "null NodeFactory");
+    }
+
+    /**
+     * Reduces the given term until it reaches a normal form or exhausts the given budget.
+     * @param term The term to evaluate.
+     * @param budget The limits on the work done.
+     * @return the term reached, and why evaluation stopped there.
+     */
+    public abstract Result evaluate(final ASTNode term, final Budget budget);
+
+    /**
+     * Reduces the given term to its normal form. This never returns if the term has none.
+     * @see #evaluate(ASTNode, Budget)
+     */
+    public Result evaluate(final ASTNode term) {
+        return evaluate(term, Budget.unlimited());
+    }
+
+    /** @return the factory to build the nodes of an evaluation's result through. */
+    protected NodeFactory factory() {
+        return factory != null ? factory : new NodeFactory(SymbolTable.current());
+    }
+
+}
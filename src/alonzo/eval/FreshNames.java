@@ -0,0 +1,51 @@
+package alonzo.eval;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import alonzo.ast.NodeFactory;
+import alonzo.ast.Var;
+
+/**
+ * Source of the fresh names given to the parameters {@link Substitution} renames, shared by the
+ * substitutions of one evaluation. Names are the parameter's name, stripped of any suffix a
+ * previous renaming gave it, followed by an underscore and a counter that only grows during the
+ * evaluation, so a name is never tried twice within it.
+ *
+ * Each evaluation counts from 1, so its results don't depend on the evaluations before it, and
+ * repeating an evaluation interns no new names in the factory's {@link alonzo.ast.SymbolTable}.
+ * Whether a candidate is taken is up to the caller, which checks it against the cached
+ * {@link alonzo.ast.ASTNode#freeVariables() free variables} of the terms involved. The counter is
+ * atomic and tables are thread-safe, so concurrent tasks of an evaluation may share an instance.
+ */
+class FreshNames {
+
+    private final NodeFactory factory;
+    private final AtomicLong counter;
+
+    FreshNames(final NodeFactory factory) {
+        this.factory = factory;
+        this.counter = new AtomicLong();
+    }
+
+    /**
+     * @param parameter The parameter to rename.
+     * @param taken Whether a name would capture or be captured in the terms, and so cannot be used.
+     * @return a variable with a name based on the parameter's that is not taken.
+     */
+    Var fresh(final Var parameter, final Predicate<String> taken) {
+        final String base = base(parameter.name());
+        while (true) {
+            final String candidate = base + "_" + counter.incrementAndGet();
+            if (!taken.test(candidate)) { return factory.var(candidate); }
+        }
+    }
+
+    /** @return the given name without its trailing underscore and digits, if it has any. */
+    static String base(final String name) {
+        int end = name.length();
+        while (end > 0 && Character.isDigit(name.charAt(end - 1))) { --end; }
+        final boolean suffixed = end > 1 && end < name.length() && name.charAt(end - 1) == '_';
+        return suffixed ? name.substring(0, end - 1) : name;
+    }
+}
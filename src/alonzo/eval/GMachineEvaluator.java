@@ -0,0 +1,537 @@
+package alonzo.eval;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.nameless.Apply;
+import alonzo.ast.nameless.Bound;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.nameless.Free;
+import alonzo.ast.nameless.Lambda;
+import alonzo.ast.nameless.Term;
+import alonzo.common.Validate;
+import alonzo.exc.UnexpectedIssueException;
+
+/**
+ * {@link Evaluator} running terms on a G-machine: the term is lambda lifted into
+ * {@link Supercombinator}s by {@link LambdaLifter}, and the body of each is compiled into code
+ * that builds an instance of it as a graph. Instructions are an opcode and an operand:
+ * <ul>
+ * <li>{@code ARG i} pushes the supercombinator's parameter {@code i};</li>
+ * <li>{@code GLOBAL g} pushes the node of supercombinator {@code g};</li>
+ * <li>{@code FREE c} pushes the node of the free variable named after constant {@code c};</li>
+ * <li>{@code MKAP} pops a function and then an argument, and pushes their application.</li>
+ * </ul>
+ * The graph is reduced by unwinding the spine of applications down to its head. A supercombinator
+ * applied to as many arguments as it has parameters is instantiated, and the root of the
+ * application is overwritten with an indirection to the instance, so each application is reduced
+ * at most once however many times it is shared. Since no function captures anything at run time,
+ * instantiating a supercombinator is only a matter of filling in its template.
+ *
+ * Once the head is reached, the normal form is read back: a supercombinator short of arguments is
+ * a function, and is applied to an opaque variable, while the arguments of a variable at the head
+ * are themselves reduced. Each instantiation counts one step for each parameter of the lifted
+ * function, other than those read-back applied it to, so step counts are close to those of
+ * {@link KrivineEvaluator.Mode#CALL_BY_NEED}. When the budget is exhausted, the remaining graph is
+ * read back without further reduction, each supercombinator as its definition, with the other
+ * supercombinators it refers to expanded in turn. Nodes shared in the graph are read back once for
+ * each time they occur, so that read-back is limited to {@value #READ_BACK_FACTOR} times the nodes
+ * of the input and of the graph built; past it, the unreduced input is returned instead.
+ */
+public class GMachineEvaluator extends Evaluator {
+
+    static final int ARG = 0;
+    static final int GLOBAL = 1;
+    static final int FREE = 2;
+    static final int MKAP = 3;
+
+    /** The most nodes read back without reduction, per node of the input and of the graph. */
+    static final int READ_BACK_FACTOR = 16;
+
+    public GMachineEvaluator() {
+        super();
+    }
+
+    public GMachineEvaluator(final NodeFactory factory) {
+        super(factory);
+    }
+
+    @Override
+    public Result evaluate(final ASTNode term, final Budget budget) {
+        final LambdaLifter.Program program =
+            LambdaLifter.lift(Validate.notNull(term, "null term"));
+        final Machine machine = new Machine(program, term.size(), budget.start());
+
+        final Term result = machine.normalize();
+        final Meter meter = machine.meter;
+        final StopReason reason =
+            meter.stopReason() != null ? meter.stopReason() : StopReason.NORMAL_FORM;
+        final ASTNode reached = result != null ? DeBruijn.toAST(result, factory()) : term;
+        return new Result(reached, reason, meter.steps());
+    }
+
+    /**
+     * Compiles the body of a supercombinator, or the main expression when {@code arity} is 0, into
+     * code leaving an instance of it on top of the stack.
+     * @param globals The index of each supercombinator, by name.
+     * @param constants The index of each free variable's name, added to as new ones are found.
+     */
+    static int[] compile(final Term body, final int arity, final Map<String, Integer> globals,
+                         final Map<String, Integer> constants)
+    {
+        int[] code = new int[16];
+        int size = 0;
+        // Null stands for the MKAP of an application whose two parts have been compiled.
+        final Stack<Term> pending = new Stack<>();
+
+        pending.push(body);
+        while (!pending.isEmpty()) {
+            final Term term = pending.pop();
+            if (size + 2 > code.length) { code = Arrays.copyOf(code, code.length * 2); }
+
+            if (term == null) {
+                code[size++] = MKAP;
+                code[size++] = 0;
+            } else if (term.isApply()) {
+                pending.push(null);
+                pending.push(((Apply) term).function());
+                pending.push(((Apply) term).argument());
+            } else if (term.isBound()) {
+                code[size++] = ARG;
+                code[size++] = arity - 1 - ((Bound) term).index();
+            } else if (term.isFree()) {
+                final String name = ((Free) term).name();
+                final Integer global = globals.get(name);
+                if (global != null) {
+                    code[size++] = GLOBAL;
+                    code[size++] = global;
+                } else {
+                    constants.putIfAbsent(name, constants.size());
+                    code[size++] = FREE;
+                    code[size++] = constants.get(name);
+                }
+            } else {
+                throw new UnexpectedIssueException("Function left in lifted body %s", term);
+            }
+        }
+
+        return Arrays.copyOf(code, size);
+    }
+
+    /**
+     * A node of the graph. Nodes are mutable so that the root of an instantiated application can
+     * be overwritten with an indirection to its instance.
+     */
+    private static class Node {
+        private static final int AP = 0;
+        private static final int COMBINATOR = 1;
+        private static final int INDIRECTION = 2;
+        private static final int VARIABLE = 3;
+        private static final int OPAQUE = 4;
+
+        // The value of an application of a function to an opaque variable by read-back.
+        private static final int ENTERED = 1;
+
+        private int kind;
+        // The function of an application, or the target of an indirection.
+        private Node function;
+        private Node argument;
+        // The index of a supercombinator or free variable, the depth of an opaque variable, or
+        // whether an application was made by read-back.
+        private int value;
+
+        private Node(final int kind, final Node function, final Node argument, final int value) {
+            this.kind = kind;
+            this.function = function;
+            this.argument = argument;
+            this.value = value;
+        }
+    }
+
+    /** The graph reducer and its read-back. */
+    private static class Machine {
+        // Read-back tasks.
+        private static final int EVAL = 0;
+        private static final int LAMBDA = 1;
+        private static final int SPINE = 2;
+
+        private final Meter meter;
+        private final int[][] code;
+        private final int[] arities;
+        // The number of parameters of each lifted function, which is what each step counts.
+        private final int[] parameters;
+        private final String[][] hints;
+        private final List<Supercombinator> combinators;
+        // The definitions of the supercombinators with the others they refer to expanded, built
+        // the first time the graph is read back without reduction.
+        private Term[] definitions;
+        // The number of nodes of each definition, counting shared subterms each time they occur.
+        private long[] sizes;
+        private final String[] constants;
+        private final Node[] globals;
+        private final Node[] variables;
+        private final int[] main;
+
+        private Node[] stack;
+        private int sp;
+
+        // The nodes of the input and of the graph built so far, and those read back by quote,
+        // which may not exceed READ_BACK_FACTOR times the former.
+        private long built;
+        private long quoted;
+
+        Machine(final LambdaLifter.Program program, final long size, final Meter meter) {
+            this.meter = meter;
+            this.built = size;
+            this.quoted = 0;
+            this.combinators = program.combinators();
+            final int count = combinators.size();
+            this.code = new int[count][];
+            this.arities = new int[count];
+            this.parameters = new int[count];
+            this.hints = new String[count][];
+            this.globals = new Node[count];
+
+            final Map<String, Integer> indices = new HashMap<>();
+            final Map<String, Integer> names = new HashMap<>();
+            for (int g = 0; g < count; ++g) {
+                final Supercombinator combinator = combinators.get(g);
+                code[g] = compile(combinator.body(), combinator.arity(), indices, names);
+                arities[g] = combinator.arity();
+                parameters[g] = combinator.arity() - combinator.captured();
+                hints[g] = new String[combinator.arity()];
+                Term definition = combinator.definition();
+                for (int i = 0; i < hints[g].length; ++i) {
+                    hints[g][i] = ((Lambda) definition).hint();
+                    definition = ((Lambda) definition).body();
+                }
+                globals[g] = new Node(Node.COMBINATOR, null, null, g);
+                indices.put(combinator.name(), g);
+            }
+            this.main = compile(program.main(), 0, indices, names);
+
+            this.constants = new String[names.size()];
+            this.variables = new Node[names.size()];
+            for (final Map.Entry<String, Integer> entry : names.entrySet()) {
+                constants[entry.getValue()] = entry.getKey();
+                variables[entry.getValue()] = new Node(Node.VARIABLE, null, null,
+                                                       entry.getValue());
+            }
+
+            this.stack = new Node[256];
+            this.sp = 0;
+        }
+
+        /**
+         * @return the normal form of the program, or as far as it got within the budget, or null
+         *         if that is too large to read back.
+         */
+        Term normalize() {
+            final Stack<Integer> kinds = new Stack<>();
+            final Stack<Node> nodes = new Stack<>();
+            final Stack<Integer> operands = new Stack<>();
+            final Stack<Term> results = new Stack<>();
+
+            kinds.push(EVAL);
+            nodes.push(instantiate(main, 0));
+            operands.push(0);
+            while (!kinds.isEmpty()) {
+                final int kind = kinds.pop();
+                final Node node = nodes.pop();
+                final int operand = operands.pop();
+
+                if (kind == EVAL) {
+                    if (meter.stopReason() != null || !unwind(node)) {
+                        // Redexes are overwritten as they are reduced, so the node holds how far
+                        // its reduction got.
+                        final Term quote = quote(node, operand);
+                        if (quote == null) { return null; }
+                        results.push(quote);
+                    } else {
+                        readBack(operand, kinds, nodes, operands, results);
+                    }
+                } else if (kind == LAMBDA) {
+                    results.push(new Lambda(hints[node.value][operand], results.pop()));
+                } else {
+                    final Term[] arguments = new Term[operand];
+                    for (int i = arguments.length - 1; i >= 0; --i) {
+                        arguments[i] = results.pop();
+                    }
+                    Term spine = results.pop();
+                    for (final Term argument : arguments) {
+                        spine = new Apply(spine, argument);
+                    }
+                    results.push(spine);
+                }
+            }
+
+            return results.pop();
+        }
+
+        /**
+         * Reduces the given node until the head of its spine is a variable or a supercombinator
+         * short of arguments, leaving the spine on the stack, root first and head last.
+         * @return false if the budget was exhausted.
+         */
+        private boolean unwind(final Node root) {
+            sp = 0;
+            push(root);
+
+            while (true) {
+                Node node = stack[sp - 1];
+                while (node.kind == Node.INDIRECTION) {
+                    node = node.function;
+                }
+                stack[sp - 1] = node;
+
+                if (node.kind == Node.AP) {
+                    push(node.function);
+                    continue;
+                }
+                if (node.kind != Node.COMBINATOR || sp - 1 < arities[node.value]) {
+                    return true;
+                }
+
+                final int g = node.value;
+                final int arity = arities[g];
+                for (int i = arity - parameters[g]; i < arity; ++i) {
+                    if (stack[sp - 2 - i].value != Node.ENTERED && !meter.step()) { return false; }
+                }
+
+                // Replace the spine by its arguments, first to last, above the application's root.
+                final int frame = sp - 1 - arity;
+                final Node redex = stack[frame];
+                for (int i = frame; i < sp - 1; ++i) {
+                    stack[i] = stack[i].argument;
+                }
+                for (int i = frame, j = sp - 2; i < j; ++i, --j) {
+                    final Node swap = stack[i];
+                    stack[i] = stack[j];
+                    stack[j] = swap;
+                }
+                System.arraycopy(stack, frame, stack, frame + 1, arity);
+                stack[frame] = redex;
+                sp = frame + 1 + arity;
+
+                final Node instance = instantiate(code[g], frame);
+                redex.kind = Node.INDIRECTION;
+                redex.function = instance;
+                redex.argument = null;
+                stack[frame] = instance;
+                sp = frame + 1;
+            }
+        }
+
+        /** Runs code with parameters above {@code frame}, and returns the instance it builds. */
+        private Node instantiate(final int[] code, final int frame) {
+            for (int pc = 0; pc < code.length; pc += 2) {
+                final int operand = code[pc + 1];
+                switch (code[pc]) {
+                case ARG:
+                    push(stack[frame + 1 + operand]);
+                    break;
+                case GLOBAL:
+                    push(globals[operand]);
+                    break;
+                case FREE:
+                    push(variables[operand]);
+                    break;
+                case MKAP:
+                    final Node function = stack[--sp];
+                    final Node argument = stack[--sp];
+                    push(new Node(Node.AP, function, argument, 0));
+                    ++built;
+                    break;
+                default:
+                    throw new UnexpectedIssueException("Unknown opcode %d at %d", code[pc], pc);
+                }
+            }
+            return stack[--sp];
+        }
+
+        /**
+         * Schedules the read-back of the spine left on the stack by {@link #unwind(Node)}.
+         * {@code depth} is the number of functions entered by read-back so far.
+         */
+        private void readBack(final int depth, final Stack<Integer> kinds, final Stack<Node> nodes,
+                              final Stack<Integer> operands, final Stack<Term> results)
+        {
+            final Node head = stack[sp - 1];
+            if (head.kind == Node.COMBINATOR) {
+                final Node opaque = new Node(Node.OPAQUE, null, null, depth);
+                kinds.push(LAMBDA);
+                nodes.push(head);
+                operands.push(sp - 1);
+                kinds.push(EVAL);
+                nodes.push(new Node(Node.AP, stack[0], opaque, Node.ENTERED));
+                operands.push(depth + 1);
+                return;
+            }
+
+            results.push(head.kind == Node.VARIABLE
+                         ? new Free(constants[head.value])
+                         : new Bound(depth - head.value - 1));
+            kinds.push(SPINE);
+            nodes.push(null);
+            operands.push(sp - 1);
+            for (int i = 0; i < sp - 1; ++i) {
+                kinds.push(EVAL);
+                nodes.push(stack[i].argument);
+                operands.push(depth);
+            }
+        }
+
+        /**
+         * @return the term of the graph under the given node, with none of its redexes reduced, or
+         *         null if that would take the nodes read back past the limit. {@code depth} is the
+         *         number of functions entered by read-back so far.
+         */
+        private Term quote(final Node root, final int depth) {
+            final Stack<Node> pending = new Stack<>();
+            final Stack<Boolean> expanded = new Stack<>();
+            final Stack<Term> results = new Stack<>();
+
+            pending.push(root);
+            expanded.push(false);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                while (node.kind == Node.INDIRECTION) {
+                    node = node.function;
+                }
+
+                if (expanded.pop()) {
+                    final Term argument = results.pop();
+                    results.push(new Apply(results.pop(), argument));
+                    continue;
+                }
+
+                quoted += node.kind == Node.COMBINATOR ? definitionSize(node.value) : 1;
+                if (quoted > READ_BACK_FACTOR * built) { return null; }
+
+                if (node.kind == Node.AP) {
+                    pending.push(node);
+                    expanded.push(true);
+                    pending.push(node.argument);
+                    expanded.push(false);
+                    pending.push(node.function);
+                    expanded.push(false);
+                } else if (node.kind == Node.COMBINATOR) {
+                    results.push(definition(node.value));
+                } else if (node.kind == Node.VARIABLE) {
+                    results.push(new Free(constants[node.value]));
+                } else {
+                    results.push(new Bound(depth - node.value - 1));
+                }
+            }
+
+            return results.pop();
+        }
+
+        /**
+         * @return the definition of supercombinator {@code g}, with the supercombinators it refers
+         *         to expanded into their own.
+         */
+        private Term definition(final int g) {
+            if (definitions == null) {
+                final Map<String, Term> byName = new HashMap<>();
+                final Map<String, Long> sizeByName = new HashMap<>();
+                definitions = new Term[combinators.size()];
+                sizes = new long[combinators.size()];
+                // Each supercombinator only refers to those before it.
+                for (int i = 0; i < definitions.length; ++i) {
+                    final Term definition = combinators.get(i).definition();
+                    definitions[i] = expand(definition, byName);
+                    sizes[i] = size(definition, sizeByName);
+                    byName.put(combinators.get(i).name(), definitions[i]);
+                    sizeByName.put(combinators.get(i).name(), sizes[i]);
+                }
+            }
+            return definitions[g];
+        }
+
+        /** @return the number of nodes of the {@link #definition(int)} of supercombinator g. */
+        private long definitionSize(final int g) {
+            definition(g);
+            return sizes[g];
+        }
+
+        /**
+         * @return the number of nodes of the given term once expanded, each free variable named
+         *         after a supercombinator counting as the size of its expanded definition.
+         */
+        private static long size(final Term root, final Map<String, Long> sizeByName) {
+            final Stack<Term> pending = new Stack<>();
+            long size = 0;
+
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                final Term term = pending.pop();
+                if (term.isLambda()) {
+                    ++size;
+                    pending.push(((Lambda) term).body());
+                } else if (term.isApply()) {
+                    ++size;
+                    pending.push(((Apply) term).argument());
+                    pending.push(((Apply) term).function());
+                } else if (term.isFree() && sizeByName.containsKey(((Free) term).name())) {
+                    size += sizeByName.get(((Free) term).name());
+                } else {
+                    ++size;
+                }
+            }
+            return size;
+        }
+
+        /**
+         * @return the given term with each free variable named after a supercombinator replaced by
+         *         its expanded definition, which is closed, so nothing needs renumbering.
+         */
+        private static Term expand(final Term root, final Map<String, Term> byName) {
+            final Stack<Term> pending = new Stack<>();
+            final Stack<Boolean> expanded = new Stack<>();
+            final Stack<Term> results = new Stack<>();
+
+            pending.push(root);
+            expanded.push(false);
+            while (!pending.isEmpty()) {
+                final Term term = pending.pop();
+                if (expanded.pop()) {
+                    if (term.isLambda()) {
+                        results.push(new Lambda(((Lambda) term).hint(), results.pop()));
+                    } else {
+                        final Term argument = results.pop();
+                        results.push(new Apply(results.pop(), argument));
+                    }
+                } else if (term.isLambda()) {
+                    pending.push(term);
+                    expanded.push(true);
+                    pending.push(((Lambda) term).body());
+                    expanded.push(false);
+                } else if (term.isApply()) {
+                    pending.push(term);
+                    expanded.push(true);
+                    pending.push(((Apply) term).argument());
+                    expanded.push(false);
+                    pending.push(((Apply) term).function());
+                    expanded.push(false);
+                } else if (term.isFree() && byName.containsKey(((Free) term).name())) {
+                    results.push(byName.get(((Free) term).name()));
+                } else {
+                    results.push(term);
+                }
+            }
+
+            return results.pop();
+        }
+
+        private void push(final Node node) {
+            if (sp == stack.length) { stack = Arrays.copyOf(stack, stack.length * 2); }
+            stack[sp++] = node;
+        }
+    }
+}
@@ -0,0 +1,845 @@
+package alonzo.eval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.Var;
+import alonzo.ast.nameless.Apply;
+import alonzo.ast.nameless.Bound;
+import alonzo.ast.nameless.Free;
+import alonzo.ast.nameless.Lambda;
+import alonzo.ast.nameless.Term;
+import alonzo.exc.UnexpectedIssueException;
+
+/**
+ * An interaction net encoding of a term, reduced by Lamping's algorithm, in the formulation of
+ * Gonthier, Abadi and Lévy. Nodes are stored in parallel arrays and each has up to three ports,
+ * numbered {@code 3 * node + slot}, where slot 0 is the node's principal port. {@code ports[p]} is
+ * the port wired to port {@code p}.
+ *
+ * A function's principal port is its value, slot 1 its variable and slot 2 its body; an
+ * application's principal port is its function, slot 1 its argument and slot 2 its result. Every
+ * node has a level: a subterm's nodes are at the number of arguments it is nested in. Each
+ * occurrence of a variable passes through a {@link #CROISSANT} at its level, and through a
+ * {@link #BRACKET} at every application whose argument it is in; the occurrences of a variable are
+ * shared by {@link #FAN}s at the level of the applications where they meet, and an unused
+ * variable is wired to an {@link #ERASER}. Two nodes whose principal ports are wired together
+ * interact: nodes of the same kind and level annihilate, which for a function and an application
+ * is a beta reduction, while otherwise each is copied through the other, the copies of the node of
+ * higher level moving one level up past a bracket and one down past a croissant.
+ *
+ * Copying through fans shares work between all copies of a term, so terms that duplicate work
+ * under every other strategy reduce in far fewer interactions. Levels tell apart the fans of
+ * different copies of a term, so that fans only annihilate with the fans that shared the same
+ * term. {@link #readBack} follows each fan to the copy it was entered from by tracking, for each
+ * level, the fan ports it went through.
+ */
+class InteractionNet {
+
+    static final int UNUSED = -1;
+    static final int ROOT = 0;
+    static final int ERASER = 1;
+    static final int FREE = 2;
+    static final int LAMBDA = 3;
+    static final int APPLY = 4;
+    static final int FAN = 5;
+    static final int BRACKET = 6;
+    static final int CROISSANT = 7;
+
+    private static final int ROOT_NODE = 0;
+    private static final String DEFAULT_HINT = "x";
+
+    private int[] ports;
+    private int[] kinds;
+    private int[] levels;
+
+    // The parameter name of a function, or the name of a free variable.
+    private String[] names;
+
+    // Nodes whose auxiliary ports have been scheduled for reduction.
+    private boolean[] visited;
+
+    // The last walk towards a principal port that went through each node.
+    private int[] walks;
+    private int walk;
+
+    private int size;
+    private final IntStack unused;
+
+    private InteractionNet() {
+        ports = new int[3 * 64];
+        kinds = new int[64];
+        levels = new int[64];
+        names = new String[64];
+        visited = new boolean[64];
+        walks = new int[64];
+        walk = 0;
+        size = 0;
+        unused = new IntStack();
+
+        newNode(ROOT, null, 0);
+    }
+
+    /** @return the number of live nodes in the net. */
+    int size() {
+        return size - unused.size();
+    }
+
+    /** @return the net encoding the given term, built without recursion. */
+    static InteractionNet fromAST(final ASTNode root) {
+        final InteractionNet net = new InteractionNet();
+
+        // The number of enclosing functions binding each name.
+        final Map<String, Integer> binders = new HashMap<>();
+        // For each subterm built, the port each of its bound variables leaves it through.
+        final Stack<Map<String, Integer>> variables = new Stack<>();
+
+        final Stack<ASTNode> pending = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+        final IntStack targets = new IntStack();
+        final IntStack depths = new IntStack();
+
+        pending.push(root);
+        expanded.push(false);
+        targets.push(port(ROOT_NODE, 0));
+        depths.push(0);
+
+        while (!pending.isEmpty()) {
+            final ASTNode node = pending.pop();
+            final int target = targets.pop();
+            final int level = depths.pop();
+
+            if (expanded.pop()) {
+                if (node.isFun()) {
+                    final String name = ((Fun) node).parameter().name();
+                    binders.merge(name, -1, Integer::sum);
+                    final Integer variable = variables.peek().remove(name);
+                    net.link(port(node(target), 1), variable != null
+                        ? variable : port(net.newNode(ERASER, null, level), 0));
+                } else {
+                    final Map<String, Integer> argument = variables.pop();
+                    net.share(variables.peek(), argument, level);
+                }
+            } else if (node.isVar()) {
+                final String name = ((Var) node).name();
+                final Map<String, Integer> variable = new HashMap<>();
+                if (binders.getOrDefault(name, 0) > 0) {
+                    final int croissant = net.newNode(CROISSANT, null, level);
+                    net.link(port(croissant, 1), target);
+                    variable.put(name, port(croissant, 0));
+                } else {
+                    net.link(port(net.newNode(FREE, name, level), 0), target);
+                }
+                variables.push(variable);
+            } else if (node.isFun()) {
+                final Fun fun = (Fun) node;
+                final int lambda = net.newNode(LAMBDA, fun.parameter().name(), level);
+                net.link(port(lambda, 0), target);
+                binders.merge(fun.parameter().name(), 1, Integer::sum);
+
+                push(pending, expanded, targets, depths, node, true, port(lambda, 0), level);
+                push(pending, expanded, targets, depths, fun.body(), false, port(lambda, 2),
+                     level);
+            } else {
+                final App app = (App) node;
+                final int apply = net.newNode(APPLY, null, level);
+                net.link(port(apply, 2), target);
+
+                push(pending, expanded, targets, depths, node, true, port(apply, 0), level);
+                push(pending, expanded, targets, depths, app.argument(), false, port(apply, 1),
+                     level + 1);
+                push(pending, expanded, targets, depths, app.function(), false, port(apply, 0),
+                     level);
+            }
+        }
+
+        return net;
+    }
+
+    private static void push(final Stack<ASTNode> pending,
+                             final Stack<Boolean> expanded,
+                             final IntStack targets,
+                             final IntStack depths,
+                             final ASTNode node,
+                             final boolean expand,
+                             final int target,
+                             final int level)
+    {
+        pending.push(node);
+        expanded.push(expand);
+        targets.push(target);
+        depths.push(level);
+    }
+
+    /**
+     * Adds the variables of an application's argument to those of its function: each passes
+     * through a bracket at the application's level, and is shared with the function's occurrences
+     * of the same variable by a fan, if it has any.
+     */
+    private void share(final Map<String, Integer> function,
+                       final Map<String, Integer> argument,
+                       final int level)
+    {
+        for (final Map.Entry<String, Integer> variable : argument.entrySet()) {
+            final int bracket = newNode(BRACKET, null, level);
+            link(port(bracket, 1), variable.getValue());
+
+            final Integer shared = function.get(variable.getKey());
+            if (shared == null) {
+                function.put(variable.getKey(), port(bracket, 0));
+            } else {
+                final int fan = newNode(FAN, null, level);
+                link(port(fan, 1), shared);
+                link(port(fan, 2), port(bracket, 0));
+                function.put(variable.getKey(), port(fan, 0));
+            }
+        }
+    }
+
+    /**
+     * Reduces the net to normal form, lazily: starting from the root, only interactions whose
+     * result is needed to read back the net are performed, so parts of the net that get erased
+     * are never reduced. The walk moves towards principal ports to find interactions, and only
+     * schedules a node's auxiliary ports once the node's principal port faces the root, so the
+     * walk keeps its state on explicit stacks. Scheduled ports are walked from in the order they
+     * were scheduled: fans can keep copying terms into parts of the net that will be erased but
+     * haven't been yet, and walking from the latest ports first could reduce those forever.
+     * @param meter Accounts for each interaction.
+     * @param limit The number of steps of the meter after which to stop, even if its budget allows
+     *              more.
+     * @return {@link StopReason#NORMAL_FORM} if the net reached normal form, the reason it stopped
+     *         if the meter or the limit stopped the reduction, or null if the net deadlocked or
+     *         two nodes met that no term can bring together, neither of which happens to a net
+     *         built by {@link #fromAST}.
+     */
+    StopReason reduce(final Meter meter, final long limit) {
+        final IntQueue visit = new IntQueue();
+        // The ports through which the current walk entered each node on its way to a principal
+        // port.
+        final IntStack path = new IntStack();
+
+        visit.add(port(ROOT_NODE, 0));
+        while (!visit.isEmpty()) {
+            int from = visit.remove();
+            path.clear();
+            ++walk;
+
+            while (true) {
+                final int to = ports[from];
+                final int node = node(to);
+
+                // Walks can be left holding ports of nodes discarded by an interaction, in which
+                // case the part of the net they led to has been rewired and walked since.
+                if (kinds[node] == UNUSED || ports[to] != from) { break; }
+                if (kinds[node] == ROOT) {
+                    // A variable of a function in the result, applied to arguments.
+                    scheduleArguments(path, visit);
+                    break;
+                }
+                if (slot(to) != 0) {
+                    // A walk back to a node it went through is going round a cycle of nodes whose
+                    // principal ports face each other's auxiliary ports: a deadlock.
+                    if (walks[node] == walk) { return null; }
+                    walks[node] = walk;
+                    path.push(to);
+                    from = port(node, 0);
+                    continue;
+                }
+                if (slot(from) != 0 || node(from) == ROOT_NODE) {
+                    schedule(node, 0, visit);
+                    break;
+                }
+
+                final int other = node(from);
+                if (!interacts(kinds[other], kinds[node])) {
+                    // A free variable applied to arguments.
+                    scheduleArguments(path, visit);
+                    break;
+                }
+
+                if (meter.steps() >= limit) { return StopReason.STEP_BUDGET_EXHAUSTED; }
+                if (!meter.step()) { return meter.stopReason(); }
+                final int back = ports[path.pop()];
+                if (!rewrite(other, node)) { return null; }
+                from = back;
+            }
+        }
+        return StopReason.NORMAL_FORM;
+    }
+
+    /**
+     * Schedules the auxiliary ports of the given node other than {@code entry}, once. A function's
+     * variable is left out: the walk reaches its occurrences from where they are used, while
+     * walking out to them could reach into parts of the net that are about to be erased, and
+     * reduce them without end.
+     */
+    private void schedule(final int node, final int entry, final IntQueue visit) {
+        if (visited[node] || auxiliaries(kinds[node]) == 0) { return; }
+        visited[node] = true;
+
+        for (int slot = auxiliaries(kinds[node]); slot > 0; --slot) {
+            if (slot != entry && !(kinds[node] == LAMBDA && slot == 1)) {
+                visit.add(port(node, slot));
+            }
+        }
+    }
+
+    /**
+     * Schedules the arguments of the applications a walk went through from their result, once it
+     * found their head to be a variable.
+     */
+    private void scheduleArguments(final IntStack path, final IntQueue visit) {
+        while (!path.isEmpty()) {
+            final int entry = path.pop();
+            if (kinds[node(entry)] == APPLY && slot(entry) == 2) {
+                schedule(node(entry), 2, visit);
+            }
+        }
+    }
+
+    private static boolean interacts(final int a, final int b) {
+        if (a == ROOT || b == ROOT) { return false; }
+        if (a == FREE || b == FREE) {
+            return !isTerm(a) && !isTerm(b) && !(a == FREE && b == FREE);
+        }
+        return true;
+    }
+
+    /** @return false if the nodes can't interact in a net built from a term. */
+    private boolean rewrite(final int a, final int b) {
+        final int kindA = kinds[a];
+        final int kindB = kinds[b];
+
+        if (auxiliaries(kindA) == 0 || auxiliaries(kindB) == 0) {
+            if (auxiliaries(kindB) != 0) {
+                copyLeaf(a, b);
+            } else if (auxiliaries(kindA) != 0) {
+                copyLeaf(b, a);
+            } else {
+                discard(a);
+                discard(b);
+            }
+            return true;
+        }
+
+        if (levels[a] == levels[b]) {
+            if (isTerm(kindA) ? kindB != LAMBDA + APPLY - kindA : kindB != kindA) { return false; }
+            annihilate(a, b);
+            return true;
+        }
+
+        final int lower = levels[a] < levels[b] ? a : b;
+        final int higher = lower == a ? b : a;
+        if (isTerm(kinds[lower]) && isTerm(kinds[higher])) { return false; }
+        commute(lower, higher);
+        return true;
+    }
+
+    /**
+     * Wires the auxiliary ports of two nodes of the same kind, or a function and an application,
+     * to each other. Each pair is looked up after the previous one is wired, in case the nodes'
+     * auxiliary ports were wired to each other.
+     */
+    private void annihilate(final int a, final int b) {
+        for (int slot = 1; slot <= auxiliaries(kinds[a]); ++slot) {
+            final int x = ports[port(a, slot)];
+            final int y = ports[port(b, slot)];
+            link(x, y);
+            collect(node(x));
+            collect(node(y));
+        }
+        discard(a);
+        discard(b);
+    }
+
+    /**
+     * Copies an eraser or free variable to each auxiliary port of a node: erasing a node erases
+     * its subterms, and copying a free variable yields one per copy.
+     */
+    private void copyLeaf(final int leaf, final int node) {
+        final int[] copies = new int[auxiliaries(kinds[node]) + 1];
+        for (int slot = 1; slot < copies.length; ++slot) {
+            copies[slot] = newNode(kinds[leaf], names[leaf], levels[leaf]);
+        }
+
+        for (int slot = 1; slot < copies.length; ++slot) {
+            final int partner = ports[port(node, slot)];
+            link(port(copies[slot], 0),
+                 node(partner) == node ? port(copies[slot(partner)], 0) : partner);
+        }
+        discard(leaf);
+        discard(node);
+        for (int slot = 1; slot < copies.length; ++slot) {
+            collect(copies[slot]);
+        }
+    }
+
+    /**
+     * Erases what the given node leaves unused, if it is an eraser: whatever node it faces through
+     * that node's principal port, and also an application whose result or a bracket or croissant
+     * whose auxiliary port it faces, along with whatever else that leaves unused. Otherwise, such
+     * garbage would be kept alive by fans sharing variables with it, and reduced whenever they are,
+     * without end if it has no normal form. Erasing is part of the interaction that made the
+     * eraser, so doesn't count as further interactions.
+     */
+    private void collect(final int eraser) {
+        final IntStack erasers = new IntStack();
+        erasers.push(eraser);
+        while (!erasers.isEmpty()) {
+            final int node = erasers.pop();
+            if (kinds[node] != ERASER) { continue; }
+
+            final int to = ports[port(node, 0)];
+            final int garbage = node(to);
+            final int kind = kinds[garbage];
+            if (kind == ROOT || kind == UNUSED) { continue; }
+            if (slot(to) != 0 && !(kind == APPLY && slot(to) == 2)
+                && !(auxiliaries(kind) == 1 && slot(to) == 1))
+            {
+                continue;
+            }
+
+            for (int slot = 0; slot <= auxiliaries(kind); ++slot) {
+                final int partner = ports[port(garbage, slot)];
+                if (slot == slot(to) || node(partner) == garbage) { continue; }
+                final int copy = newNode(ERASER, null, levels[garbage]);
+                link(port(copy, 0), partner);
+                erasers.push(copy);
+            }
+            discard(node);
+            discard(garbage);
+        }
+    }
+
+    /**
+     * Copies each of two nodes of different levels through the other. The copies of the node of
+     * higher level move one level up past a bracket, and one down past a croissant.
+     */
+    private void commute(final int lower, final int higher) {
+        // copiesOfHigher[i] replaces lower at lower's auxiliary port i, and copiesOfLower[i]
+        // higher at higher's.
+        final int[] copiesOfHigher = new int[auxiliaries(kinds[lower]) + 1];
+        final int[] copiesOfLower = new int[auxiliaries(kinds[higher]) + 1];
+        final int level = levels[higher] + offset(kinds[lower]);
+        for (int i = 1; i < copiesOfHigher.length; ++i) {
+            copiesOfHigher[i] = newNode(kinds[higher], names[higher], level);
+        }
+        for (int i = 1; i < copiesOfLower.length; ++i) {
+            copiesOfLower[i] = newNode(kinds[lower], names[lower], levels[lower]);
+        }
+
+        for (int i = 1; i < copiesOfHigher.length; ++i) {
+            link(port(copiesOfHigher[i], 0),
+                 replace(ports[port(lower, i)], lower, higher, copiesOfHigher, copiesOfLower));
+        }
+        for (int i = 1; i < copiesOfLower.length; ++i) {
+            link(port(copiesOfLower[i], 0),
+                 replace(ports[port(higher, i)], lower, higher, copiesOfHigher, copiesOfLower));
+        }
+        for (int i = 1; i < copiesOfHigher.length; ++i) {
+            for (int j = 1; j < copiesOfLower.length; ++j) {
+                link(port(copiesOfHigher[i], j), port(copiesOfLower[j], i));
+            }
+        }
+        discard(lower);
+        discard(higher);
+        for (int i = 1; i < copiesOfHigher.length; ++i) {
+            collect(node(ports[port(copiesOfHigher[i], 0)]));
+        }
+        for (int i = 1; i < copiesOfLower.length; ++i) {
+            collect(node(ports[port(copiesOfLower[i], 0)]));
+        }
+    }
+
+    /** @return the given port, or the port replacing it if it belongs to a commuted node. */
+    private static int replace(final int port,
+                               final int lower,
+                               final int higher,
+                               final int[] copiesOfHigher,
+                               final int[] copiesOfLower)
+    {
+        if (node(port) == lower) { return port(copiesOfHigher[slot(port)], 0); }
+        if (node(port) == higher) { return port(copiesOfLower[slot(port)], 0); }
+        return port;
+    }
+
+    /**
+     * Reads the net back into a nameless term. The read-back carries a context, holding for each
+     * level the fan ports it went through: entering a fan through an auxiliary port pushes the
+     * port on the fan's level, so that the fan is later left through the same port when entered
+     * through its principal port. A croissant entered through its auxiliary port inserts an empty
+     * level at its own, and a bracket pairs its level with the next, each undone when entered the
+     * other way. A variable is bound by the innermost function read in the same context below the
+     * function's level.
+     * @param limit The maximum number of nodes to go through, which bounds the work done on a net
+     *              that doesn't read back consistently.
+     * @return the term, or null if the net could not be read back consistently within the limit.
+     */
+    Term readBack(final long limit) {
+        final Contexts contexts = new Contexts();
+
+        final Stack<Term> results = new Stack<>();
+        final IntStack tasks = new IntStack();
+        final Stack<int[]> reads = new Stack<>();
+        // The functions being read, innermost on top, and the contexts they were read in.
+        final IntStack functions = new IntStack();
+        final List<int[]> scopes = new ArrayList<>();
+
+        tasks.push(port(ROOT_NODE, 0));
+        tasks.push(READ);
+        reads.push(new int[0]);
+
+        long steps = 0;
+        while (!tasks.isEmpty()) {
+            final int task = tasks.pop();
+
+            if (task == BUILD_LAMBDA) {
+                final int node = functions.pop();
+                scopes.remove(scopes.size() - 1);
+                results.push(new Lambda(names[node] != null ? names[node] : DEFAULT_HINT,
+                                        results.pop()));
+                continue;
+            }
+            if (task == BUILD_APPLY) {
+                final Term argument = results.pop();
+                results.push(new Apply(results.pop(), argument));
+                continue;
+            }
+
+            // Read the term wired to a port, going through any fans, brackets and croissants.
+            int from = tasks.pop();
+            int[] context = reads.pop();
+            while (true) {
+                if (++steps > limit) { return null; }
+
+                final int to = ports[from];
+                final int node = node(to);
+                final int level = levels[node];
+                final int kind = kinds[node];
+
+                if (kind == FAN && slot(to) == 0) {
+                    final int top = Contexts.at(context, level);
+                    if (!contexts.isPush(top)) { return null; }
+                    context = Contexts.with(context, level, contexts.rest(top));
+                    from = port(node, contexts.slot(top));
+                } else if (kind == FAN) {
+                    context = Contexts.with(context, level,
+                                            contexts.push(slot(to), Contexts.at(context, level)));
+                    from = port(node, 0);
+                } else if (kind == CROISSANT && slot(to) == 0) {
+                    if (Contexts.at(context, level) != Contexts.EMPTY) { return null; }
+                    context = Contexts.remove(context, level);
+                    from = port(node, 1);
+                } else if (kind == CROISSANT) {
+                    context = Contexts.insert(context, level);
+                    from = port(node, 0);
+                } else if (kind == BRACKET && slot(to) == 0) {
+                    final int top = Contexts.at(context, level);
+                    if (contexts.isPush(top)) { return null; }
+                    context = contexts.split(context, level);
+                    from = port(node, 1);
+                } else if (kind == BRACKET) {
+                    context = contexts.pair(context, level);
+                    from = port(node, 0);
+                } else if (kind == LAMBDA && slot(to) == 0) {
+                    functions.push(node);
+                    scopes.add(context);
+                    tasks.push(BUILD_LAMBDA);
+                    tasks.push(port(node, 2));
+                    tasks.push(READ);
+                    reads.push(context);
+                    break;
+                } else if (kind == LAMBDA && slot(to) == 1) {
+                    final int index = bound(functions, scopes, node, context);
+                    if (index < 0) { return null; }
+                    results.push(new Bound(index));
+                    break;
+                } else if (kind == APPLY && slot(to) == 2) {
+                    tasks.push(BUILD_APPLY);
+                    tasks.push(port(node, 1));
+                    tasks.push(READ);
+                    reads.push(context);
+                    tasks.push(port(node, 0));
+                    tasks.push(READ);
+                    reads.push(context);
+                    break;
+                } else if (kind == FREE) {
+                    results.push(new Free(names[node]));
+                    break;
+                } else {
+                    return null;
+                }
+            }
+        }
+
+        return results.pop();
+    }
+
+    private static final int READ = 0;
+    private static final int BUILD_LAMBDA = 1;
+    private static final int BUILD_APPLY = 2;
+
+    /**
+     * @return the de Bruijn index of a variable of the given function read in the given context,
+     *         or -1 if no function being read is that one in that context.
+     */
+    private int bound(final IntStack functions,
+                      final List<int[]> scopes,
+                      final int function,
+                      final int[] context)
+    {
+        for (int i = functions.size() - 1; i >= 0; --i) {
+            if (functions.get(i) == function
+                && Contexts.agree(scopes.get(i), context, levels[function]))
+            {
+                return functions.size() - 1 - i;
+            }
+        }
+        return -1;
+    }
+
+    private int newNode(final int kind, final String name, final int level) {
+        final int node;
+        if (!unused.isEmpty()) {
+            node = unused.pop();
+        } else {
+            if (size == kinds.length) { grow(); }
+            node = size++;
+        }
+
+        kinds[node] = kind;
+        levels[node] = level;
+        names[node] = name;
+        visited[node] = false;
+        walks[node] = 0;
+        for (int slot = 0; slot < 3; ++slot) {
+            ports[port(node, slot)] = port(node, slot);
+        }
+        return node;
+    }
+
+    private void discard(final int node) {
+        if (kinds[node] == ROOT) {
+            throw new UnexpectedIssueException("Discarded the root of an interaction net.");
+        }
+        kinds[node] = UNUSED;
+        names[node] = null;
+        unused.push(node);
+    }
+
+    private void grow() {
+        final int capacity = kinds.length * 2;
+        ports = Arrays.copyOf(ports, 3 * capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        names = Arrays.copyOf(names, capacity);
+        visited = Arrays.copyOf(visited, capacity);
+        walks = Arrays.copyOf(walks, capacity);
+    }
+
+    private void link(final int a, final int b) {
+        ports[a] = b;
+        ports[b] = a;
+    }
+
+    /** @return the number of auxiliary ports of nodes of the given kind. */
+    private static int auxiliaries(final int kind) {
+        if (kind == BRACKET || kind == CROISSANT) { return 1; }
+        return kind >= LAMBDA ? 2 : 0;
+    }
+
+    /** @return whether the kind is a function or an application, rather than a control node. */
+    private static boolean isTerm(final int kind) {
+        return kind == LAMBDA || kind == APPLY;
+    }
+
+    /** @return how far copies of a node move up a level when copied through the given kind. */
+    private static int offset(final int kind) {
+        if (kind == BRACKET) { return 1; }
+        return kind == CROISSANT ? -1 : 0;
+    }
+
+    private static int port(final int node, final int slot) {
+        return 3 * node + slot;
+    }
+
+    private static int node(final int port) {
+        return port / 3;
+    }
+
+    private static int slot(final int port) {
+        return port % 3;
+    }
+
+    /**
+     * The contexts of a read-back. A context is an array of levels, empty beyond its length, and
+     * each level is interned as an int: {@link #EMPTY}, a fan port pushed on a level, or a pair of
+     * levels.
+     */
+    private static class Contexts {
+        static final int EMPTY = 0;
+
+        // For each level, its fan port, or 0 for a pair, and the levels it is made of.
+        private final IntStack slots = new IntStack();
+        private final IntStack firsts = new IntStack();
+        private final IntStack seconds = new IntStack();
+        private final Map<Long, Integer> pushes = new HashMap<>();
+        private final Map<Long, Integer> pairs = new HashMap<>();
+
+        Contexts() {
+            slots.push(0);
+            firsts.push(EMPTY);
+            seconds.push(EMPTY);
+        }
+
+        static int at(final int[] context, final int level) {
+            return level < context.length ? context[level] : EMPTY;
+        }
+
+        /** @return whether the contexts have the same levels below the given level. */
+        static boolean agree(final int[] a, final int[] b, final int below) {
+            for (int level = 0; level < below; ++level) {
+                if (at(a, level) != at(b, level)) { return false; }
+            }
+            return true;
+        }
+
+        static int[] with(final int[] context, final int level, final int value) {
+            final int[] result = Arrays.copyOf(context, Math.max(context.length, level + 1));
+            result[level] = value;
+            return result;
+        }
+
+        static int[] insert(final int[] context, final int level) {
+            if (level >= context.length) { return context; }
+            final int[] result = new int[context.length + 1];
+            System.arraycopy(context, 0, result, 0, level);
+            System.arraycopy(context, level, result, level + 1, context.length - level);
+            return result;
+        }
+
+        static int[] remove(final int[] context, final int level) {
+            if (level >= context.length) { return context; }
+            final int[] result = new int[context.length - 1];
+            System.arraycopy(context, 0, result, 0, level);
+            System.arraycopy(context, level + 1, result, level, result.length - level);
+            return result;
+        }
+
+        boolean isPush(final int value) {
+            return slots.get(value) != 0;
+        }
+
+        int slot(final int value) {
+            return slots.get(value);
+        }
+
+        int rest(final int value) {
+            return firsts.get(value);
+        }
+
+        int push(final int slot, final int rest) {
+            return intern(pushes, (long) rest << 2 | slot, slot, rest, EMPTY);
+        }
+
+        /** @return the context with the given level and the next replaced by their pair. */
+        int[] pair(final int[] context, final int level) {
+            final int first = at(context, level);
+            final int second = at(context, level + 1);
+            final int value = first == EMPTY && second == EMPTY ? EMPTY
+                : intern(pairs, (long) first << 32 | second, 0, first, second);
+            return with(remove(context, level + 1), level, value);
+        }
+
+        /** @return the context with the pair at the given level split into two levels. */
+        int[] split(final int[] context, final int level) {
+            final int value = at(context, level);
+            return with(with(insert(context, level + 1), level, firsts.get(value)), level + 1,
+                        seconds.get(value));
+        }
+
+        private int intern(final Map<Long, Integer> values,
+                           final long key,
+                           final int slot,
+                           final int first,
+                           final int second)
+        {
+            final Integer value = values.get(key);
+            if (value != null) { return value; }
+
+            final int interned = slots.size();
+            slots.push(slot);
+            firsts.push(first);
+            seconds.push(second);
+            values.put(key, interned);
+            return interned;
+        }
+    }
+
+    /** A growable queue of ints, to avoid boxing. */
+    private static class IntQueue {
+        private int[] values = new int[16];
+        private int head = 0;
+        private int size = 0;
+
+        void add(final int value) {
+            if (size == values.length) {
+                final int[] grown = new int[size * 2];
+                System.arraycopy(values, head, grown, 0, size - head);
+                System.arraycopy(values, 0, grown, size - head, head);
+                values = grown;
+                head = 0;
+            }
+            values[(head + size++) % values.length] = value;
+        }
+
+        int remove() {
+            final int value = values[head];
+            head = (head + 1) % values.length;
+            --size;
+            return value;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    /** A growable stack of ints, to avoid boxing. */
+    private static class IntStack {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void push(final int value) {
+            if (size == values.length) { values = Arrays.copyOf(values, size * 2); }
+            values[size++] = value;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+
+        int get(final int index) {
+            return values[index];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package alonzo.eval;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.nameless.Term;
+import alonzo.common.Validate;
+
+/**
+ * {@link Evaluator} performing optimal reduction: the term is translated into an interaction net
+ * and reduced by Lamping's algorithm, in which a term used several times is shared rather than
+ * copied, and only copied incrementally as far as its uses differ. Terms such as repeated
+ * self-applications of Church numerals, whose reduction duplicates an exponential amount of work
+ * under other strategies, reduce in a polynomial number of interactions.
+ *
+ * Each interaction between two nodes, whether a beta reduction or a step of copying, counts as one
+ * step of the budget, so step counts can't be compared with other evaluators'. The net is reduced
+ * within half the step budget, so that if it runs out, the term can be evaluated again from the
+ * start by a fallback evaluator, within what is left of the budget. The same happens if the net
+ * deadlocks or cannot be read back consistently, neither of which a net built from a term should
+ * do.
+ * @see InteractionNet
+ */
+public class InteractionNetEvaluator extends Evaluator {
+
+    /** The default maximum number of nodes read back from a reduced net. */
+    public static final long DEFAULT_READ_BACK_LIMIT = 1L << 24;
+
+    private final Evaluator fallback;
+    private final long readBackLimit;
+
+    /** Constructs an InteractionNetEvaluator falling back on a call-by-need evaluator. */
+    public InteractionNetEvaluator() {
+        this(new KrivineEvaluator(KrivineEvaluator.Mode.CALL_BY_NEED));
+    }
+
+    public InteractionNetEvaluator(final Evaluator fallback) {
+        super();
+        this.fallback = Validate.notNull(fallback, "null fallback");
+        this.readBackLimit = DEFAULT_READ_BACK_LIMIT;
+    }
+
+    /**
+     * @param fallback The evaluator used when the net runs out of budget or cannot be read back.
+     * @param readBackLimit The maximum number of nodes read back from a reduced net, beyond which
+     *                      the net is assumed not to read back consistently.
+     * @param factory The factory to build the nodes of results through.
+     */
+    public InteractionNetEvaluator(final Evaluator fallback,
+                                   final long readBackLimit,
+                                   final NodeFactory factory)
+    {
+        super(factory);
+        Validate.isTrue(readBackLimit > 0, "non-positive readBackLimit (%d)", readBackLimit);
+        this.fallback = Validate.notNull(fallback, "null fallback");
+        this.readBackLimit = readBackLimit;
+    }
+
+    @Override
+    public Result evaluate(final ASTNode term, final Budget budget) {
+        final Meter meter = budget.start();
+        final InteractionNet net = InteractionNet.fromAST(Validate.notNull(term, "null term"));
+
+        final long limit = budget.maxSteps() == Long.MAX_VALUE ? Long.MAX_VALUE
+            : budget.maxSteps() / 2;
+        final StopReason reason = net.reduce(meter, limit);
+        final Term normalForm = reason == StopReason.NORMAL_FORM ? net.readBack(readBackLimit)
+            : null;
+        if (normalForm != null) {
+            return new Result(DeBruijn.toAST(normalForm, factory()), StopReason.NORMAL_FORM,
+                              meter.steps());
+        }
+
+        final Result result = fallback.evaluate(term, meter.remaining());
+        return new Result(result.term(), result.stopReason(), meter.steps() + result.steps());
+    }
+
+}
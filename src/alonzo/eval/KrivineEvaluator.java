@@ -0,0 +1,377 @@
+package alonzo.eval;
+
+import java.util.Stack;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.Var;
+import alonzo.ast.nameless.Apply;
+import alonzo.ast.nameless.Bound;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.nameless.Free;
+import alonzo.ast.nameless.Lambda;
+import alonzo.ast.nameless.Term;
+import alonzo.common.Validate;
+
+/**
+ * {@link Evaluator} based on the Krivine abstract machine, which performs call-by-name reduction
+ * without substitution. A term is paired with an environment binding its free variables to
+ * unevaluated arguments, so a beta reduction only extends an environment rather than copying the
+ * function's body.
+ *
+ * The machine reduces a term to weak head normal form. To reach the full normal form, as
+ * {@link NormalOrderEvaluator} does, the result is read back: a function is entered with its
+ * parameter bound to an opaque variable, and the arguments of a variable at the head are
+ * themselves reduced. Read-back produces a nameless {@link Term}, whose names are regenerated by
+ * {@link DeBruijn#toAST(Term, NodeFactory)}, so no renaming is needed along the way. Both the
+ * machine and the read-back keep their state on explicit stacks.
+ *
+ * In {@link Mode#CALL_BY_NAME} mode, reduction follows the same order as
+ * {@link NormalOrderEvaluator} and takes the same number of steps, but results are only
+ * alpha-equivalent to that evaluator's. In {@link Mode#CALL_BY_NEED} mode, each argument is a
+ * shared thunk: the first time it is reduced to a function, the thunk is overwritten with that
+ * function, so an argument used many times is only reduced once. Both modes reach the same normal
+ * form. When the budget is exhausted, the remaining state of the machine is read back without
+ * further reduction.
+ */
+public class KrivineEvaluator extends Evaluator {
+
+    /** How arguments are passed to functions. */
+    public enum Mode {
+
+        /** Arguments are reduced each time they are used. */
+        CALL_BY_NAME,
+
+        /** Arguments are reduced at most once, the first time they are used, and then shared. */
+        CALL_BY_NEED,
+
+    }
+
+    private final Mode mode;
+
+    public KrivineEvaluator() {
+        this(Mode.CALL_BY_NAME);
+    }
+
+    public KrivineEvaluator(final Mode mode) {
+        super();
+        this.mode = Validate.notNull(mode, "null mode");
+    }
+
+    public KrivineEvaluator(final NodeFactory factory) {
+        this(Mode.CALL_BY_NAME, factory);
+    }
+
+    public KrivineEvaluator(final Mode mode, final NodeFactory factory) {
+        super(factory);
+        this.mode = Validate.notNull(mode, "null mode");
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    @Override
+    public Result evaluate(final ASTNode term, final Budget budget) {
+        final Meter meter = budget.start();
+        final Stack<Task> tasks = new Stack<>();
+        final Stack<Term> results = new Stack<>();
+
+        tasks.push(Task.eval(Closure.of(term, null), 0));
+        while (!tasks.isEmpty()) {
+            final Task task = tasks.pop();
+            switch (task.kind()) {
+            case Task.EVAL:
+                if (meter.stopReason() != null) {
+                    results.push(quote(task.closure(), task.depth()));
+                } else {
+                    run(task.closure(), task.depth(), meter, tasks, results);
+                }
+                break;
+            case Task.LAMBDA:
+                results.push(new Lambda(task.hint(), results.pop()));
+                break;
+            default:
+                final Term[] arguments = new Term[task.depth()];
+                for (int i = arguments.length - 1; i >= 0; --i) {
+                    arguments[i] = results.pop();
+                }
+                Term spine = results.pop();
+                for (final Term argument : arguments) {
+                    spine = new Apply(spine, argument);
+                }
+                results.push(spine);
+                break;
+            }
+        }
+
+        final StopReason reason =
+            meter.stopReason() != null ? meter.stopReason() : StopReason.NORMAL_FORM;
+        return new Result(DeBruijn.toAST(results.pop(), factory()), reason, meter.steps());
+    }
+
+    /**
+     * Runs the machine on the given closure until it reaches weak head normal form, then schedules
+     * the read-back of that form. {@code depth} is the number of functions entered by read-back
+     * so far, which is the level the next opaque variable gets.
+     *
+     * In call-by-need mode, entering a thunk records it along with the height of the spine at the
+     * time. Once the thunk's term is reduced to a function with no more arguments on the spine
+     * than at that height, the thunk is updated with the function. A thunk whose reduction ends at
+     * a variable instead is left as it was, to be reduced again should it be used again.
+     */
+    private void run(final Closure closure,
+                     final int depth,
+                     final Meter meter,
+                     final Stack<Task> tasks,
+                     final Stack<Term> results)
+    {
+        final Stack<Closure> spine = new Stack<>();
+        final Stack<Closure> thunks = new Stack<>();
+        final Stack<Integer> heights = new Stack<>();
+        ASTNode term = closure.term();
+        Env env = closure.env();
+        enter(closure, spine, thunks, heights);
+
+        while (true) {
+            if (term.isApp()) {
+                spine.push(Closure.of(((App) term).argument(), env));
+                term = ((App) term).function();
+            } else if (term.isFun()) {
+                final Fun fun = (Fun) term;
+                while (!heights.isEmpty() && heights.peek() == spine.size()) {
+                    heights.pop();
+                    thunks.pop().update(fun, env);
+                }
+
+                if (spine.isEmpty()) {
+                    final Env entered = new Env(fun.parameter(), Closure.level(depth), env);
+                    tasks.push(Task.lambda(fun.parameter().name()));
+                    tasks.push(Task.eval(Closure.of(fun.body(), entered), depth + 1));
+                    return;
+                }
+                if (!meter.step()) {
+                    results.push(quote(Closure.of(term, env), depth));
+                    break;
+                }
+                env = new Env(fun.parameter(), spine.pop(), env);
+                term = fun.body();
+            } else {
+                final Closure value = Env.lookup(env, (Var) term);
+                if (value == null) {
+                    results.push(new Free(((Var) term).name()));
+                    break;
+                }
+                if (value.term() == null) {
+                    results.push(new Bound(depth - value.level() - 1));
+                    break;
+                }
+                enter(value, spine, thunks, heights);
+                term = value.term();
+                env = value.env();
+            }
+        }
+
+        // The head is on the results stack; read back the arguments it is applied to, in order.
+        tasks.push(Task.spine(spine.size()));
+        for (int i = 0; i < spine.size(); ++i) {
+            tasks.push(Task.eval(spine.get(i), depth));
+        }
+    }
+
+    /** Records the given closure as a thunk to update, if it is one and sharing is enabled. */
+    private void enter(final Closure closure,
+                       final Stack<Closure> spine,
+                       final Stack<Closure> thunks,
+                       final Stack<Integer> heights)
+    {
+        if (mode == Mode.CALL_BY_NEED && !closure.term().isFun()) {
+            thunks.push(closure);
+            heights.push(spine.size());
+        }
+    }
+
+    /** @return the nameless form of the given closure, without reducing it. */
+    private static Term quote(final Closure root, final int depth) {
+        if (root.term() == null) { return new Bound(depth - root.level() - 1); }
+
+        final Stack<Closure> pending = new Stack<>();
+        final Stack<Integer> depths = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+        final Stack<Term> results = new Stack<>();
+
+        pending.push(root);
+        depths.push(depth);
+        expanded.push(false);
+
+        while (!pending.isEmpty()) {
+            final Closure closure = pending.pop();
+            final int level = depths.pop();
+            final ASTNode term = closure.term();
+
+            if (expanded.pop()) {
+                if (term.isFun()) {
+                    results.push(new Lambda(((Fun) term).parameter().name(), results.pop()));
+                } else {
+                    final Term argument = results.pop();
+                    results.push(new Apply(results.pop(), argument));
+                }
+            } else if (term.isVar()) {
+                final Closure value = Env.lookup(closure.env(), (Var) term);
+                if (value == null) {
+                    results.push(new Free(((Var) term).name()));
+                } else if (value.term() == null) {
+                    results.push(new Bound(level - value.level() - 1));
+                } else {
+                    pending.push(value);
+                    depths.push(level);
+                    expanded.push(false);
+                }
+            } else {
+                pending.push(closure);
+                depths.push(level);
+                expanded.push(true);
+                if (term.isFun()) {
+                    final Fun fun = (Fun) term;
+                    final Env env = new Env(fun.parameter(), Closure.level(level), closure.env());
+                    pending.push(Closure.of(fun.body(), env));
+                    depths.push(level + 1);
+                    expanded.push(false);
+                } else {
+                    pending.push(Closure.of(((App) term).argument(), closure.env()));
+                    depths.push(level);
+                    expanded.push(false);
+                    pending.push(Closure.of(((App) term).function(), closure.env()));
+                    depths.push(level);
+                    expanded.push(false);
+                }
+            }
+        }
+
+        return results.pop();
+    }
+
+    /**
+     * A term paired with the environment binding its free variables, or an opaque variable
+     * standing for the parameter of a function entered during read-back. Opaque variables have no
+     * term, and are identified by the number of functions enclosing their own. In call-by-need
+     * mode, the closure of an argument is a thunk, updated in place with the function it reduces
+     * to.
+     */
+    private static class Closure {
+        private ASTNode term;
+        private Env env;
+        private final int level;
+
+        public static Closure of(final ASTNode term, final Env env) {
+            return new Closure(term, env, -1);
+        }
+
+        public static Closure level(final int level) {
+            return new Closure(null, null, level);
+        }
+
+        private Closure(final ASTNode term, final Env env, final int level) {
+            this.term = term;
+            this.env = env;
+            this.level = level;
+        }
+
+        /** @return the closure's term, or null for an opaque variable. */
+        public ASTNode term() {
+            return term;
+        }
+
+        public Env env() {
+            return env;
+        }
+
+        public int level() {
+            return level;
+        }
+
+        /** Overwrites this thunk with the function it reduced to. */
+        public void update(final Fun fun, final Env funEnv) {
+            this.term = fun;
+            this.env = funEnv;
+        }
+    }
+
+    /**
+     * An immutable environment, as a linked list of bindings from variable names to closures.
+     * Extending an environment shares it, so closures capture environments in O(1). Names from the
+     * same {@link alonzo.ast.SymbolTable} are compared by symbol.
+     */
+    private static class Env {
+        private final Var name;
+        private final Closure value;
+        private final Env next;
+
+        Env(final Var name, final Closure value, final Env next) {
+            this.name = name;
+            this.value = value;
+            this.next = next;
+        }
+
+        /** @return the closure bound to the given variable, or null if it is free. */
+        static Closure lookup(final Env env, final Var var) {
+            for (Env e = env; e != null; e = e.next) {
+                if (e.name.sameName(var)) { return e.value; }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A pending piece of read-back work: reducing a closure, wrapping the last result in a
+     * function, or applying a head to the results for its arguments.
+     */
+    private static class Task {
+        static final int EVAL = 0;
+        static final int LAMBDA = 1;
+        static final int SPINE = 2;
+
+        private final int kind;
+        private final Closure closure;
+        private final int depth;
+        private final String hint;
+
+        public static Task eval(final Closure closure, final int depth) {
+            return new Task(EVAL, closure, depth, null);
+        }
+
+        public static Task lambda(final String hint) {
+            return new Task(LAMBDA, null, 0, hint);
+        }
+
+        /** The argument count is kept as the task's depth. */
+        public static Task spine(final int arguments) {
+            return new Task(SPINE, null, arguments, null);
+        }
+
+        private Task(final int kind, final Closure closure, final int depth, final String hint) {
+            this.kind = kind;
+            this.closure = closure;
+            this.depth = depth;
+            this.hint = hint;
+        }
+
+        public int kind() {
+            return kind;
+        }
+
+        public Closure closure() {
+            return closure;
+        }
+
+        public int depth() {
+            return depth;
+        }
+
+        public String hint() {
+            return hint;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package alonzo.eval;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+import java.util.TreeSet;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.nameless.Apply;
+import alonzo.ast.nameless.Bound;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.nameless.Free;
+import alonzo.ast.nameless.Lambda;
+import alonzo.ast.nameless.Term;
+import alonzo.common.Validate;
+
+/**
+ * Lambda lifting: turns a term into a {@link Program} of {@link Supercombinator}s and a main
+ * expression, none of which contain functions. Each chain of nested functions is lifted out,
+ * innermost first, into a supercombinator taking the variables it captures as extra leading
+ * parameters, and is replaced by the application of that supercombinator to those variables. The
+ * captured variables are passed in the order they were bound, outermost first.
+ *
+ * Supercombinators with alpha-equivalent definitions are lifted only once, so a function written
+ * out many times in a term becomes a single supercombinator. They are named by a prefix of
+ * {@code $} characters long enough not to be a prefix of any free variable of the term, followed
+ * by a number. Traversals use explicit stacks so as not to blow the function call stack on deep
+ * terms.
+ */
+public class LambdaLifter {
+
+    // Prevent this class from be instantiated.
+    private LambdaLifter() {}
+
+    /** @see #lift(Term) */
+    public static Program lift(final ASTNode root) {
+        return lift(DeBruijn.toNameless(Validate.notNull(root, "null root")));
+    }
+
+    /**
+     * @param root The term to lift.
+     * @return the supercombinators lifted out of the term, and the main expression calling them.
+     */
+    public static Program lift(final Term root) {
+        final Lifting lifting = new Lifting(prefix(Validate.notNull(root, "null root")));
+        final Stack<Term> pending = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+        final Stack<Term> results = new Stack<>();
+
+        pending.push(root);
+        expanded.push(false);
+        while (!pending.isEmpty()) {
+            final Term term = pending.pop();
+
+            if (!expanded.pop()) {
+                if (term.isBound() || term.isFree()) {
+                    results.push(term);
+                    continue;
+                }
+
+                // Revisit the term once its children are done.
+                pending.push(term);
+                expanded.push(true);
+                if (term.isLambda()) {
+                    // The whole chain of functions is lifted at once.
+                    Term body = term;
+                    while (body.isLambda()) {
+                        lifting.hints.add(((Lambda) body).hint());
+                        body = ((Lambda) body).body();
+                    }
+                    pending.push(body);
+                } else {
+                    pending.push(((Apply) term).argument());
+                    expanded.push(false);
+                    pending.push(((Apply) term).function());
+                }
+                expanded.push(false);
+            } else if (term.isLambda()) {
+                int parameters = 0;
+                for (Term body = term; body.isLambda(); body = ((Lambda) body).body()) {
+                    ++parameters;
+                }
+                results.push(lifting.lift(results.pop(), parameters));
+            } else {
+                final Term argument = results.pop();
+                results.push(new Apply(results.pop(), argument));
+            }
+        }
+
+        return new Program(lifting.combinators, results.pop());
+    }
+
+    /** @return a run of $ characters that no free variable of the given term starts with. */
+    private static String prefix(final Term root) {
+        final List<String> names = new ArrayList<>();
+        final Stack<Term> pending = new Stack<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final Term term = pending.pop();
+            if (term.isFree()) {
+                names.add(((Free) term).name());
+            } else if (term.isLambda()) {
+                pending.push(((Lambda) term).body());
+            } else if (term.isApply()) {
+                pending.push(((Apply) term).argument());
+                pending.push(((Apply) term).function());
+            }
+        }
+
+        String prefix = "$";
+        for (final String name : names) {
+            while (name.startsWith(prefix)) {
+                prefix += "$";
+            }
+        }
+        return prefix;
+    }
+
+    /** The supercombinators lifted out of a term, and the main expression calling them. */
+    public static class Program {
+        private final List<Supercombinator> combinators;
+        private final Term main;
+
+        private Program(final List<Supercombinator> combinators, final Term main) {
+            this.combinators = Collections.unmodifiableList(combinators);
+            this.main = main;
+        }
+
+        /**
+         * @return the supercombinators, each of which only refers to those before it, in the order
+         *         they were lifted.
+         */
+        public List<Supercombinator> combinators() {
+            return combinators;
+        }
+
+        /** @return the lifted term, a closed term containing no functions. */
+        public Term main() {
+            return main;
+        }
+    }
+
+    /** The state of a lifting: the supercombinators so far and the functions enclosing it. */
+    private static class Lifting {
+        private final String prefix;
+        private final List<Supercombinator> combinators;
+        private final Map<Term, Supercombinator> definitions;
+        // The parameter name hint of each enclosing function, outermost first.
+        private final List<String> hints;
+
+        private Lifting(final String prefix) {
+            this.prefix = prefix;
+            this.combinators = new ArrayList<>();
+            this.definitions = new HashMap<>();
+            this.hints = new ArrayList<>();
+        }
+
+        /**
+         * Lifts the innermost chain of functions, whose body has been lifted already.
+         * @param body The lifted body of the chain.
+         * @param parameters The number of functions in the chain.
+         * @return the application of the supercombinator to the variables the chain captures.
+         */
+        private Term lift(final Term body, final int parameters) {
+            // The De Bruijn indices, from outside the chain, of the variables it captures.
+            final TreeSet<Integer> escaping = new TreeSet<>();
+            final Stack<Term> pending = new Stack<>();
+            pending.push(body);
+            while (!pending.isEmpty()) {
+                final Term term = pending.pop();
+                if (term.isBound() && ((Bound) term).index() >= parameters) {
+                    escaping.add(((Bound) term).index() - parameters);
+                } else if (term.isApply()) {
+                    pending.push(((Apply) term).argument());
+                    pending.push(((Apply) term).function());
+                }
+            }
+
+            // Outermost first, so the highest index is the first parameter.
+            final List<Integer> captured = new ArrayList<>(escaping.descendingSet());
+            final Map<Integer, Integer> reindexed = new HashMap<>();
+            for (int i = 0; i < captured.size(); ++i) {
+                reindexed.put(captured.get(i) + parameters, parameters + captured.size() - 1 - i);
+            }
+
+            final int inner = hints.size() - parameters;
+            Term definition = captured.isEmpty() ? body : reindex(body, reindexed);
+            for (int i = hints.size() - 1; i >= inner; --i) {
+                definition = new Lambda(hints.get(i), definition);
+            }
+            for (int i = captured.size() - 1; i >= 0; --i) {
+                definition = new Lambda(hints.get(inner - 1 - captured.get(i)), definition);
+            }
+            hints.subList(inner, hints.size()).clear();
+
+            Supercombinator combinator = definitions.get(definition);
+            if (combinator == null) {
+                combinator = new Supercombinator(prefix + combinators.size(), captured.size(),
+                                                 definition);
+                combinators.add(combinator);
+                definitions.put(definition, combinator);
+            }
+
+            Term call = new Free(combinator.name());
+            for (final int index : captured) {
+                call = new Apply(call, new Bound(index));
+            }
+            return call;
+        }
+
+        /** @return the given function-free term with bound variables renumbered as mapped. */
+        private static Term reindex(final Term root, final Map<Integer, Integer> indices) {
+            final Stack<Term> pending = new Stack<>();
+            final Stack<Boolean> expanded = new Stack<>();
+            final Stack<Term> results = new Stack<>();
+
+            pending.push(root);
+            expanded.push(false);
+            while (!pending.isEmpty()) {
+                final Term term = pending.pop();
+
+                if (expanded.pop()) {
+                    final Term argument = results.pop();
+                    results.push(new Apply(results.pop(), argument));
+                } else if (term.isApply()) {
+                    pending.push(term);
+                    expanded.push(true);
+                    pending.push(((Apply) term).argument());
+                    expanded.push(false);
+                    pending.push(((Apply) term).function());
+                    expanded.push(false);
+                } else if (term.isBound() && indices.containsKey(((Bound) term).index())) {
+                    results.push(new Bound(indices.get(((Bound) term).index())));
+                } else {
+                    results.push(term);
+                }
+            }
+
+            return results.pop();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package alonzo.eval;
+
+import java.time.Duration;
+
+/**
+ * Tracks a single evaluation's usage of a {@link Budget}. Evaluators call {@link #step()} before
+ * each reduction step and stop as soon as it returns false. The clock is only read every
+ * {@value #CLOCK_INTERVAL} steps, so metering stays cheap next to the steps themselves.
+ *
+ * A Meter is not thread-safe.
+ */
+public class Meter {
+
+    static final int CLOCK_INTERVAL = 256;
+
+    private final long maxSteps;
+    private final long timeoutNanos;
+    private final long startNanos;
+
+    private long steps;
+    private StopReason stopReason;
+
+    Meter(final Budget budget) {
+        this.maxSteps = budget.maxSteps();
+        this.timeoutNanos = timeoutNanos(budget);
+        this.startNanos = System.nanoTime();
+        this.steps = 0;
+        this.stopReason = null;
+    }
+
+    /**
+     * Accounts for one reduction step, if the budget allows it.
+     * @return true if the step may be taken, false if the evaluation must stop.
+     * @see #stopReason()
+     */
+    public boolean step() {
+        if (stopReason != null) { return false; }
+
+        if (steps >= maxSteps) {
+            stopReason = StopReason.STEP_BUDGET_EXHAUSTED;
+            return false;
+        }
+        if (steps % CLOCK_INTERVAL == 0 && System.nanoTime() - startNanos >= timeoutNanos) {
+            stopReason = StopReason.DEADLINE_EXCEEDED;
+            return false;
+        }
+
+        ++steps;
+        return true;
+    }
+
+    /** @return the number of steps taken so far. */
+    public long steps() {
+        return steps;
+    }
+
+    /**
+     * @return a Budget for the steps and time left, for handing the rest of an evaluation over to
+     *         another evaluator.
+     */
+    public Budget remaining() {
+        final long steps = maxSteps == Long.MAX_VALUE ? maxSteps : maxSteps - this.steps;
+        if (timeoutNanos == Long.MAX_VALUE) {
+            return steps == Long.MAX_VALUE ? Budget.unlimited() : Budget.ofSteps(steps);
+        }
+
+        final long left = Math.max(0, timeoutNanos - (System.nanoTime() - startNanos));
+        return Budget.of(steps, Duration.ofNanos(left));
+    }
+
+    /** @return why {@link #step()} last returned false, or null if it never has. */
+    public StopReason stopReason() {
+        return stopReason;
+    }
+
+    /**
+     * @return the budget's timeout in nanoseconds, or {@code Long.MAX_VALUE} if it has none or its
+     *         timeout is too long to count in nanoseconds.
+     */
+    static long timeoutNanos(final Budget budget) {
+        if (!budget.hasTimeout()) { return Long.MAX_VALUE; }
+        try {
+            return budget.timeout().toNanos();
+        } catch (final ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+}
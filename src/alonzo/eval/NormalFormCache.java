@@ -0,0 +1,363 @@
+package alonzo.eval;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import alonzo.ast.ASTNode;
+import alonzo.common.Validate;
+
+/**
+ * Thread-safe cache of the outcomes of evaluations, keyed by term up to alpha-equivalence through
+ * {@link ASTNode#equals(Object)}. For each term, it holds either its normal form and the number of
+ * steps taken to reach it, or the largest step budget known to be exhausted before reaching one.
+ * Either answers any evaluation of the term under a step budget: reaching the normal form if it
+ * was reached within the budget, and otherwise exhausting the budget with the term itself as the
+ * partial result. Evaluations stopped by their deadline, or before a full normal form, are not
+ * cached. Step counts depend on the evaluator, so a cache should only be shared between evaluators
+ * counting steps the same way.
+ *
+ * The cache is bounded by the total {@link ASTNode#size()} of the terms it holds, keys included,
+ * rather than by its number of entries. Eviction follows a segmented LRU policy: new entries go to
+ * a probationary segment, and are promoted to a protected segment of up to
+ * {@value #PROTECTED_PERCENT}% of the capacity when used again. Entries demoted from the protected
+ * segment go back to the probationary one, and the least recently used probationary entries are
+ * evicted first, so a burst of terms evaluated once cannot flush out those used repeatedly.
+ *
+ * Lookups go through a concurrent map; only the bookkeeping of the segments is done under a lock,
+ * and takes constant time per operation outside evictions. Lookups don't take the lock: hits are
+ * recorded in buffers striped by thread, and replayed onto the segments in a batch by the next
+ * write, or by the lookup that finds its buffer full. Hits are dropped while a buffer is full, so
+ * recency is approximate under heavy contention.
+ * @see CachingEvaluator
+ */
+public class NormalFormCache {
+
+    static final int PROTECTED_PERCENT = 80;
+
+    /** The hits a read buffer holds before they are replayed onto the segments. */
+    static final int READ_BUFFER_SIZE = 16;
+
+    /** The number of read buffers: a power of two at least the number of processors, up to 64. */
+    private static final int READ_BUFFERS =
+        Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final long maxNodes;
+    private final long maxProtectedNodes;
+    private final ConcurrentHashMap<ASTNode, Entry> entries;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    // Guards the segments: circular lists around a sentinel, the least recently used entry first.
+    private final Object lock;
+    private final Entry probation;
+    private final Entry protectedSegment;
+    private long probationNodes;
+    private long protectedNodes;
+
+    private final ReadBuffer[] readBuffers;
+    private final AtomicBoolean draining;
+
+    /** @param maxNodes The largest total size of the terms held, keys and normal forms alike. */
+    public NormalFormCache(final long maxNodes) {
+        Validate.isTrue(maxNodes > 0, "non-positive maxNodes (%d)", maxNodes);
+        this.maxNodes = maxNodes;
+        this.maxProtectedNodes = maxNodes / 100 * PROTECTED_PERCENT
+                                 + maxNodes % 100 * PROTECTED_PERCENT / 100;
+        this.entries = new ConcurrentHashMap<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.lock = new Object();
+        this.readBuffers = new ReadBuffer[READ_BUFFERS];
+        for (int i = 0; i < READ_BUFFERS; ++i) {
+            readBuffers[i] = new ReadBuffer();
+        }
+        this.draining = new AtomicBoolean();
+        this.probation = Entry.sentinel();
+        this.protectedSegment = Entry.sentinel();
+        this.probationNodes = 0;
+        this.protectedNodes = 0;
+    }
+
+    /**
+     * @param term The term to evaluate.
+     * @param budget The budget it is to be evaluated under.
+     * @return the result of evaluating the term under the budget, or null if it isn't known.
+     */
+    public Result lookup(final ASTNode term, final Budget budget) {
+        Validate.notNull(term, "null term");
+        Validate.notNull(budget, "null budget");
+
+        final Entry entry = entries.get(term);
+        final Result result = entry != null ? entry.answer(term, budget.maxSteps()) : null;
+        if (result == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        final int stripe = (int) Thread.currentThread().getId() & (READ_BUFFERS - 1);
+        if (!readBuffers[stripe].offer(entry)) { tryDrainReadBuffers(); }
+        return result;
+    }
+
+    /**
+     * Caches the outcome of an evaluation, if it reached the normal form or exhausted its step
+     * budget, and if the terms involved fit in the cache.
+     * @param term The term evaluated.
+     * @param result The result of evaluating it.
+     */
+    public void record(final ASTNode term, final Result result) {
+        Validate.notNull(term, "null term");
+        Validate.notNull(result, "null result");
+
+        final Entry entry;
+        if (result.isNormalForm()) {
+            entry = new Entry(term, result.term(), result.steps());
+        } else if (result.stopReason() == StopReason.STEP_BUDGET_EXHAUSTED) {
+            entry = new Entry(term, null, result.steps());
+        } else {
+            return;
+        }
+        if (entry.weight > maxNodes) { return; }
+
+        synchronized (lock) {
+            drainReadBuffers();
+            final Entry previous = entries.get(term);
+            if (previous != null) {
+                // Keep whichever tells more: a normal form, or the larger exhausted budget.
+                if (previous.normalForm != null
+                    || (entry.normalForm == null && previous.steps >= entry.steps))
+                {
+                    return;
+                }
+                unlink(previous);
+            }
+
+            entries.put(term, entry);
+            link(entry, probation);
+            evict();
+        }
+    }
+
+    /** Removes every entry, leaving the counters as they are. */
+    public void clear() {
+        synchronized (lock) {
+            drainReadBuffers();
+            while (probation.next != probation) {
+                unlink(probation.next);
+            }
+            while (protectedSegment.next != protectedSegment) {
+                unlink(protectedSegment.next);
+            }
+            entries.clear();
+        }
+    }
+
+    /** @return the number of lookups answered. */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /** @return the number of lookups left unanswered. */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /** @return the number of entries evicted to make room for others. */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /** @return the number of entries held. */
+    public int size() {
+        return entries.size();
+    }
+
+    /** @return the total size of the terms held. */
+    public long nodes() {
+        synchronized (lock) {
+            return probationNodes + protectedNodes;
+        }
+    }
+
+    public long maxNodes() {
+        return maxNodes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NormalFormCache(entries=%d, nodes=%d/%d, hits=%d, misses=%d, "
+                             + "evictions=%d)", size(), nodes(), maxNodes, hits(), misses(),
+                             evictions());
+    }
+
+    /** Replays the buffered hits, unless another thread already is. */
+    private void tryDrainReadBuffers() {
+        if (!draining.compareAndSet(false, true)) { return; }
+        try {
+            synchronized (lock) {
+                drainReadBuffers();
+            }
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    /** Replays the buffered hits onto the segments. Called while holding the lock. */
+    private void drainReadBuffers() {
+        for (final ReadBuffer buffer : readBuffers) {
+            for (Entry entry = buffer.poll(); entry != null; entry = buffer.poll()) {
+                // Entries evicted or replaced since their hit are no longer linked.
+                if (entry.segment != null) { touch(entry); }
+            }
+        }
+    }
+
+    /** Marks a held entry as the most recently used, promoting it if it was on probation. */
+    private void touch(final Entry entry) {
+        unlink(entry);
+        link(entry, protectedSegment);
+
+        // Demote the least recently used protected entries beyond the protected segment's share.
+        while (protectedNodes > maxProtectedNodes && protectedSegment.next != entry) {
+            final Entry demoted = protectedSegment.next;
+            unlink(demoted);
+            link(demoted, probation);
+        }
+    }
+
+    /** Evicts the least recently used entries until the cache is within its capacity. */
+    private void evict() {
+        while (probationNodes + protectedNodes > maxNodes) {
+            final Entry victim = probation.next != probation ? probation.next
+                                                             : protectedSegment.next;
+            unlink(victim);
+            entries.remove(victim.key, victim);
+            evictions.increment();
+        }
+    }
+
+    /** Appends an entry to the given segment, as its most recently used. */
+    private void link(final Entry entry, final Entry segment) {
+        entry.segment = segment;
+        entry.prev = segment.prev;
+        entry.next = segment;
+        segment.prev.next = entry;
+        segment.prev = entry;
+        if (segment == probation) {
+            probationNodes += entry.weight;
+        } else {
+            protectedNodes += entry.weight;
+        }
+    }
+
+    private void unlink(final Entry entry) {
+        if (entry.segment == probation) {
+            probationNodes -= entry.weight;
+        } else {
+            protectedNodes -= entry.weight;
+        }
+        entry.prev.next = entry.next;
+        entry.next.prev = entry.prev;
+        entry.prev = null;
+        entry.next = null;
+        entry.segment = null;
+    }
+
+    /**
+     * A bounded buffer of the entries hit by lookups, filled without locking by any number of
+     * threads, and emptied by one at a time while holding the cache's lock.
+     */
+    private static class ReadBuffer {
+        private final AtomicReferenceArray<Entry> slots;
+        private final AtomicLong writes;
+        private volatile long reads;
+
+        private ReadBuffer() {
+            this.slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+            this.writes = new AtomicLong();
+        }
+
+        /** @return false if the hit was dropped, as the buffer is full or another thread raced. */
+        private boolean offer(final Entry entry) {
+            final long tail = writes.get();
+            if (tail - reads >= READ_BUFFER_SIZE) { return false; }
+            if (!writes.compareAndSet(tail, tail + 1)) { return false; }
+            slots.lazySet((int) (tail & (READ_BUFFER_SIZE - 1)), entry);
+            return true;
+        }
+
+        /**
+         * @return the oldest hit buffered, or null if there is none yet. A hit whose slot was
+         *         claimed but not yet filled is left for a later drain.
+         */
+        private Entry poll() {
+            final long head = reads;
+            if (head == writes.get()) { return null; }
+            final int index = (int) (head & (READ_BUFFER_SIZE - 1));
+            final Entry entry = slots.get(index);
+            if (entry == null) { return null; }
+            slots.lazySet(index, null);
+            reads = head + 1;
+            return entry;
+        }
+    }
+
+    /**
+     * The outcome cached for a term: its normal form and the steps taken to reach it, or, if the
+     * normal form is null, a number of steps taken without reaching one.
+     */
+    private static class Entry {
+        private final ASTNode key;
+        private final ASTNode normalForm;
+        private final long steps;
+        private final long weight;
+
+        // The segment the entry is linked in, null once it is not, and its neighbours there.
+        private Entry segment;
+        private Entry prev;
+        private Entry next;
+
+        private Entry(final ASTNode key, final ASTNode normalForm, final long steps) {
+            this.key = key;
+            this.normalForm = normalForm;
+            this.steps = steps;
+            final long size = key.size() + (normalForm != null ? normalForm.size() : 0);
+            this.weight = size < 0 ? Long.MAX_VALUE : size;
+        }
+
+        private Entry() {
+            this.key = null;
+            this.normalForm = null;
+            this.steps = 0;
+            this.weight = 0;
+        }
+
+        private static Entry sentinel() {
+            final Entry sentinel = new Entry();
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        /**
+         * @return the result of evaluating the given term, alpha-equivalent to the key, within the
+         *         given number of steps, or null if it isn't known.
+         */
+        private Result answer(final ASTNode term, final long maxSteps) {
+            if (normalForm != null && steps <= maxSteps) {
+                return new Result(normalForm, StopReason.NORMAL_FORM, steps);
+            }
+            if (normalForm != null || maxSteps <= steps) {
+                return new Result(term, StopReason.STEP_BUDGET_EXHAUSTED, maxSteps);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package alonzo.eval;
+
+import alonzo.ast.NodeFactory;
+
+/**
+ * {@link Evaluator} performing normal-order beta reduction: the leftmost, outermost redex is always
+ * contracted first, by capture-avoiding substitution. Normal order finds a term's normal form
+ * whenever it has one.
+ * @see BuiltinStrategy#NORMAL_ORDER
+ */
+public class NormalOrderEvaluator extends StrategyEvaluator {
+
+    public NormalOrderEvaluator() {
+        super(BuiltinStrategy.NORMAL_ORDER);
+    }
+
+    public NormalOrderEvaluator(final NodeFactory factory) {
+        super(BuiltinStrategy.NORMAL_ORDER, factory);
+    }
+
+}
@@ -0,0 +1,438 @@
+package alonzo.eval;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.Var;
+import alonzo.common.Validate;
+
+/**
+ * {@link Evaluator} performing normal-order reduction on a {@link ForkJoinPool}. A term is first
+ * reduced to head normal form, {@code λx1...xn.(h a1 ... am)} with {@code h} a variable, by
+ * contracting its head redex until there is none. Nothing can then reduce the head away, so the
+ * arguments {@code a1 ... am} are independent: each is normalized in the same way, and those of
+ * at least {@code threshold} nodes are forked as tasks of their own, for idle workers to steal.
+ *
+ * Only redexes normal order would contract are ever contracted, so the normal form is found
+ * whenever there is one, and the number of steps taken to reach it is the same as
+ * {@link NormalOrderEvaluator}'s. The step budget is shared by all tasks, which reserve steps from
+ * it a few at a time; a task finding none left waits for those reserved by other tasks, so the
+ * budget is only exhausted once every one of its steps has been taken. Then every task stops and
+ * the partial result depends on how far each task had got, so unlike the result of a complete
+ * evaluation it may differ between runs.
+ *
+ * Tasks build nodes concurrently. A plain {@link NodeFactory} is used by all tasks as it is, as its
+ * {@link alonzo.ast.SymbolTable} is thread-safe, while building nodes through any other factory is
+ * synchronized on the factory, so plain factories scale best.
+ */
+public class ParallelEvaluator extends Evaluator {
+
+    /** The default size, in nodes, from which an argument is normalized in a task of its own. */
+    public static final int DEFAULT_THRESHOLD = 1 << 12;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /** Constructs a ParallelEvaluator running on the common pool. */
+    public ParallelEvaluator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    public ParallelEvaluator(final ForkJoinPool pool, final int threshold) {
+        super();
+        this.pool = Validate.notNull(pool, "null pool");
+        this.threshold = validThreshold(threshold);
+    }
+
+    /**
+     * @param pool The pool to run tasks on.
+     * @param threshold The size, in nodes, from which an argument is normalized in a task of its
+     *                  own.
+     * @param factory The factory to build the nodes of results through.
+     */
+    public ParallelEvaluator(final ForkJoinPool pool,
+                             final int threshold,
+                             final NodeFactory factory)
+    {
+        super(factory);
+        this.pool = Validate.notNull(pool, "null pool");
+        this.threshold = validThreshold(threshold);
+    }
+
+    @Override
+    public Result evaluate(final ASTNode term, final Budget budget) {
+        Validate.notNull(term, "null term");
+
+        final SharedMeter meter = new SharedMeter(budget);
+        final NodeFactory factory = factory().getClass() == NodeFactory.class
+                                    ? factory() : new ConcurrentFactory(factory());
+        final ASTNode result =
+            pool.invoke(new Normalize(term, meter, factory, new FreshNames(factory), threshold));
+
+        final StopReason reason =
+            meter.stopReason() != null ? meter.stopReason() : StopReason.NORMAL_FORM;
+        return new Result(result, reason, meter.steps());
+    }
+
+    private static int validThreshold(final int threshold) {
+        Validate.isTrue(threshold > 0, "non-positive threshold (%d)", threshold);
+        return threshold;
+    }
+
+    /** @return true if the given term has at least {@code threshold} nodes. */
+    private static boolean isLarge(final ASTNode root, final int threshold) {
+        return root.size() >= threshold;
+    }
+
+    /**
+     * Normalizes a term, keeping its state on an explicit stack of head normal forms whose
+     * arguments are being normalized. Of the large arguments of a head normal form, all but the
+     * last are forked; the last is normalized along with the small ones by this task, which then
+     * joins the forked ones.
+     */
+    private static class Normalize extends RecursiveTask<ASTNode> {
+        private static final long serialVersionUID = 1L;
+
+        private final ASTNode root;
+        private final SharedMeter meter;
+        private final NodeFactory factory;
+        private final FreshNames names;
+        private final int threshold;
+
+        Normalize(final ASTNode root,
+                  final SharedMeter meter,
+                  final NodeFactory factory,
+                  final FreshNames names,
+                  final int threshold)
+        {
+            this.root = root;
+            this.meter = meter;
+            this.factory = factory;
+            this.names = names;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected ASTNode compute() {
+            final SharedMeter.Local local = meter.local();
+            final Stack<Frame> frames = new Stack<>();
+
+            try {
+                ASTNode term = root;
+                while (true) {
+                    if (term != null) {
+                        frames.push(headNormalize(term, local));
+                        term = null;
+                    }
+
+                    final Frame frame = frames.peek();
+                    if (frame.next < frame.arguments.length) {
+                        final int i = frame.next++;
+                        if (frame.forks[i] == null) {
+                            if (local.stopped()) {
+                                frame.results[i] = frame.arguments[i];
+                            } else {
+                                term = frame.arguments[i];
+                            }
+                        }
+                        continue;
+                    }
+
+                    frames.pop();
+                    // Steps this task holds while waiting for its forks could be the ones they
+                    // are waiting for.
+                    if (frame.hasForks()) { local.release(); }
+                    final ASTNode result = frame.build(factory);
+                    if (frames.isEmpty()) { return result; }
+
+                    final Frame parent = frames.peek();
+                    parent.results[parent.next - 1] = result;
+                }
+            } finally {
+                local.release();
+            }
+        }
+
+        /**
+         * Contracts the head redex of the given term until there is none, or until the budget is
+         * exhausted, and forks the normalization of its large arguments.
+         */
+        private Frame headNormalize(final ASTNode term, final SharedMeter.Local local) {
+            final List<Var> binders = new ArrayList<>();
+            // The arguments the head is applied to, the first on top.
+            final Stack<ASTNode> spine = new Stack<>();
+            ASTNode head = term;
+
+            while (true) {
+                while (head.isApp()) {
+                    spine.push(((App) head).argument());
+                    head = ((App) head).function();
+                }
+                if (!head.isFun()) { break; }
+
+                final Fun fun = (Fun) head;
+                if (spine.isEmpty()) {
+                    binders.add(fun.parameter());
+                    head = fun.body();
+                } else if (local.step()) {
+                    head = Substitution.substitute(fun.body(), fun.parameter(), spine.pop(),
+                                                   factory, names);
+                } else {
+                    break;
+                }
+            }
+
+            final Frame frame = new Frame(binders, head, spine.size());
+            for (int i = 0; i < frame.arguments.length; ++i) {
+                frame.arguments[i] = spine.pop();
+            }
+
+            if (!local.stopped()) {
+                int last = -1;
+                for (int i = 0; i < frame.arguments.length; ++i) {
+                    if (isLarge(frame.arguments[i], threshold)) {
+                        if (last >= 0) { frame.fork(last, meter, factory, names, threshold); }
+                        last = i;
+                    }
+                }
+            }
+            return frame;
+        }
+    }
+
+    /**
+     * A term in head normal form, or in whatever form the budget left it, whose arguments are
+     * being normalized. {@code next} is the index of the next argument to normalize.
+     */
+    private static class Frame {
+        private final List<Var> binders;
+        private final ASTNode head;
+        private final ASTNode[] arguments;
+        private final ASTNode[] results;
+        private final Normalize[] forks;
+        private int next;
+
+        Frame(final List<Var> binders, final ASTNode head, final int arity) {
+            this.binders = binders;
+            this.head = head;
+            this.arguments = new ASTNode[arity];
+            this.results = new ASTNode[arity];
+            this.forks = new Normalize[arity];
+            this.next = 0;
+        }
+
+        void fork(final int i,
+                  final SharedMeter meter,
+                  final NodeFactory factory,
+                  final FreshNames names,
+                  final int threshold)
+        {
+            forks[i] = new Normalize(arguments[i], meter, factory, names, threshold);
+            forks[i].fork();
+        }
+
+        boolean hasForks() {
+            for (final Normalize fork : forks) {
+                if (fork != null) { return true; }
+            }
+            return false;
+        }
+
+        /** Joins the forked arguments, and rebuilds the term from the normalized ones. */
+        ASTNode build(final NodeFactory factory) {
+            ASTNode term = head;
+            for (int i = 0; i < arguments.length; ++i) {
+                final ASTNode argument = forks[i] != null ? forks[i].join() : results[i];
+                term = factory.app(term, argument);
+            }
+            for (int i = binders.size() - 1; i >= 0; --i) {
+                term = factory.fun(binders.get(i), term);
+            }
+            return term;
+        }
+    }
+
+    /**
+     * A step budget shared by concurrent tasks. Each task meters its steps through a
+     * {@link Local} view, which reserves steps from the shared budget {@value #RESERVATION} at a
+     * time and hands back those it didn't take, so tasks rarely contend on the shared count. When
+     * no steps are left unreserved, a task needing more waits until another task hands some back,
+     * or takes the last of its own; the budget is exhausted once no steps are left unreserved and
+     * no task holds any. As with {@link Meter}, the clock is only read every
+     * {@value Meter#CLOCK_INTERVAL} steps. The first task to run out of budget stops all the
+     * others.
+     */
+    private static class SharedMeter {
+        private static final long RESERVATION = 64;
+
+        // The steps not reserved by any task, and the number of tasks holding reserved steps,
+        // guarded by the meter.
+        private long unreserved;
+        private int holders;
+
+        private final LongAdder steps;
+        private final long timeoutNanos;
+        private final long startNanos;
+        private volatile StopReason stopReason;
+
+        SharedMeter(final Budget budget) {
+            this.unreserved = budget.maxSteps();
+            this.holders = 0;
+            this.steps = new LongAdder();
+            this.timeoutNanos = Meter.timeoutNanos(budget);
+            this.startNanos = System.nanoTime();
+            this.stopReason = null;
+        }
+
+        Local local() {
+            return new Local();
+        }
+
+        long steps() {
+            return steps.sum();
+        }
+
+        StopReason stopReason() {
+            return stopReason;
+        }
+
+        private synchronized void stop(final StopReason reason) {
+            if (stopReason == null) { stopReason = reason; }
+            notifyAll();
+        }
+
+        /**
+         * Reserves steps for a task holding none, waiting while none are left unreserved but other
+         * tasks hold some.
+         * @return the number of steps reserved, which is 0 once the budget is exhausted or the
+         *         evaluation stopped.
+         */
+        private synchronized long reserve() {
+            boolean interrupted = false;
+            try {
+                while (unreserved == 0 && holders > 0 && stopReason == null) {
+                    try {
+                        wait();
+                    } catch (final InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) { Thread.currentThread().interrupt(); }
+            }
+            if (unreserved == 0 || stopReason != null) { return 0; }
+
+            final long reserved = Math.min(RESERVATION, unreserved);
+            unreserved -= reserved;
+            ++holders;
+            return reserved;
+        }
+
+        /** Hands back steps reserved by a task that no longer holds any. */
+        private synchronized void unreserve(final long reserved) {
+            unreserved += reserved;
+            --holders;
+            notifyAll();
+        }
+
+        /** A single task's view of the shared budget. */
+        class Local {
+            private long reserved = 0;
+            private long taken = 0;
+
+            boolean stopped() {
+                return stopReason != null;
+            }
+
+            /**
+             * Accounts for one reduction step, if the budget allows it.
+             * @return true if the step may be taken, false if the task must stop.
+             */
+            boolean step() {
+                if (stopReason != null) { return false; }
+
+                if (reserved == 0) {
+                    reserved = reserve();
+                    if (reserved == 0) {
+                        stop(StopReason.STEP_BUDGET_EXHAUSTED);
+                        return false;
+                    }
+                }
+                if (taken % Meter.CLOCK_INTERVAL == 0
+                    && System.nanoTime() - startNanos >= timeoutNanos)
+                {
+                    stop(StopReason.DEADLINE_EXCEEDED);
+                    return false;
+                }
+
+                ++taken;
+                if (--reserved == 0) { unreserve(0); }
+                return true;
+            }
+
+            /** Hands back the steps reserved but not taken, and counts those taken. */
+            void release() {
+                if (reserved > 0) { unreserve(reserved); }
+                steps.add(taken);
+                reserved = 0;
+                taken = 0;
+            }
+        }
+    }
+
+    /**
+     * Builds nodes through a factory other than a plain {@link NodeFactory} on behalf of
+     * concurrent tasks, synchronizing every call on it.
+     */
+    private static class ConcurrentFactory extends NodeFactory {
+        private final NodeFactory factory;
+
+        ConcurrentFactory(final NodeFactory factory) {
+            super(factory.symbols());
+            this.factory = factory;
+        }
+
+        @Override
+        public Var var(final CharSequence name) {
+            synchronized (factory) {
+                return factory.var(name);
+            }
+        }
+
+        @Override
+        public Var var(final int symbol) {
+            synchronized (factory) {
+                return factory.var(symbol);
+            }
+        }
+
+        @Override
+        public Fun fun(final Var parameter, final ASTNode body) {
+            synchronized (factory) {
+                return factory.fun(parameter, body);
+            }
+        }
+
+        @Override
+        public App app(final ASTNode function, final ASTNode argument) {
+            synchronized (factory) {
+                return factory.app(function, argument);
+            }
+        }
+
+        @Override
+        public ASTNode share(final ASTNode root) {
+            synchronized (factory) {
+                return factory.share(root);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package alonzo.eval;
+
+/**
+ * Decides which redexes a {@link StrategyEvaluator} contracts, and in which order. The evaluator
+ * always walks a term from its root, leftmost first, contracting the redexes the strategy lets it
+ * reach; the strategy only chooses where the walk goes. Built-in strategies are the constants of
+ * {@link BuiltinStrategy}.
+ */
+public interface ReductionStrategy {
+
+    /** @return whether the bodies of functions are reduced. */
+    boolean reducesUnderFunctions();
+
+    /**
+     * @return whether the arguments of applications that are not redexes are reduced, as opposed
+     *         to only reducing the spine of applications down to its head.
+     */
+    boolean reducesArguments();
+
+    /**
+     * @return whether the function and argument of a redex are reduced before it is contracted,
+     *         innermost first, as opposed to contracting it as soon as it is reached.
+     */
+    boolean reducesInnermostFirst();
+
+    /** @return the reason evaluations give once no redex the strategy would contract is left. */
+    StopReason goal();
+
+}
@@ -0,0 +1,41 @@
+package alonzo.eval;
+
+import alonzo.ast.ASTNode;
+import alonzo.common.Validate;
+
+/**
+ * The outcome of evaluating a term: the term reached, why evaluation stopped there, and the number
+ * of reduction steps it took. Unless the evaluation reached a {@link StopReason#NORMAL_FORM}, the
+ * term is a partial result, equivalent to the original term but not fully reduced.
+ */
+public class Result {
+
+    private final ASTNode term;
+    private final StopReason stopReason;
+    private final long steps;
+
+    public Result(final ASTNode term, final StopReason stopReason, final long steps) {
+        this.term = Validate.notNull(term, "null term");
+        this.stopReason = Validate.notNull(stopReason, "null stopReason");
+        Validate.isTrue(steps >= 0, "negative steps (%d)", steps);
+        this.steps = steps;
+    }
+
+    public ASTNode term() {
+        return term;
+    }
+
+    public StopReason stopReason() {
+        return stopReason;
+    }
+
+    /** @return the number of reduction steps performed. */
+    public long steps() {
+        return steps;
+    }
+
+    public boolean isNormalForm() {
+        return stopReason == StopReason.NORMAL_FORM;
+    }
+
+}
@@ -0,0 +1,27 @@
+package alonzo.eval;
+
+/** Why an {@link Evaluator} stopped reducing a term. */
+public enum StopReason {
+
+    /** The term has no redexes left to reduce. */
+    NORMAL_FORM,
+
+    /**
+     * The term is in head normal form: functions of a variable applied to arguments, which may
+     * still contain redexes. Reached by {@link BuiltinStrategy#HEAD} evaluations.
+     */
+    HEAD_NORMAL_FORM,
+
+    /**
+     * The term is in weak head normal form: a function, or a variable applied to arguments, either
+     * of which may still contain redexes. Reached by {@link BuiltinStrategy#WEAK_HEAD} evaluations.
+     */
+    WEAK_HEAD_NORMAL_FORM,
+
+    /** The evaluation performed as many reduction steps as its {@link Budget} allowed. */
+    STEP_BUDGET_EXHAUSTED,
+
+    /** The evaluation ran for as long as its {@link Budget} allowed. */
+    DEADLINE_EXCEEDED,
+
+}
@@ -0,0 +1,319 @@
+package alonzo.eval;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.Stack;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.NodeFactory;
+import alonzo.common.Validate;
+
+/**
+ * {@link Evaluator} performing beta reduction by capture-avoiding substitution, in the order a
+ * {@link ReductionStrategy} chooses. The strategy is fixed at construction, and can be overridden
+ * for a single evaluation by {@link #evaluate(ASTNode, Budget, ReductionStrategy)}.
+ *
+ * The term is walked as a zipper: a focused subterm plus an explicit stack of frames leading back
+ * to the root, so neither deep terms nor long reductions grow the function call stack. After a
+ * contraction, reduction resumes at the focus instead of searching from the root, which keeps the
+ * cost of finding each redex proportional to how far the focus has to move. Every strategy shares
+ * this walk, and only decides which parts of the term it goes into and when redexes on its way
+ * are contracted. The walk can also be pulled one contraction at a time, through
+ * {@link #steps(ASTNode, ReductionStrategy)} or {@link #stream(ASTNode, ReductionStrategy)}.
+ */
+public class StrategyEvaluator extends Evaluator {
+
+    private final ReductionStrategy strategy;
+
+    public StrategyEvaluator(final ReductionStrategy strategy) {
+        super();
+        this.strategy = Validate.notNull(strategy, "null strategy");
+    }
+
+    public StrategyEvaluator(final ReductionStrategy strategy, final NodeFactory factory) {
+        super(factory);
+        this.strategy = Validate.notNull(strategy, "null strategy");
+    }
+
+    public ReductionStrategy strategy() {
+        return strategy;
+    }
+
+    @Override
+    public Result evaluate(final ASTNode term, final Budget budget) {
+        return evaluate(term, budget, strategy);
+    }
+
+    /**
+     * Reduces the given term with the given strategy, until no redex it would contract is left or
+     * the budget is exhausted.
+     * @param term The term to evaluate.
+     * @param budget The limits on the work done.
+     * @param strategy The strategy to use instead of this evaluator's.
+     * @return the term reached, and why evaluation stopped there: the strategy's
+     *         {@link ReductionStrategy#goal()} if it ran out of redexes to contract.
+     */
+    public Result evaluate(final ASTNode term,
+                           final Budget budget,
+                           final ReductionStrategy strategy)
+    {
+        return evaluate(term, budget.start(), strategy);
+    }
+
+    /**
+     * Reduces the given term as {@link #evaluate(ASTNode, Budget, ReductionStrategy)} does, taking
+     * steps from a meter that may be shared with other evaluations.
+     * @return the term reached, why evaluation stopped there, and the steps the meter has taken.
+     */
+    Result evaluate(final ASTNode term, final Meter meter, final ReductionStrategy strategy) {
+        final Walk walk = new Walk(Validate.notNull(term, "null term"), strategy, factory());
+
+        while (walk.seek()) {
+            if (!meter.step()) {
+                return new Result(walk.plug(), meter.stopReason(), meter.steps());
+            }
+            walk.contract();
+        }
+        return new Result(walk.focus, strategy.goal(), meter.steps());
+    }
+
+    /** @see #steps(ASTNode, ReductionStrategy) */
+    public Iterator<ASTNode> steps(final ASTNode term) {
+        return steps(term, strategy);
+    }
+
+    /**
+     * Reduces the given term one step at a time, as it is pulled. Each term shares with the one
+     * before it every subterm the step left unchanged, so only the nodes between the root and the
+     * contracted redex are new. The iterator is not thread-safe.
+     * @param term The term to reduce.
+     * @param strategy The strategy to use instead of this evaluator's.
+     * @return an iterator over the terms reached after each step, which has no elements if the
+     *         term has no redex the strategy would contract, and never ends if reduction doesn't.
+     */
+    public Iterator<ASTNode> steps(final ASTNode term, final ReductionStrategy strategy) {
+        final Walk walk = new Walk(Validate.notNull(term, "null term"), strategy, factory());
+        return new Iterator<ASTNode>() {
+            // Whether the walk has been moved to the next redex, and whether there was one.
+            private boolean sought = false;
+            private boolean found = false;
+
+            @Override
+            public boolean hasNext() {
+                if (!sought) {
+                    found = walk.seek();
+                    sought = true;
+                }
+                return found;
+            }
+
+            @Override
+            public ASTNode next() {
+                if (!hasNext()) { throw new NoSuchElementException("no redex left"); }
+                sought = false;
+                walk.contract();
+                return walk.plug();
+            }
+        };
+    }
+
+    /** @see #stream(ASTNode, ReductionStrategy) */
+    public Stream<ASTNode> stream(final ASTNode term) {
+        return stream(term, strategy);
+    }
+
+    /**
+     * @return a sequential stream of the terms reached after each step, pulled from
+     *         {@link #steps(ASTNode, ReductionStrategy)} as the stream is consumed.
+     */
+    public Stream<ASTNode> stream(final ASTNode term, final ReductionStrategy strategy) {
+        final int characteristics = Spliterator.ORDERED | Spliterator.NONNULL;
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(steps(term, strategy), characteristics), false);
+    }
+
+    /**
+     * The state of a reduction, which can be paused before each contraction: the focus, the path
+     * leading back to the root, and whether the focus is still to be reduced.
+     */
+    private static class Walk {
+        private final boolean underFunctions;
+        private final boolean arguments;
+        private final boolean innermostFirst;
+        private final NodeFactory factory;
+        private final FreshNames names;
+        private final Stack<Frame> path;
+
+        private ASTNode focus;
+        private boolean descending;
+
+        private Walk(final ASTNode term,
+                     final ReductionStrategy strategy,
+                     final NodeFactory factory)
+        {
+            Validate.notNull(strategy, "null strategy");
+            this.underFunctions = strategy.reducesUnderFunctions();
+            this.arguments = strategy.reducesArguments();
+            this.innermostFirst = strategy.reducesInnermostFirst();
+            this.factory = factory;
+            this.names = new FreshNames(factory);
+            this.path = new Stack<>();
+            this.focus = term;
+            this.descending = true;
+        }
+
+        /**
+         * Moves the focus to the next redex to contract.
+         * @return false if there is none, the focus then being the whole reduced term.
+         */
+        private boolean seek() {
+            while (true) {
+                if (descending) {
+                    if (!innermostFirst && isRedex(focus)) {
+                        return true;
+                    } else if (focus.isFun() && underFunctions) {
+                        path.push(Frame.funBody((Fun) focus));
+                        focus = ((Fun) focus).body();
+                    } else if (focus.isApp()) {
+                        path.push(Frame.appLeft((App) focus));
+                        focus = ((App) focus).function();
+                    } else {
+                        descending = false;
+                    }
+                    continue;
+                }
+
+                // The focus is done: move back up to the next part left to reduce.
+                if (path.isEmpty()) { return false; }
+
+                final Frame frame = path.pop();
+                if (frame.kind() == Frame.APP_LEFT) {
+                    // The function is done, so its argument is next; unless it reduced to a
+                    // function, in which case the application itself is now a redex.
+                    final App app = (App) frame.node();
+                    if (focus.isFun() && !innermostFirst) {
+                        focus = factory.app(focus, app.argument());
+                        descending = true;
+                    } else if (focus.isFun() || arguments) {
+                        path.push(Frame.appRight(app, focus));
+                        focus = app.argument();
+                        descending = true;
+                    } else {
+                        focus = rebuild(frame, focus, factory);
+                    }
+                } else if (frame.kind() == Frame.APP_RIGHT && frame.function().isFun()
+                           && innermostFirst)
+                {
+                    // Both parts of the redex are done, so it is next.
+                    focus = rebuild(frame, focus, factory);
+                    descending = true;
+                    return true;
+                } else {
+                    focus = rebuild(frame, focus, factory);
+                }
+            }
+        }
+
+        /** Contracts the redex at the focus, whose result is then to be reduced. */
+        private void contract() {
+            final Fun fun = (Fun) ((App) focus).function();
+            focus = Substitution.substitute(fun.body(), fun.parameter(), ((App) focus).argument(),
+                                            factory, names);
+
+            // The contraction may have produced a function in function position, making the
+            // enclosing application the next redex.
+            if (!innermostFirst && focus.isFun() && !path.isEmpty()
+                && path.peek().kind() == Frame.APP_LEFT)
+            {
+                focus = factory.app(focus, ((App) path.pop().node()).argument());
+            }
+        }
+
+        /** @return the whole term, with the focus plugged back into every frame of the path. */
+        private ASTNode plug() {
+            ASTNode term = focus;
+            for (int i = path.size() - 1; i >= 0; --i) {
+                term = rebuild(path.get(i), term, factory);
+            }
+            return term;
+        }
+    }
+
+    private static boolean isRedex(final ASTNode node) {
+        return node.isApp() && ((App) node).function().isFun();
+    }
+
+    /**
+     * @return the frame's node with the child the frame was left through replaced by the given
+     *         term, reusing the node if nothing changed.
+     */
+    private static ASTNode rebuild(final Frame frame,
+                                   final ASTNode child,
+                                   final NodeFactory factory)
+    {
+        switch (frame.kind()) {
+        case Frame.FUN_BODY:
+            final Fun fun = (Fun) frame.node();
+            return child == fun.body() ? fun : factory.fun(fun.parameter(), child);
+        case Frame.APP_LEFT:
+            final App left = (App) frame.node();
+            return child == left.function() ? left : factory.app(child, left.argument());
+        default:
+            final App right = (App) frame.node();
+            return frame.function() == right.function() && child == right.argument()
+                   ? right : factory.app(frame.function(), child);
+        }
+    }
+
+    /**
+     * A step on the path from the root to the focus: the node the path went through and which of
+     * its children it went to. When reducing an application's argument, the function has already
+     * been reduced and is kept here.
+     */
+    private static class Frame {
+        static final int FUN_BODY = 0;
+        static final int APP_LEFT = 1;
+        static final int APP_RIGHT = 2;
+
+        private final int kind;
+        private final ASTNode node;
+        private final ASTNode function;
+
+        public static Frame funBody(final Fun fun) {
+            return new Frame(FUN_BODY, fun, null);
+        }
+
+        public static Frame appLeft(final App app) {
+            return new Frame(APP_LEFT, app, null);
+        }
+
+        public static Frame appRight(final App app, final ASTNode function) {
+            return new Frame(APP_RIGHT, app, function);
+        }
+
+        private Frame(final int kind, final ASTNode node, final ASTNode function) {
+            this.kind = kind;
+            this.node = node;
+            this.function = function;
+        }
+
+        public int kind() {
+            return kind;
+        }
+
+        public ASTNode node() {
+            return node;
+        }
+
+        /** @return the reduced function of an {@link #APP_RIGHT} frame. */
+        public ASTNode function() {
+            return function;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package alonzo.eval;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.SymbolSet;
+import alonzo.ast.Var;
+
+/**
+ * Capture-avoiding substitution over {@link ASTNode}s, as performed by a beta reduction. Explicit
+ * stacks are used so as not to blow the function call stack on deep terms, and subterms left
+ * unchanged by the substitution are shared with the original term rather than rebuilt. Subterms in
+ * which no replaced name is free, closed ones included, are recognized from their cached
+ * {@link ASTNode#freeVariables()} and skipped without being traversed.
+ */
+class Substitution {
+
+    private final NodeFactory factory;
+    private final ASTNode body;
+    private final ASTNode argument;
+
+    // Replacements for the free variables of the term being traversed, by name. Besides the
+    // substituted parameter, this holds the renamings of functions whose parameter would capture a
+    // free variable of the argument.
+    private final Map<String, ASTNode> replacements;
+
+    // A variable with each replaced name, to look the names up in free variable sets by symbol.
+    private final Map<String, Var> replaced;
+
+    // The replacements hidden by the parameters of the functions being traversed.
+    private final Stack<ASTNode> shadowed;
+
+    private final FreshNames names;
+
+    // The free names of the argument and the names generated so far, computed on first use.
+    private Set<String> captured;
+
+    // Names a renamed parameter must not take: the above plus every name of the body, only
+    // computed if a fresh name has to be checked against them.
+    private Set<String> avoid;
+
+    /**
+     * @return {@code body} with the free occurrences of {@code parameter} replaced by
+     *         {@code argument}, renaming the parameters of functions within {@code body} that
+     *         would otherwise capture free variables of {@code argument}.
+     */
+    static ASTNode substitute(final ASTNode body,
+                              final Var parameter,
+                              final ASTNode argument,
+                              final NodeFactory factory)
+    {
+        return substitute(body, parameter, argument, factory, new FreshNames(factory));
+    }
+
+    /**
+     * @param names The source of fresh names of the evaluation the substitution is part of.
+     * @see #substitute(ASTNode, Var, ASTNode, NodeFactory)
+     */
+    static ASTNode substitute(final ASTNode body,
+                              final Var parameter,
+                              final ASTNode argument,
+                              final NodeFactory factory,
+                              final FreshNames names)
+    {
+        return new Substitution(body, parameter, argument, factory, names).apply();
+    }
+
+    private Substitution(final ASTNode body,
+                         final Var parameter,
+                         final ASTNode argument,
+                         final NodeFactory factory,
+                         final FreshNames names)
+    {
+        this.factory = factory;
+        this.names = names;
+        this.body = body;
+        this.argument = argument;
+        this.replacements = new HashMap<>();
+        this.replaced = new HashMap<>();
+        replace(parameter, argument);
+        this.shadowed = new Stack<>();
+        this.captured = null;
+        this.avoid = null;
+    }
+
+    private ASTNode apply() {
+        final Stack<ASTNode> pending = new Stack<>();
+        final Stack<Var> parameters = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+        final Stack<ASTNode> results = new Stack<>();
+
+        pending.push(body);
+        expanded.push(false);
+
+        while (!pending.isEmpty()) {
+            final ASTNode node = pending.pop();
+
+            if (!expanded.pop()) {
+                if (node.isVar()) {
+                    final ASTNode replacement = replacements.get(((Var) node).name());
+                    results.push(replacement != null ? replacement : node);
+                } else if (!mentionsReplaced(node)) {
+                    // Every replaced name is shadowed or absent here.
+                    results.push(node);
+                } else if (node.isFun()) {
+                    parameters.push(bind((Fun) node));
+                    pending.push(node);
+                    expanded.push(true);
+                    pending.push(((Fun) node).body());
+                    expanded.push(false);
+                } else {
+                    pending.push(node);
+                    expanded.push(true);
+                    pending.push(((App) node).argument());
+                    expanded.push(false);
+                    pending.push(((App) node).function());
+                    expanded.push(false);
+                }
+            } else if (node.isFun()) {
+                final Fun fun = (Fun) node;
+                final Var parameter = parameters.pop();
+                unbind(fun.parameter());
+
+                final ASTNode newBody = results.pop();
+                results.push(newBody == fun.body() && parameter == fun.parameter()
+                             ? fun : factory.fun(parameter, newBody));
+            } else {
+                final App app = (App) node;
+                final ASTNode newArgument = results.pop();
+                final ASTNode newFunction = results.pop();
+                results.push(newFunction == app.function() && newArgument == app.argument()
+                             ? app : factory.app(newFunction, newArgument));
+            }
+        }
+
+        return results.pop();
+    }
+
+    /**
+     * Updates the replacements on entering the scope of a function's parameter, which hides any
+     * replacement of the same name. If the parameter could capture a free variable of a
+     * replacement, it is renamed to a fresh name, one that is neither free in a replacement nor in
+     * the function's body, so that it captures nothing either. This is checked against the cached
+     * free variables, and the terms are only walked if the body's are unknown.
+     * @return the function's new parameter.
+     */
+    private Var bind(final Fun fun) {
+        final Var parameter = fun.parameter();
+        final String name = parameter.name();
+        shadowed.push(replacements.remove(name));
+        replaced.remove(name);
+
+        if (replacements.isEmpty() || !captured().contains(name)) { return parameter; }
+
+        final SymbolSet free = fun.body().freeVariables();
+        final Var renamed = names.fresh(parameter, candidate ->
+            captured.contains(candidate)
+                || (free != null ? free.contains(candidate) : taken(candidate)));
+        captured.add(renamed.name());
+        if (avoid != null) { avoid.add(renamed.name()); }
+        replace(parameter, renamed);
+        return renamed;
+    }
+
+    /** Restores the replacements on leaving the scope of a function's parameter. */
+    private void unbind(final Var parameter) {
+        final ASTNode previous = shadowed.pop();
+        if (previous != null) {
+            replace(parameter, previous);
+        } else {
+            replacements.remove(parameter.name());
+            replaced.remove(parameter.name());
+        }
+    }
+
+    private void replace(final Var var, final ASTNode replacement) {
+        replacements.put(var.name(), replacement);
+        replaced.put(var.name(), var);
+    }
+
+    /** @return whether any replaced name is free in the given node. */
+    private boolean mentionsReplaced(final ASTNode node) {
+        final SymbolSet free = node.freeVariables();
+        if (free == null) { return true; }
+
+        for (final Var var : replaced.values()) {
+            if (free.contains(var)) { return true; }
+        }
+        return false;
+    }
+
+    private Set<String> captured() {
+        if (captured == null) {
+            captured = argument.freeVariables() != null
+                       ? new HashSet<>(argument.freeVariables().names()) : freeNames(argument);
+        }
+        return captured;
+    }
+
+    /** @return whether the given name occurs in the body or the argument, or was generated. */
+    private boolean taken(final String name) {
+        if (avoid == null) {
+            avoid = new HashSet<>(captured());
+            allNames(body, avoid);
+        }
+        return avoid.contains(name);
+    }
+
+    private static Set<String> freeNames(final ASTNode root) {
+        final Set<String> names = new HashSet<>();
+        final Map<String, Integer> bound = new HashMap<>();
+        final Stack<ASTNode> pending = new Stack<>();
+        final Stack<Boolean> expanded = new Stack<>();
+
+        pending.push(root);
+        expanded.push(false);
+        while (!pending.isEmpty()) {
+            final ASTNode node = pending.pop();
+            final boolean isExpanded = expanded.pop();
+
+            if (node.isVar()) {
+                if (!bound.containsKey(((Var) node).name())) { names.add(((Var) node).name()); }
+            } else if (node.isFun()) {
+                final String name = ((Fun) node).parameter().name();
+                if (isExpanded) {
+                    final int count = bound.get(name) - 1;
+                    if (count == 0) { bound.remove(name); } else { bound.put(name, count); }
+                } else {
+                    bound.merge(name, 1, Integer::sum);
+                    pending.push(node);
+                    expanded.push(true);
+                    pending.push(((Fun) node).body());
+                    expanded.push(false);
+                }
+            } else {
+                pending.push(((App) node).argument());
+                expanded.push(false);
+                pending.push(((App) node).function());
+                expanded.push(false);
+            }
+        }
+        return names;
+    }
+
+    private static void allNames(final ASTNode root, final Set<String> names) {
+        final Stack<ASTNode> pending = new Stack<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final ASTNode node = pending.pop();
+            if (node.isVar()) {
+                names.add(((Var) node).name());
+            } else if (node.isFun()) {
+                names.add(((Fun) node).parameter().name());
+                pending.push(((Fun) node).body());
+            } else {
+                pending.push(((App) node).argument());
+                pending.push(((App) node).function());
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package alonzo.eval;
+
+import alonzo.ast.nameless.Lambda;
+import alonzo.ast.nameless.Term;
+import alonzo.common.Validate;
+
+/**
+ * A top-level function produced by {@link LambdaLifter}: a closed term of {@link #arity()} nested
+ * functions whose body contains no functions of its own. Its first {@link #captured()} parameters
+ * stand for the variables the lifted function captured from its surroundings, and the rest are the
+ * lifted function's own parameters. Other supercombinators are referred to from its body as free
+ * variables named after them.
+ */
+public class Supercombinator {
+
+    private final String name;
+    private final int captured;
+    private final Term definition;
+    private final int arity;
+    private final Term body;
+
+    /**
+     * @param name The name other terms refer to the supercombinator by.
+     * @param captured The number of leading parameters standing for captured variables.
+     * @param definition The supercombinator as a closed term of nested functions.
+     */
+    public Supercombinator(final String name, final int captured, final Term definition) {
+        this.name = Validate.notNull(name, "null name");
+        this.definition = Validate.notNull(definition, "null definition");
+
+        Term body = definition;
+        int arity = 0;
+        while (body.isLambda()) {
+            body = ((Lambda) body).body();
+            ++arity;
+        }
+        Validate.isTrue(captured >= 0 && captured <= arity,
+                        "captured (%d) out of range for arity %d", captured, arity);
+        this.captured = captured;
+        this.arity = arity;
+        this.body = body;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** @return the number of parameters, captured ones included. */
+    public int arity() {
+        return arity;
+    }
+
+    /** @return the number of leading parameters standing for captured variables. */
+    public int captured() {
+        return captured;
+    }
+
+    /** @return the supercombinator as a closed term of {@link #arity()} nested functions. */
+    public Term definition() {
+        return definition;
+    }
+
+    /**
+     * @return the body within the {@link #arity()} functions of the {@link #definition()}, in
+     *         which bound variable {@code i} refers to parameter {@code arity() - 1 - i}.
+     */
+    public Term body() {
+        return body;
+    }
+
+}
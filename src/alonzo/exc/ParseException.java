@@ -0,0 +1,27 @@
+package alonzo.exc;
+
+import alonzo.common.Validate;
+import alonzo.io.SourceLocation;
+
+/**
+ * Exception representing malformed source text. The {@link SourceLocation} of the offending
+ * character is carried along so that the receiver can point at the problem.
+ */
+public class ParseException extends RuntimeException {
+
+    private static final long serialVersionUID = -3312780478325176407L;
+
+    private final SourceLocation location;
+
+    public ParseException(SourceLocation location, String fmtString, Object... args) {
+        super(String.format(fmtString, args) + String.format(
+            " (line %d, character %d)", location.line(), location.character()));
+        this.location = Validate.notNull(location, "null SourceLocation");
+    }
+
+    /** @return the location in the source at which the problem was found. */
+    public SourceLocation location() {
+        return location;
+    }
+
+}
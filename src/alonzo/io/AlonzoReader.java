@@ -11,15 +11,13 @@ import alonzo.common.Validate;
  * {@link Reader}. Characters are buffered so as to provide for the efficient reading of the
  * underlying Reader.
  */
-public class AlonzoReader implements AutoCloseable {
+public class AlonzoReader extends SourceReader {
 
     private final Reader in;
     private boolean isClosed;
 
     private final CharBuffer buffer;
 
-    private SourceLocation location;
-
     /**
      * The default buffer size to use.
      * @see #AlonzoReader(Reader)
@@ -38,8 +36,6 @@ public class AlonzoReader implements AutoCloseable {
         Validate.isTrue(bufferSize > 0, "negative buffer size (%d)", bufferSize);
         buffer = CharBuffer.allocate(bufferSize);
         buffer.limit(0);
-
-        location = SourceLocation.of(0, 1);
     }
 
     /**
@@ -51,42 +47,27 @@ public class AlonzoReader implements AutoCloseable {
         this(reader, DEFAULT_BUFFER_SIZE);
     }
 
-    /**
-     * Reads a character from the underlying Reader.
-     * @return a {@link ReaderResult} containing either the current character, or nothing if the
-     *         end of the stream was reached.
-     * @throws IOException if the underlying Reader has a problem or if this reader is already
-     *                     closed.
-     */
-    public ReaderResult read() throws IOException {
+    @Override
+    public int readChar() throws IOException {
         ensureReaderOpen();
 
         if (bufferEmpty()) { fillBuffer(); }
-        if (bufferEmpty()) { return ReaderResult.end(location); }
+        if (bufferEmpty()) { return END_OF_STREAM; }
 
         final char resultChar = buffer.get();
-        final ReaderResult result = ReaderResult.of(resultChar, location);
-
         incrementLocation(resultChar);
 
-        return result;
+        return resultChar;
     }
 
-    /**
-     * Peeks at the next character from the underlying Reader.
-     * @return a {@link ReaderResult} containing either the current character, or nothing if the
-     *         end of the stream was reached.
-     * @throws IOException if the underlying Reader has a problem or if this reader is already
-     *                     closed.
-     */
-    public ReaderResult peek() throws IOException {
+    @Override
+    public int peekChar() throws IOException {
         ensureReaderOpen();
 
         if (bufferEmpty()) { fillBuffer(); }
-        if (bufferEmpty()) { return ReaderResult.end(location); }
+        if (bufferEmpty()) { return END_OF_STREAM; }
 
-        final char resultChar = buffer.get(buffer.position());
-        return ReaderResult.of(resultChar, location);
+        return buffer.get(buffer.position());
     }
 
     /**
@@ -104,7 +85,7 @@ public class AlonzoReader implements AutoCloseable {
         }
     }
 
-    /** @return true if this reader is closed, false otherwise. */
+    @Override
     public boolean isClosed() {
         return isClosed;
     }
@@ -130,9 +111,4 @@ public class AlonzoReader implements AutoCloseable {
         buffer.position(0);
         buffer.limit(n > 0 ? n : 0);
     }
-
-    private void incrementLocation(final char result) {
-        location = result == '\n' ? location.incrementLineNumber()
-                                  : location.incrementCharacter();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,212 @@
+package alonzo.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import alonzo.common.Validate;
+
+/**
+ * MappedFileReader reads the characters of a UTF-8 encoded file straight out of a memory-mapped
+ * region of the file, decoding as it goes. No intermediate char buffer is filled, and ASCII bytes,
+ * by far the most common in source text, are returned without any decoding work at all.
+ *
+ * Files are mapped in windows of a fixed size, so files larger than a single mapping allows can
+ * still be read. Characters outside the Basic Multilingual Plane are returned as two surrogate
+ * chars. Malformed input is replaced with {@code U+FFFD}: one for each invalid lead byte, for each
+ * sequence cut short, and for each complete sequence that is overlong, encodes a surrogate or lies
+ * beyond {@code U+10FFFF}. Well-formed input decodes exactly as through an
+ * {@link java.io.InputStreamReader}, but malformed input may yield a different number of
+ * replacement characters.
+ */
+public class MappedFileReader extends SourceReader {
+
+    /**
+     * The default size of the mapped window into the file.
+     * @see #MappedFileReader(Path)
+     */
+    public static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private static final int NONE = -2;
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private boolean isClosed;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private int peeked;
+    private int pendingLowSurrogate;
+
+    /**
+     * Constructs a MappedFileReader reading the file at the given path, mapping windows of the
+     * given size.
+     * @param path The path of the UTF-8 encoded file to read.
+     * @param windowSize The number of bytes of the file to map at once. Must be at least 4, the
+     *                   length of the longest UTF-8 sequence, and at most
+     *                   {@link Integer#MAX_VALUE}, the largest region a mapping can cover.
+     * @throws IOException if the file could not be opened or mapped.
+     */
+    public MappedFileReader(final Path path, final long windowSize) throws IOException {
+        Validate.notNull(path, "null Path");
+        Validate.isTrue(windowSize >= 4, "window size too small (%d)", windowSize);
+        Validate.isTrue(windowSize <= Integer.MAX_VALUE, "window size too large (%d)", windowSize);
+
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.windowSize = windowSize;
+        this.isClosed = false;
+
+        try {
+            this.size = channel.size();
+            map(0);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        peeked = NONE;
+        pendingLowSurrogate = NONE;
+    }
+
+    /**
+     * Constructs a MappedFileReader with the default window size.
+     * @see #MappedFileReader(Path, long)
+     * @see #DEFAULT_WINDOW_SIZE
+     */
+    public MappedFileReader(final Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    @Override
+    public int readChar() throws IOException {
+        ensureReaderOpen();
+
+        final int resultChar = peeked != NONE ? peeked : decode();
+        peeked = NONE;
+
+        if (resultChar != END_OF_STREAM) { incrementLocation((char) resultChar); }
+
+        return resultChar;
+    }
+
+    @Override
+    public int peekChar() throws IOException {
+        ensureReaderOpen();
+
+        if (peeked == NONE) { peeked = decode(); }
+
+        return peeked;
+    }
+
+    /**
+     * Closes the underlying file. If this reader is already closed, this method does nothing. The
+     * mapped region is released once it is garbage collected.
+     * @throws IOException if there was a problem closing the underlying file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (isClosed) { return; }
+
+        try {
+            channel.close();
+        } finally {
+            window = null;
+            isClosed = true;
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    private void ensureReaderOpen() throws IOException {
+        if (isClosed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+    private void map(final long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY,
+                             start, Math.min(windowSize, size - start));
+    }
+
+    /**
+     * Ensures at least {@code n} bytes are available in the current window, remapping the window to
+     * start at the current position if not. Fewer bytes are only available at the end of the file.
+     * @return the number of bytes available, at most {@code n}.
+     */
+    private int ensureAvailable(final int n) throws IOException {
+        if (window.remaining() < n) {
+            final long position = windowStart + window.position();
+            if (position < size) { map(position); }
+        }
+        return Math.min(n, window.remaining());
+    }
+
+    private int decode() throws IOException {
+        if (pendingLowSurrogate != NONE) {
+            final int low = pendingLowSurrogate;
+            pendingLowSurrogate = NONE;
+            return low;
+        }
+
+        if (ensureAvailable(1) == 0) { return END_OF_STREAM; }
+
+        final int position = window.position();
+        final int lead = window.get(position);
+
+        // ASCII fast path.
+        if (lead >= 0) {
+            window.position(position + 1);
+            return lead;
+        }
+
+        final int length;
+        final int minimum;
+        int codePoint;
+        if ((lead & 0xE0) == 0xC0) {
+            length = 2; minimum = 0x80; codePoint = lead & 0x1F;
+        } else if ((lead & 0xF0) == 0xE0) {
+            length = 3; minimum = 0x800; codePoint = lead & 0x0F;
+        } else if ((lead & 0xF8) == 0xF0) {
+            length = 4; minimum = 0x10000; codePoint = lead & 0x07;
+        } else {
+            window.position(position + 1);
+            return REPLACEMENT;
+        }
+
+        final int available = ensureAvailable(length);
+        final int start = window.position();
+
+        for (int i = 1; i < length; ++i) {
+            final int b = i < available ? window.get(start + i) : 0;
+            if ((b & 0xC0) != 0x80) {
+                // Consume the valid prefix only; the offending byte starts the next character.
+                window.position(start + i);
+                return REPLACEMENT;
+            }
+            codePoint = (codePoint << 6) | (b & 0x3F);
+        }
+        window.position(start + length);
+
+        if (codePoint < minimum || codePoint > Character.MAX_CODE_POINT
+            || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE))
+        {
+            return REPLACEMENT;
+        }
+
+        if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            pendingLowSurrogate = Character.lowSurrogate(codePoint);
+            return Character.highSurrogate(codePoint);
+        }
+
+        return codePoint;
+    }
+}
@@ -0,0 +1,117 @@
+package alonzo.io;
+
+import java.io.IOException;
+
+/**
+ * Abstract superclass of readers that provide source text character by character. Subclasses
+ * supply the characters through {@link #readChar()} and {@link #peekChar()}; this class keeps track
+ * of the position of the next character in primitive fields, so that a {@link SourceLocation} is
+ * only created when one is asked for.
+ * @see AlonzoReader
+ * @see MappedFileReader
+ */
+public abstract class SourceReader implements AutoCloseable {
+
+    /**
+     * The value returned by {@link #readChar()} and {@link #peekChar()} at the end of the stream.
+     */
+    public static final int END_OF_STREAM = -1;
+
+    private int character;
+    private int line;
+
+    protected SourceReader() {
+        character = 0;
+        line = 1;
+    }
+
+    /**
+     * Reads a character, without allocating. The location of the returned character is the value
+     * of {@link #location()} before this call.
+     * @return the current character, or {@link #END_OF_STREAM} if the end of the stream was
+     *         reached.
+     * @throws IOException if the underlying source has a problem or if this reader is already
+     *                     closed.
+     */
+    public abstract int readChar() throws IOException;
+
+    /**
+     * Peeks at the next character, without allocating.
+     * @return the next character, or {@link #END_OF_STREAM} if the end of the stream was reached.
+     * @throws IOException if the underlying source has a problem or if this reader is already
+     *                     closed.
+     */
+    public abstract int peekChar() throws IOException;
+
+    /**
+     * Closes the underlying source. If this reader is already closed, this method does nothing.
+     * @throws IOException if there was a problem closing the underlying source.
+     */
+    @Override
+    public abstract void close() throws IOException;
+
+    /** @return true if this reader is closed, false otherwise. */
+    public abstract boolean isClosed();
+
+    /**
+     * Reads a character.
+     * @return a {@link ReaderResult} containing either the current character, or nothing if the
+     *         end of the stream was reached.
+     * @throws IOException if the underlying source has a problem or if this reader is already
+     *                     closed.
+     * @see #readChar()
+     */
+    public ReaderResult read() throws IOException {
+        final SourceLocation location = location();
+        final int resultChar = readChar();
+
+        return resultChar == END_OF_STREAM ? ReaderResult.end(location)
+                                           : ReaderResult.of((char) resultChar, location);
+    }
+
+    /**
+     * Peeks at the next character.
+     * @return a {@link ReaderResult} containing either the current character, or nothing if the
+     *         end of the stream was reached.
+     * @throws IOException if the underlying source has a problem or if this reader is already
+     *                     closed.
+     * @see #peekChar()
+     */
+    public ReaderResult peek() throws IOException {
+        final int resultChar = peekChar();
+
+        return resultChar == END_OF_STREAM ? ReaderResult.end(location())
+                                           : ReaderResult.of((char) resultChar, location());
+    }
+
+    /**
+     * @return the location of the next character to be read. A new {@code SourceLocation} is
+     *         created for each call.
+     */
+    public SourceLocation location() {
+        return SourceLocation.of(character, line);
+    }
+
+    /** @return the zero-based index of the next character within its line. */
+    public int character() {
+        return character;
+    }
+
+    /** @return the one-based line number of the next character. */
+    public int line() {
+        return line;
+    }
+
+    /**
+     * Advances the location past the given character. Subclasses call this from
+     * {@link #readChar()} for every character they return.
+     */
+    protected void incrementLocation(final char result) {
+        if (result == '\n') {
+            character = 0;
+            ++line;
+        } else {
+            ++character;
+        }
+    }
+}
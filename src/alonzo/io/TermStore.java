@@ -0,0 +1,434 @@
+package alonzo.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.codec.BinaryCodec;
+import alonzo.common.Validate;
+
+/**
+ * Content-addressed store of terms and their normal forms, kept in a directory so that they
+ * survive restarts. Terms are addressed by their {@link ASTNode#alphaHash()}, so a term is stored
+ * once whatever the names of its bound variables, and looking one up costs a hash lookup and an
+ * alpha-equivalence check against the few terms stored at its address.
+ *
+ * The directory holds two files, each starting with a magic number and the
+ * {@link #FORMAT_VERSION}:
+ * <ul>
+ * <li>{@value #DATA_FILE}, the encoded terms, one after the other;</li>
+ * <li>{@value #INDEX_FILE}, a record of {@value #RECORD_SIZE} bytes for each term stored or given
+ *     a normal form: the term's number, its address, and the offset and length in the data file
+ *     of the term and of its normal form, followed by the number of steps taken to reach it.</li>
+ * </ul>
+ * Both files are only ever appended to. Index records are fixed-width, so the index is read back
+ * through a memory mapping without parsing; a later record for the same term number supersedes an
+ * earlier one, and a partial record left by a crash is ignored. Terms themselves are only read
+ * when looked up.
+ *
+ * Terms are encoded by {@link BinaryCodec}, so subterms they share are stored once. All methods are
+ * synchronized, so a store may be shared between threads.
+ */
+public class TermStore implements Closeable {
+
+    /** The version of the files' format, which a store only opens files of. */
+    public static final int FORMAT_VERSION = 2;
+
+    static final String DATA_FILE = "terms.dat";
+    static final String INDEX_FILE = "index.dat";
+    static final int RECORD_SIZE = 40;
+    static final int HEADER_SIZE = 8;
+
+    private static final int DATA_MAGIC = 0x414C5A54;
+    private static final int INDEX_MAGIC = 0x414C5A49;
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private final NodeFactory factory;
+    private final FileChannel data;
+    private final FileChannel index;
+    private boolean isClosed;
+
+    // The latest record of each term, by term number, in parallel arrays as in the index file.
+    private int[] addresses;
+    private long[] termOffsets;
+    private int[] termLengths;
+    private long[] normalFormOffsets;
+    private int[] normalFormLengths;
+    private long[] steps;
+    private int size;
+
+    // The first term at each address, and the next term at the same address as each term.
+    private final Map<Integer, Integer> first;
+    private int[] next;
+
+    /**
+     * Opens the store in the given directory, creating the directory and its files if needed.
+     * Terms read back are built through a {@link NodeFactory} over the current thread's
+     * {@link alonzo.ast.SymbolTable}.
+     * @see #open(Path, NodeFactory)
+     */
+    public static TermStore open(final Path directory) throws IOException {
+        return open(directory, new NodeFactory());
+    }
+
+    /**
+     * Opens the store in the given directory, creating the directory and its files if needed.
+     * @param directory The directory holding the store.
+     * @param factory The factory to build the terms read back through.
+     * @return the open store.
+     * @throws IOException if the files could not be read, or are not of this
+     *         {@link #FORMAT_VERSION}.
+     */
+    public static TermStore open(final Path directory, final NodeFactory factory)
+        throws IOException
+    {
+        Validate.notNull(directory, "null directory");
+        Validate.notNull(factory, "null NodeFactory");
+
+        Files.createDirectories(directory);
+        final FileChannel data = openFile(directory.resolve(DATA_FILE), DATA_MAGIC);
+        try {
+            final FileChannel index = openFile(directory.resolve(INDEX_FILE), INDEX_MAGIC);
+            try {
+                final TermStore store = new TermStore(factory, data, index);
+                store.load();
+                return store;
+            } catch (final IOException | RuntimeException e) {
+                index.close();
+                throw e;
+            }
+        } catch (final IOException | RuntimeException e) {
+            data.close();
+            throw e;
+        }
+    }
+
+    private TermStore(final NodeFactory factory, final FileChannel data, final FileChannel index) {
+        this.factory = factory;
+        this.data = data;
+        this.index = index;
+        this.isClosed = false;
+        this.addresses = new int[MINIMUM_CAPACITY];
+        this.termOffsets = new long[MINIMUM_CAPACITY];
+        this.termLengths = new int[MINIMUM_CAPACITY];
+        this.normalFormOffsets = new long[MINIMUM_CAPACITY];
+        this.normalFormLengths = new int[MINIMUM_CAPACITY];
+        this.steps = new long[MINIMUM_CAPACITY];
+        this.size = 0;
+        this.first = new HashMap<>();
+        this.next = new int[MINIMUM_CAPACITY];
+    }
+
+    /**
+     * Stores the given term, unless an alpha-equivalent one is stored already.
+     * @return the term's address.
+     */
+    public synchronized int put(final ASTNode term) throws IOException {
+        ensureOpen();
+        Validate.notNull(term, "null term");
+
+        if (find(term) < 0) { append(size, term, -1, 0, 0); }
+        return term.alphaHash();
+    }
+
+    /**
+     * Stores the given term along with its normal form, replacing any normal form stored for it.
+     * @param term The term normalized.
+     * @param normalForm Its normal form.
+     * @param steps The number of reduction steps taken to reach the normal form.
+     * @return the term's address.
+     */
+    public synchronized int put(final ASTNode term, final ASTNode normalForm, final long steps)
+        throws IOException
+    {
+        ensureOpen();
+        Validate.notNull(term, "null term");
+        Validate.notNull(normalForm, "null normalForm");
+        Validate.isTrue(steps >= 0, "negative steps (%d)", steps);
+
+        final int found = find(term);
+        final long offset = write(normalForm);
+        final int length = (int) (data.size() - offset);
+        if (found < 0) {
+            append(size, term, offset, length, steps);
+        } else {
+            record(found, addresses[found], termOffsets[found], termLengths[found], offset,
+                   length, steps);
+        }
+        return term.alphaHash();
+    }
+
+    /** @return the entry of the stored term alpha-equivalent to the given one, or null. */
+    public synchronized Entry lookup(final ASTNode term) throws IOException {
+        ensureOpen();
+        final int found = find(Validate.notNull(term, "null term"));
+        return found < 0 ? null : entry(found);
+    }
+
+    /** @return the entries of the terms stored at the given address, in the order stored. */
+    public synchronized List<Entry> lookup(final int address) throws IOException {
+        ensureOpen();
+        final List<Entry> entries = new ArrayList<>();
+        final Integer head = first.get(address);
+        for (int i = head != null ? head : -1; i >= 0; i = next[i]) {
+            entries.add(entry(i));
+        }
+        return entries;
+    }
+
+    /**
+     * @param i The number of a stored term, from 0 up to {@link #size()} in the order stored.
+     * @return the term's entry.
+     */
+    public synchronized Entry entry(final int i) throws IOException {
+        ensureOpen();
+        Validate.isTrue(i >= 0 && i < size, "unknown term (%d)", i);
+
+        final ASTNode term = read(termOffsets[i], termLengths[i]);
+        final ASTNode normalForm =
+            normalFormOffsets[i] < 0 ? null : read(normalFormOffsets[i], normalFormLengths[i]);
+        return new Entry(addresses[i], term, normalForm, steps[i]);
+    }
+
+    /** @return the number of distinct terms stored. */
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Forces everything stored so far out to the storage device. */
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        data.force(false);
+        index.force(false);
+    }
+
+    /** Closes the store's files. If the store is already closed, this method does nothing. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (isClosed) { return; }
+
+        isClosed = true;
+        try {
+            data.close();
+        } finally {
+            index.close();
+        }
+    }
+
+    /** A stored term, and its normal form if one was stored. */
+    public static class Entry {
+        private final int address;
+        private final ASTNode term;
+        private final ASTNode normalForm;
+        private final long steps;
+
+        private Entry(final int address, final ASTNode term, final ASTNode normalForm,
+                      final long steps)
+        {
+            this.address = address;
+            this.term = term;
+            this.normalForm = normalForm;
+            this.steps = steps;
+        }
+
+        public int address() {
+            return address;
+        }
+
+        public ASTNode term() {
+            return term;
+        }
+
+        public boolean hasNormalForm() {
+            return normalForm != null;
+        }
+
+        /** @return the term's normal form, or null if none was stored. */
+        public ASTNode normalForm() {
+            return normalForm;
+        }
+
+        /** @return the number of steps taken to reach the normal form, or 0 if none was stored. */
+        public long steps() {
+            return steps;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (isClosed) {
+            throw new IOException("Store is closed");
+        }
+    }
+
+    /** Opens a store file, writing its header if it is new and checking it otherwise. */
+    private static FileChannel openFile(final Path path, final int magic) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                                     StandardOpenOption.READ,
+                                                     StandardOpenOption.WRITE);
+        try {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.size() == 0) {
+                header.putInt(magic).putInt(FORMAT_VERSION).flip();
+                writeFully(channel, header, 0);
+                return channel;
+            }
+
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != magic) {
+                throw new IOException(String.format("Not a term store file: %s", path));
+            }
+            final int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException(String.format("Unsupported format version %d of %s",
+                                                    version, path));
+            }
+            return channel;
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Reads the index's records into memory, ignoring a partial record at its end. */
+    private void load() throws IOException {
+        final long records = (index.size() - HEADER_SIZE) / RECORD_SIZE;
+        final MappedByteBuffer mapped = index.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+                                                  records * RECORD_SIZE);
+        for (long r = 0; r < records; ++r) {
+            final int term = mapped.getInt();
+            if (term < 0 || term > size) {
+                throw new IOException(String.format("Corrupt index record %d", r));
+            }
+            register(term, mapped.getInt(), mapped.getLong(), mapped.getInt(), mapped.getLong(),
+                     mapped.getInt(), mapped.getLong());
+        }
+
+        // Drop a partial record, so that new records are aligned.
+        index.truncate(HEADER_SIZE + records * RECORD_SIZE);
+    }
+
+    /** @return the number of the stored term alpha-equivalent to the given one, or -1. */
+    private int find(final ASTNode term) throws IOException {
+        final Integer head = first.get(term.alphaHash());
+        for (int i = head != null ? head : -1; i >= 0; i = next[i]) {
+            if (ASTNode.alphaEquivalent(term, read(termOffsets[i], termLengths[i]))) { return i; }
+        }
+        return -1;
+    }
+
+    private void append(final int term, final ASTNode node, final long normalFormOffset,
+                        final int normalFormLength, final long steps)
+        throws IOException
+    {
+        final long offset = write(node);
+        record(term, node.alphaHash(), offset, (int) (data.size() - offset), normalFormOffset,
+               normalFormLength, steps);
+    }
+
+    /** Appends an index record, and registers it in memory. */
+    private void record(final int term, final int address, final long termOffset,
+                        final int termLength, final long normalFormOffset,
+                        final int normalFormLength, final long steps)
+        throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.putInt(term).putInt(address).putLong(termOffset).putInt(termLength)
+              .putLong(normalFormOffset).putInt(normalFormLength).putLong(steps).flip();
+        writeFully(index, buffer, index.size());
+        register(term, address, termOffset, termLength, normalFormOffset, normalFormLength, steps);
+    }
+
+    private void register(final int term, final int address, final long termOffset,
+                          final int termLength, final long normalFormOffset,
+                          final int normalFormLength, final long steps)
+    {
+        if (term == size) {
+            if (size == addresses.length) { grow(); }
+            ++size;
+
+            // Chain the term after the others at its address, keeping them in the order stored.
+            next[term] = -1;
+            final Integer head = first.get(address);
+            if (head == null) {
+                first.put(address, term);
+            } else {
+                int last = head;
+                while (next[last] >= 0) {
+                    last = next[last];
+                }
+                next[last] = term;
+            }
+        }
+
+        addresses[term] = address;
+        termOffsets[term] = termOffset;
+        termLengths[term] = termLength;
+        normalFormOffsets[term] = normalFormOffset;
+        normalFormLengths[term] = normalFormLength;
+        this.steps[term] = steps;
+    }
+
+    private void grow() {
+        final int capacity = addresses.length * 2;
+        addresses = Arrays.copyOf(addresses, capacity);
+        termOffsets = Arrays.copyOf(termOffsets, capacity);
+        termLengths = Arrays.copyOf(termLengths, capacity);
+        normalFormOffsets = Arrays.copyOf(normalFormOffsets, capacity);
+        normalFormLengths = Arrays.copyOf(normalFormLengths, capacity);
+        steps = Arrays.copyOf(steps, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+
+    /** Appends the encoding of the given term to the data file. @return its offset. */
+    private long write(final ASTNode root) throws IOException {
+        final long offset = data.size();
+        writeFully(data, ByteBuffer.wrap(BinaryCodec.encode(root)), offset);
+        return offset;
+    }
+
+    private ASTNode read(final long offset, final int length) throws IOException {
+        if (offset < HEADER_SIZE || length < 0 || offset + length > data.size()) {
+            throw new IOException(String.format("Term of %d bytes at %d lies outside the data file",
+                                                length, offset));
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(data, buffer, offset);
+        return BinaryCodec.decode(buffer.array(), factory);
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer,
+                                  final long position)
+        throws IOException
+    {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, at);
+            if (read < 0) { throw new EOFException("Unexpected end of store file"); }
+            at += read;
+        }
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer,
+                                   final long position)
+        throws IOException
+    {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            at += channel.write(buffer, at);
+        }
+    }
+}
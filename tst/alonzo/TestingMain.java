@@ -1,23 +1,69 @@
 package alonzo;
 
+import alonzo.ast.AlphaEquivalenceTest;
+import alonzo.ast.SharingNodeFactoryTest;
+import alonzo.ast.SymbolSetTest;
+import alonzo.ast.SymbolTableTest;
+import alonzo.ast.arena.TermArenaTest;
+import alonzo.ast.codec.BinaryCodecTest;
 import alonzo.ast.fmt.FormatterTest;
+import alonzo.ast.nameless.DeBruijnTest;
+import alonzo.ast.parser.ParserTest;
+import alonzo.ast.parser.Utf8LexerTest;
 import alonzo.common.ValidateTest;
+import alonzo.eval.BohmTreeFormatterTest;
+import alonzo.eval.BytecodeEvaluatorTest;
+import alonzo.eval.CachingEvaluatorTest;
+import alonzo.eval.CompilingEvaluatorTest;
+import alonzo.eval.GMachineEvaluatorTest;
+import alonzo.eval.InteractionNetEvaluatorTest;
+import alonzo.eval.KrivineEvaluatorTest;
+import alonzo.eval.LambdaLifterTest;
+import alonzo.eval.NormalFormCacheTest;
+import alonzo.eval.NormalOrderEvaluatorTest;
+import alonzo.eval.ParallelEvaluatorTest;
+import alonzo.eval.StrategyEvaluatorTest;
 import alonzo.io.AlonzoReaderTest;
+import alonzo.io.MappedFileReaderTest;
 import alonzo.io.ReaderResultTest;
 import alonzo.io.SourceLocationTest;
 import alonzo.io.StubReaderTest;
+import alonzo.io.TermStoreTest;
 import alonzo.unit.TestRunner;
 
 public class TestingMain {
 
     public static void main(final String[] args) {
         new TestRunner()
+            .withTest(AlphaEquivalenceTest.class)
+            .withTest(SymbolSetTest.class)
+            .withTest(SymbolTableTest.class)
+            .withTest(SharingNodeFactoryTest.class)
+            .withTest(TermArenaTest.class)
+            .withTest(BinaryCodecTest.class)
+            .withTest(DeBruijnTest.class)
             .withTest(FormatterTest.class)
+            .withTest(ParserTest.class)
+            .withTest(Utf8LexerTest.class)
+            .withTest(NormalOrderEvaluatorTest.class)
+            .withTest(StrategyEvaluatorTest.class)
+            .withTest(BohmTreeFormatterTest.class)
+            .withTest(KrivineEvaluatorTest.class)
+            .withTest(InteractionNetEvaluatorTest.class)
+            .withTest(ParallelEvaluatorTest.class)
+            .withTest(CompilingEvaluatorTest.class)
+            .withTest(BytecodeEvaluatorTest.class)
+            .withTest(LambdaLifterTest.class)
+            .withTest(GMachineEvaluatorTest.class)
+            .withTest(NormalFormCacheTest.class)
+            .withTest(CachingEvaluatorTest.class)
             .withTest(ValidateTest.class)
             .withTest(StubReaderTest.class)
             .withTest(AlonzoReaderTest.class)
+            .withTest(MappedFileReaderTest.class)
             .withTest(ReaderResultTest.class)
             .withTest(SourceLocationTest.class)
+            .withTest(TermStoreTest.class)
             .run();
     }
 
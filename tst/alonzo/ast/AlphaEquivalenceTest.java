@@ -0,0 +1,112 @@
+package alonzo.ast;
+
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertFalse;
+import static alonzo.unit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class AlphaEquivalenceTest {
+
+    private final Parser parser = new IterativeParser();
+
+    @Test
+    public void equivalentTerms() {
+        assertEquivalent("λx.x", "λy.y");
+        assertEquivalent("λx.λy.(x y)", "λy.λx.(y x)");
+        assertEquivalent("λx.λx.x", "λy.λz.z");
+        assertEquivalent("(λx.(x y)) z", "(λw.(w y)) z");
+        assertEquivalent("x", "x");
+    }
+
+    @Test
+    public void differentTerms() {
+        assertDifferent("λx.λy.x", "λx.λy.y");
+        assertDifferent("λx.(x y)", "λx.(x z)");
+        assertDifferent("λx.y", "λy.y");
+        assertDifferent("x y", "y x");
+        assertDifferent("λx.(x x)", "(λx.x) x");
+        assertDifferent("x", "y");
+    }
+
+    @Test
+    public void hashesMatchNamelessForm() {
+        final String[] inputs = {
+            "x", "λx.x", "λx.λy.(x (y z))", "(λx.(x x)) (λy.(y y))", "λx.λx.(x (λy.x))",
+        };
+        for (final String input : inputs) {
+            final ASTNode node = parser.parse(input);
+            assertEquals(DeBruijn.toNameless(node).hashCode(), node.alphaHash());
+        }
+    }
+
+    @Test
+    public void acrossTables() {
+        final ASTNode a = new IterativeParser(new SymbolTable()).parse("λx.(x y)");
+        final ASTNode b = new IterativeParser(new SymbolTable()).parse("λz.(z y)");
+        final ASTNode c = new IterativeParser(new SymbolTable()).parse("λz.(z x)");
+
+        assertTrue(ASTNode.alphaEquivalent(a, b));
+        assertFalse(ASTNode.alphaEquivalent(a, c));
+    }
+
+    @Test
+    public void deduplication() {
+        final Set<ASTNode> terms = new HashSet<>();
+        terms.add(parser.parse("λx.λy.(x y)"));
+        terms.add(parser.parse("λa.λb.(a b)"));
+        terms.add(parser.parse("λa.λb.(b a)"));
+
+        assertEquals(2, terms.size());
+        assertTrue(terms.contains(parser.parse("λf.λg.(f g)")));
+    }
+
+    @Test
+    public void sharedSubterms() {
+        final ASTNode closed = parser.parse("λx.λy.(x (y x))");
+        final Var x = new Var("x");
+        final ASTNode a = new Fun(x, new App(x, closed));
+        final ASTNode b = new Fun(new Var("y"), new App(new Var("y"), closed));
+
+        assertTrue(ASTNode.alphaEquivalent(a, b));
+        // A shared open subterm may mean different things in each scope.
+        assertFalse(ASTNode.alphaEquivalent(new Fun(x, new Fun(new Var("y"), x)),
+                                            new Fun(new Var("y"), new Fun(x, x))));
+    }
+
+    @Test
+    public void deepTerms() {
+        final int depth = 100000;
+        ASTNode a = new Var("x");
+        ASTNode b = new Var("x");
+        for (int i = 0; i < depth; ++i) {
+            a = new Fun(new Var("y"), new App(new Var("y"), a));
+            b = new Fun(new Var("z"), new App(new Var("z"), b));
+        }
+
+        assertTrue(ASTNode.alphaEquivalent(a, b));
+        assertFalse(ASTNode.alphaEquivalent(a, new App(b, new Var("x"))));
+    }
+
+    private void assertEquivalent(final String a, final String b) {
+        final ASTNode left = parser.parse(a);
+        final ASTNode right = parser.parse(b);
+        assertTrue(ASTNode.alphaEquivalent(left, right));
+        assertTrue(left.equals(right));
+        assertEquals(left.alphaHash(), right.alphaHash());
+        assertEquals(left.hashCode(), right.hashCode());
+    }
+
+    private void assertDifferent(final String a, final String b) {
+        final ASTNode left = parser.parse(a);
+        final ASTNode right = parser.parse(b);
+        assertFalse(ASTNode.alphaEquivalent(left, right));
+        assertFalse(left.equals(right));
+    }
+}
@@ -0,0 +1,101 @@
+package alonzo.ast;
+
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertFalse;
+import static alonzo.unit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.unit.Test;
+
+public class SharingNodeFactoryTest {
+
+    private final Formatter fmt = new IterativeFormatter();
+
+    @Test
+    public void structuralHash() {
+        final ASTNode a = new App(new Fun(new Var("x"), new Var("x")), new Var("y"));
+        final ASTNode b = new App(new Fun(new Var("x"), new Var("x")), new Var("y"));
+        final ASTNode c = new App(new Fun(new Var("x"), new Var("x")), new Var("z"));
+
+        assertEquals(a.structuralHash(), b.structuralHash());
+        assertFalse(a.structuralHash() == c.structuralHash());
+        assertEquals(new Var("x").structuralHash(),
+                     new Var("x", new SymbolTable()).structuralHash());
+    }
+
+    @Test
+    public void identicalNodesAreShared() {
+        final SharingNodeFactory factory = new SharingNodeFactory(new SymbolTable());
+
+        final Var x = factory.var("x");
+        assertTrue(x == factory.var(new StringBuilder("x")));
+
+        final Fun id = factory.fun(x, x);
+        assertTrue(id == factory.fun(factory.var("x"), factory.var("x")));
+        assertTrue(id == factory.fun(new Var("x"), x));
+        assertFalse(id == factory.fun(x, factory.var("y")));
+
+        final App app = factory.app(id, id);
+        assertTrue(app == factory.app(id, factory.fun(x, x)));
+        assertFalse(app == factory.app(id, x));
+
+        // x, y, λx.x, λx.y, (λx.x λx.x), (λx.x x)
+        assertEquals(6, factory.size());
+    }
+
+    @Test
+    public void parserBuildsSharedTerms() {
+        final SharingNodeFactory factory = new SharingNodeFactory(new SymbolTable());
+        final IterativeParser parser = new IterativeParser(factory);
+
+        final App ycombinator = (App) ((Fun) parser.parse("λf.(λx.f (x x)) (λx.f (x x))")).body();
+        assertTrue(ycombinator.function() == ycombinator.argument());
+
+        final ASTNode again = parser.parse("(λx.f (x x))".getBytes(StandardCharsets.UTF_8));
+        assertTrue(again == ycombinator.argument());
+    }
+
+    @Test
+    public void share() {
+        final SharingNodeFactory factory = new SharingNodeFactory(new SymbolTable());
+        final ASTNode foreign = new App(new Fun(new Var("x"), new Var("x")),
+                                        new Fun(new Var("x"), new Var("x")));
+
+        final App shared = (App) factory.share(foreign);
+        assertEquals(fmt.format(foreign), fmt.format(shared));
+        assertTrue(shared.function() == shared.argument());
+        assertTrue(shared == factory.share(shared));
+        assertTrue(shared == factory.share(foreign));
+    }
+
+    @Test
+    public void shareVisitsEachNodeOnce() {
+        // As a tree this term has 2^64 leaves, but it only has 65 distinct nodes.
+        ASTNode term = new Var("x");
+        for (int i = 0; i < 64; ++i) {
+            term = new App(term, term);
+        }
+
+        final SharingNodeFactory factory = new SharingNodeFactory(new SymbolTable());
+        final ASTNode shared = factory.share(term);
+
+        assertEquals(term.structuralHash(), shared.structuralHash());
+        assertEquals(65, factory.size());
+    }
+
+    @Test
+    public void shareDeepTerm() {
+        Fun fun = new Fun(new Var("x"), new Var("x"));
+        for (int i = 0; i < 100000; ++i) {
+            fun = new Fun(new Var("x"), fun);
+        }
+
+        final SharingNodeFactory factory = new SharingNodeFactory(new SymbolTable());
+        assertEquals(fun.structuralHash(), factory.share(fun).structuralHash());
+        assertEquals(100002, factory.size());
+    }
+}
@@ -0,0 +1,111 @@
+package alonzo.ast;
+
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertFalse;
+import static alonzo.unit.Assert.assertTrue;
+
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class SymbolSetTest {
+
+    private final Parser parser = new IterativeParser();
+
+    @Test
+    public void freeVariables() {
+        final ASTNode node = parser.parse("(λx.(x y)) (λy.(z y))");
+
+        assertEquals("[y, z]", node.freeVariables().names().toString());
+        assertTrue(node.freeVariables().contains("y"));
+        assertFalse(node.freeVariables().contains("x"));
+        assertFalse(node.isClosed());
+        assertTrue(parser.parse("λx.λy.(x y)").isClosed());
+        assertEquals("[y]", ((App) node).function().freeVariables().names().toString());
+    }
+
+    @Test
+    public void sizeAndDepth() {
+        final ASTNode node = parser.parse("(λx.(x y)) z");
+
+        assertEquals(6L, node.size());
+        assertEquals(4, node.depth());
+        assertEquals(1L, new Var("x").size());
+        assertEquals(1, new Var("x").depth());
+    }
+
+    @Test
+    public void setsAreShared() {
+        final Var x = new Var("x");
+        final Var y = new Var("y");
+        final SymbolSet xs = SymbolSet.of(x);
+        final SymbolSet both = xs.union(SymbolSet.of(y));
+
+        assertTrue(xs.union(xs) == xs);
+        assertTrue(both.union(xs) == both);
+        assertTrue(xs.union(SymbolSet.empty()) == xs);
+        assertTrue(SymbolSet.empty().union(xs) == xs);
+        assertTrue(both.without(new Var("z")) == both);
+        assertTrue(xs.without(x).isEmpty());
+        assertEquals(1, both.without(x).size());
+    }
+
+    @Test
+    public void acrossTables() {
+        final SymbolTable symbols = new SymbolTable();
+        final SymbolSet ours = SymbolSet.of(new Var("x", symbols));
+        final SymbolSet shared = ours.union(SymbolSet.of(new Var("x")));
+        final SymbolSet mixed = ours.union(SymbolSet.of(new Var("u", new SymbolTable())));
+
+        assertTrue(shared == ours);
+        assertEquals(2, mixed.size());
+        assertTrue(mixed.contains(new Var("x")));
+        assertTrue(mixed.contains("u"));
+        assertEquals(1, mixed.without(new Var("u", symbols)).size());
+
+        final SymbolSet other = SymbolSet.of(new Var("v", new SymbolTable()));
+        final SymbolSet wider = mixed.union(other);
+        assertTrue(mixed.symbols() == null);
+        assertTrue(wider.symbols() == null);
+        assertEquals(3, wider.size());
+        assertTrue(wider.contains("v"));
+        assertEquals("[u, v, x]", wider.names().toString());
+        assertEquals("[u, v, x]", other.union(mixed).names().toString());
+        assertTrue(wider.union(mixed) == wider);
+        assertTrue(mixed.union(wider) == wider);
+        assertTrue(wider.union(ours) == wider);
+        assertEquals("[u, x]", wider.without(new Var("v")).names().toString());
+    }
+
+    @Test
+    public void largeSetsAreNotKept() {
+        ASTNode node = new Var("x");
+        for (int i = 0; i < ASTNode.MAX_FREE_VARIABLES; ++i) {
+            node = new App(node, new Var("v" + i));
+        }
+
+        assertTrue(node.freeVariables() == null);
+        assertFalse(node.isClosed());
+        assertTrue(new Fun(new Var("w"), node).freeVariables() == null);
+        assertEquals(ASTNode.MAX_FREE_VARIABLES,
+                     new Fun(new Var("x"), node).freeVariables().size());
+    }
+
+    @Test
+    public void largeSetsAreRecoveredByBinders() {
+        final int count = ASTNode.MAX_FREE_VARIABLES + 1;
+        ASTNode node = new Var("x0");
+        for (int i = 1; i < count; ++i) {
+            node = new App(node, new Var("x" + i));
+        }
+        for (int i = count - 1; i >= 0; --i) {
+            node = new Fun(new Var("x" + i), node);
+            if (i == 1) { assertEquals("[x0]", node.freeVariables().names().toString()); }
+        }
+
+        assertTrue(node.isClosed());
+        assertEquals(0, node.freeVariables().size());
+        assertTrue(new App(node, node).isClosed());
+        assertTrue(((Fun) ((Fun) node).body()).body().freeVariables().contains("x1"));
+    }
+}
@@ -0,0 +1,159 @@
+package alonzo.ast;
+
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertFalse;
+import static alonzo.unit.Assert.assertTrue;
+import static alonzo.unit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import alonzo.ast.parser.IterativeParser;
+import alonzo.unit.Test;
+
+public class SymbolTableTest {
+
+    @Test
+    public void intern() {
+        final SymbolTable symbols = new SymbolTable();
+
+        assertEquals(0, symbols.intern("x"));
+        assertEquals(1, symbols.intern(new StringBuilder("y")));
+        assertEquals(0, symbols.intern(new StringBuilder("x")));
+        assertEquals(2, symbols.size());
+
+        assertEquals("x", symbols.name(0));
+        assertEquals("y", symbols.name(1));
+        assertTrue(symbols.contains("y"));
+        assertFalse(symbols.contains("z"));
+    }
+
+    @Test
+    public void growth() {
+        final SymbolTable symbols = new SymbolTable();
+
+        for (int i = 0; i < 10000; ++i) {
+            assertEquals(i, symbols.intern("name" + i));
+        }
+        for (int i = 0; i < 10000; ++i) {
+            assertEquals(i, symbols.intern("name" + i));
+            assertEquals("name" + i, symbols.name(i));
+        }
+        assertEquals(10000, symbols.size());
+    }
+
+    @Test
+    public void unknownSymbol() {
+        try {
+            new SymbolTable().name(0);
+            fail("Expected IllegalArgumentException.");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("unknown symbol (0)", e.getMessage());
+        }
+    }
+
+    @Test
+    public void varsShareNames() {
+        final SymbolTable symbols = new SymbolTable();
+        final Var a = new Var("x", symbols);
+        final Var b = new Var(new String("x"), symbols);
+        final Var c = new Var("y", symbols);
+
+        assertEquals(a.symbol(), b.symbol());
+        assertTrue(a.name() == b.name());
+        assertTrue(a.sameName(b));
+        assertFalse(a.sameName(c));
+
+        final Var other = new Var("x", new SymbolTable());
+        assertTrue(a.sameName(other));
+        assertFalse(c.sameName(other));
+    }
+
+    @Test
+    public void parserInterns() {
+        final SymbolTable symbols = new SymbolTable();
+        final IterativeParser parser = new IterativeParser(symbols);
+
+        final App app = (App) parser.parse("(λx.x) x");
+        final Fun fun = (Fun) app.function();
+        final Var body = (Var) fun.body();
+
+        assertEquals(1, symbols.size());
+        assertTrue(fun.parameter().symbols() == symbols);
+        assertEquals(fun.parameter().symbol(), body.symbol());
+        assertTrue(body.name() == ((Var) app.argument()).name());
+
+        final App bytes = (App) parser.parse("(λx.x) é".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, ((Fun) bytes.function()).parameter().symbol());
+        assertEquals(1, ((Var) bytes.argument()).symbol());
+    }
+
+    @Test
+    public void currentIsPerThread() throws InterruptedException {
+        final AtomicReference<SymbolTable> other = new AtomicReference<>();
+        final Thread thread = new Thread(() -> other.set(SymbolTable.current()));
+        thread.start();
+        thread.join();
+
+        assertTrue(SymbolTable.current() == SymbolTable.current());
+        assertTrue(SymbolTable.current() == new Var("x").symbols());
+        assertFalse(SymbolTable.current() == other.get());
+    }
+
+    @Test
+    public void withTable() {
+        final SymbolTable outer = SymbolTable.current();
+        final SymbolTable scoped = new SymbolTable();
+
+        final Var var = SymbolTable.withTable(scoped, () -> new Var("scoped"));
+        assertTrue(var.symbols() == scoped);
+        assertTrue(SymbolTable.current() == outer);
+        assertFalse(outer.contains("scoped"));
+
+        try {
+            SymbolTable.withTable(scoped, () -> { throw new IllegalStateException(); });
+            fail("Expected IllegalStateException.");
+        } catch (final IllegalStateException e) {
+            assertTrue(SymbolTable.current() == outer);
+        }
+    }
+
+    @Test
+    public void reset() {
+        final SymbolTable before = SymbolTable.current();
+        new Var("forgotten");
+
+        SymbolTable.reset();
+        assertFalse(SymbolTable.current() == before);
+        assertFalse(SymbolTable.current().contains("forgotten"));
+    }
+
+    @Test
+    public void concurrentInterning() throws InterruptedException {
+        final SymbolTable symbols = new SymbolTable();
+        final int names = 10_000;
+        final int[][] assigned = new int[4][names];
+        final Thread[] threads = new Thread[assigned.length];
+        for (int t = 0; t < threads.length; ++t) {
+            final int[] mine = assigned[t];
+            final boolean reversed = t % 2 == 1;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < names; ++i) {
+                    final int name = reversed ? names - 1 - i : i;
+                    mine[name] = symbols.intern("x" + name);
+                }
+            });
+        }
+        for (final Thread thread : threads) { thread.start(); }
+        for (final Thread thread : threads) { thread.join(); }
+
+        assertEquals(names, symbols.size());
+        for (int i = 0; i < names; ++i) {
+            for (final int[] symbolsOfThread : assigned) {
+                assertEquals(assigned[0][i], symbolsOfThread[i]);
+            }
+            assertEquals("x" + i, symbols.name(assigned[0][i]));
+            assertEquals(assigned[0][i], symbols.symbol("x" + i));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package alonzo.ast.arena;
+
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertTrue;
+import static alonzo.unit.Assert.fail;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.SharingNodeFactory;
+import alonzo.ast.SymbolTable;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.unit.Test;
+
+public class TermArenaTest {
+
+    private final Formatter fmt = new IterativeFormatter();
+
+    @Test
+    public void buildNodes() {
+        final SymbolTable symbols = new SymbolTable();
+        final TermArena arena = new TermArena(symbols, 0);
+        final int x = symbols.intern("x");
+
+        final int var = arena.var(x);
+        final int id = arena.fun(x, var);
+        final int app = arena.app(id, arena.var(symbols.intern("y")));
+
+        assertEquals(4, arena.size());
+        assertEquals(TermArena.VAR, arena.kind(var));
+        assertEquals(x, arena.symbol(var));
+        assertEquals(TermArena.FUN, arena.kind(id));
+        assertEquals(var, arena.left(id));
+        assertEquals(TermArena.NONE, arena.right(id));
+        assertEquals(TermArena.APP, arena.kind(app));
+        assertEquals(id, arena.left(app));
+        assertEquals("((λx.x) y)", fmt.format(arena.toAST(app)));
+
+        arena.clear();
+        assertEquals(0, arena.size());
+    }
+
+    @Test
+    public void childrenMustAlreadyExist() {
+        final TermArena arena = new TermArena(new SymbolTable(), 0);
+        try {
+            arena.app(0, 0);
+            fail("Expected an IndexOutOfBoundsException");
+        } catch (final IndexOutOfBoundsException e) {
+            assertEquals("node 0 of 0", e.getMessage());
+        }
+    }
+
+    @Test
+    public void roundTrip() {
+        final SymbolTable symbols = new SymbolTable();
+        final IterativeParser parser = new IterativeParser(symbols);
+        final TermArena arena = new TermArena(symbols, 0);
+
+        final String[] terms = {
+            "x", "(λx.x)", "((λx.(x x)) (λy.(y z)))", "(λf.((λx.(f (x x))) (λx.(f (x x)))))",
+        };
+        for (final String term : terms) {
+            assertEquals(term, fmt.format(arena.toAST(arena.fromAST(parser.parse(term)))));
+        }
+    }
+
+    @Test
+    public void namesFromOtherTables() {
+        final SymbolTable symbols = new SymbolTable();
+        final TermArena arena = new TermArena(symbols, 0);
+
+        final int root = arena.fromAST(new IterativeParser(new SymbolTable()).parse("λa.(a b)"));
+        assertEquals(2, symbols.size());
+        assertEquals("(λa.(a b))", fmt.format(arena.toAST(root)));
+    }
+
+    @Test
+    public void sharedSubtermsAreAddedOnce() {
+        final SymbolTable symbols = new SymbolTable();
+        final SharingNodeFactory factory = new SharingNodeFactory(symbols);
+        final TermArena arena = new TermArena(symbols, 0);
+
+        final ASTNode term = new IterativeParser(factory).parse("((λx.(x x)) (λx.(x x)))");
+        final int root = arena.fromAST(term);
+        // x, (x x), λx.(x x), (λx.(x x) λx.(x x))
+        assertEquals(4, arena.size());
+        assertEquals(arena.left(root), arena.right(root));
+
+        final App shared = (App) arena.toAST(root, factory);
+        assertTrue(shared == term);
+    }
+
+    @Test
+    public void deepTerms() {
+        final SymbolTable symbols = new SymbolTable();
+        final TermArena arena = new TermArena(symbols, 0);
+        final int x = symbols.intern("x");
+
+        final int depth = 100000;
+        int root = arena.var(x);
+        for (int i = 0; i < depth; ++i) {
+            root = arena.fun(x, root);
+        }
+
+        final ASTNode term = arena.toAST(root);
+        final TermArena copy = new TermArena(symbols, arena.size());
+        final int copied = copy.fromAST(term);
+        assertEquals(arena.size(), copy.size());
+        for (int node = 0; node < copy.size(); ++node) {
+            assertEquals(arena.kind(node), copy.kind(node));
+            assertEquals(arena.left(node), copy.left(node));
+        }
+        assertEquals(root, copied);
+    }
+}
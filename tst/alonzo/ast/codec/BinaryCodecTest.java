@@ -0,0 +1,161 @@
+package alonzo.ast.codec;
+
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertTrue;
+import static alonzo.unit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.Var;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class BinaryCodecTest {
+
+    private final Parser parser = new IterativeParser();
+    private final Formatter fmt = new IterativeFormatter();
+    private final NodeFactory factory = new NodeFactory();
+
+    @Test
+    public void roundTrips() throws IOException {
+        final String[] inputs = {
+            "x", "λx.x", "(λx.(x x)) (λy.(y y))", "λf.λx.(f (f (f x)))", "λé.(é ü)",
+        };
+        for (final String input : inputs) {
+            final ASTNode term = parser.parse(input);
+            assertEquals(fmt.format(term),
+                         fmt.format(BinaryCodec.decode(BinaryCodec.encode(term), factory)));
+        }
+    }
+
+    @Test
+    public void encoding() {
+        final byte[] expected = {
+            BinaryCodec.VERSION,
+            2, 1, 'x', 1, 'y',
+            BinaryCodec.VAR, 0,
+            BinaryCodec.VAR, 1,
+            BinaryCodec.APP,
+            BinaryCodec.FUN, 0,
+            BinaryCodec.END,
+        };
+        assertEquals(Arrays.toString(expected),
+                     Arrays.toString(BinaryCodec.encode(parser.parse("λx.(x y)"))));
+    }
+
+    @Test
+    public void sharedSubterms() throws IOException {
+        // Doubling a shared term makes a tree of 2^40 nodes, but a graph of 41.
+        ASTNode term = new Var("x");
+        for (int i = 0; i < 40; ++i) {
+            term = new App(term, term);
+        }
+
+        final byte[] encoded = BinaryCodec.encode(term);
+        assertTrue(encoded.length < 200);
+
+        final App decoded = (App) BinaryCodec.decode(encoded, factory);
+        assertTrue(decoded.function() == decoded.argument());
+        assertEquals(term.size(), decoded.size());
+    }
+
+    @Test
+    public void streams() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryCodec.write(parser.parse("λx.x"), out);
+        BinaryCodec.write(parser.parse("a b"), out);
+
+        final ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertEquals("(λx.x)", fmt.format(BinaryCodec.read(in, factory)));
+        assertEquals("(a b)", fmt.format(BinaryCodec.read(in, factory)));
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void buffers() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) 42);
+        BinaryCodec.write(parser.parse("λx.(x z)"), buffer);
+        final int end = buffer.position();
+
+        buffer.flip();
+        buffer.get();
+        assertEquals("(λx.(x z))", fmt.format(BinaryCodec.read(buffer, factory)));
+        assertEquals(end, buffer.position());
+    }
+
+    @Test
+    public void malformedInput() {
+        assertMalformed("Unsupported encoding version 9", 9);
+        assertMalformed("Truncated term", BinaryCodec.VERSION, 1, 1, 'x');
+        assertMalformed("Unknown node tag 7", BinaryCodec.VERSION, 0, 7);
+        assertMalformed("Unknown symbol 0", BinaryCodec.VERSION, 0, BinaryCodec.VAR, 0);
+        assertMalformed("APP without enough operands",
+                        BinaryCodec.VERSION, 1, 1, 'x', BinaryCodec.VAR, 0, BinaryCodec.APP);
+        assertMalformed("Back-reference 1 out of range",
+                        BinaryCodec.VERSION, 0, BinaryCodec.REF, 1);
+        assertMalformed("Term ends with 0 nodes unused", BinaryCodec.VERSION, 0, BinaryCodec.END);
+        assertMalformed("Malformed varint", BinaryCodec.VERSION, 0xFF, 0xFF, 0xFF, 0xFF, 0x7F);
+        assertMalformed("Trailing bytes after term",
+                        BinaryCodec.VERSION, 1, 1, 'x', BinaryCodec.VAR, 0, BinaryCodec.END, 0);
+    }
+
+    @Test
+    public void malformedHeader() {
+        assertMalformed("Symbol count 2147483647 exceeds the 0 bytes left",
+                        BinaryCodec.VERSION, 0xFF, 0xFF, 0xFF, 0xFF, 0x07);
+        assertMalformed("Name length 2147483647 exceeds the 2 bytes left",
+                        BinaryCodec.VERSION, 1, 0xFF, 0xFF, 0xFF, 0xFF, 0x07, 'x', 'y');
+
+        // Streams don't tell how many bytes are left, so the input runs out first.
+        for (final byte[] encoded : new byte[][] {
+                 { BinaryCodec.VERSION, -1, -1, -1, -1, 0x07 },
+                 { BinaryCodec.VERSION, 1, -1, -1, -1, -1, 0x07, 'x' } })
+        {
+            try {
+                BinaryCodec.read(new ByteArrayInputStream(encoded), factory);
+                fail("Expected IOException.");
+            } catch (final IOException e) {
+                assertEquals("Truncated term", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void deepTerms() throws IOException {
+        final int depth = 100000;
+        ASTNode term = new Var("x");
+        for (int i = 0; i < depth; ++i) {
+            term = new Fun(new Var("z"), new App(new Var("z"), term));
+        }
+
+        final ASTNode decoded = BinaryCodec.decode(BinaryCodec.encode(term), factory);
+        assertTrue(ASTNode.alphaEquivalent(term, decoded));
+        assertEquals(term.depth(), decoded.depth());
+    }
+
+    private void assertMalformed(final String message, final int... bytes) {
+        final byte[] encoded = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; ++i) {
+            encoded[i] = (byte) bytes[i];
+        }
+
+        try {
+            BinaryCodec.decode(encoded, factory);
+            fail("Expected IOException.");
+        } catch (final IOException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+}
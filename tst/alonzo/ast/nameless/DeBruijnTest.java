@@ -0,0 +1,104 @@
+package alonzo.ast.nameless;
+
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertFalse;
+import static alonzo.unit.Assert.assertTrue;
+import static alonzo.unit.Assert.fail;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.Fun;
+import alonzo.ast.Var;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class DeBruijnTest {
+
+    private final Parser parser = new IterativeParser();
+    private final Formatter fmt = new IterativeFormatter();
+
+    @Test
+    public void indexes() {
+        final Term term = nameless("λx.λy.(x (y z))");
+
+        final Term expected =
+            new Lambda("x", new Lambda("y", new Apply(new Bound(1),
+                                                      new Apply(new Bound(0), new Free("z")))));
+        assertEquals(expected, term);
+        assertEquals(expected.hashCode(), term.hashCode());
+        assertEquals("y", ((Lambda) ((Lambda) term).body()).hint());
+    }
+
+    @Test
+    public void shadowing() {
+        assertEquals(new Lambda("x", new Lambda("x", new Bound(0))), nameless("λx.λx.x"));
+        assertEquals(new Apply(new Free("x"), new Lambda("x", new Bound(0))), nameless("x λx.x"));
+    }
+
+    @Test
+    public void alphaEquivalence() {
+        assertEquals(nameless("λx.λy.(x y)"), nameless("λa.λb.(a b)"));
+        assertEquals(nameless("λx.(x y)"), nameless("λz.(z y)"));
+        assertFalse(nameless("λx.λy.(x y)").equals(nameless("λx.λy.(y x)")));
+        assertFalse(nameless("λx.(x y)").equals(nameless("λx.(x z)")));
+        assertFalse(nameless("λx.x").equals(nameless("λx.y")));
+    }
+
+    @Test
+    public void roundTrip() {
+        final String[] terms = {
+            "x", "(λx.x)", "((λx.(x x)) (λy.(y z)))", "(λf.((λx.(f (x x))) (λx.(f (x x)))))",
+        };
+        for (final String term : terms) {
+            assertEquals(term, fmt.format(DeBruijn.toAST(nameless(term))));
+        }
+    }
+
+    @Test
+    public void shadowedNamesAreRenamed() {
+        assertEquals("(λx.(λx1.x1))", fmt.format(DeBruijn.toAST(nameless("λx.λx.x"))));
+        assertEquals("(x (λx1.x1))", fmt.format(DeBruijn.toAST(nameless("x λx.x"))));
+    }
+
+    @Test
+    public void generatedNamesAvoidCapture() {
+        // λy.λx.(y x), where x is free: naming the inner parameter x would capture it.
+        final Term term = new Lambda("y", new Lambda("x", new Apply(new Bound(1), new Free("x"))));
+        final ASTNode named = DeBruijn.toAST(term);
+
+        assertEquals("(λy.(λx1.(y x)))", fmt.format(named));
+        assertEquals(term, DeBruijn.toNameless(named));
+
+        final Term suffixed = new Lambda("x1", new Lambda("x1", new Bound(1)));
+        assertEquals("(λx1.(λx2.x1))", fmt.format(DeBruijn.toAST(suffixed)));
+    }
+
+    @Test
+    public void unboundIndex() {
+        try {
+            DeBruijn.toAST(new Lambda("x", new Bound(1)));
+            fail("Expected an IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("unbound index (1)", e.getMessage());
+        }
+    }
+
+    @Test
+    public void deepTerms() {
+        final int depth = 100000;
+        ASTNode term = new Var("x");
+        for (int i = 0; i < depth; ++i) {
+            term = new Fun(new Var("x"), term);
+        }
+
+        final Term converted = DeBruijn.toNameless(term);
+        assertTrue(converted.equals(DeBruijn.toNameless(term)));
+        assertTrue(converted.equals(DeBruijn.toNameless(DeBruijn.toAST(converted))));
+    }
+
+    private Term nameless(final String input) {
+        return DeBruijn.toNameless(parser.parse(input));
+    }
+}
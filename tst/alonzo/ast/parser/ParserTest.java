@@ -0,0 +1,157 @@
+package alonzo.ast.parser;
+
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertTrue;
+import static alonzo.unit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.exc.ParseException;
+import alonzo.io.SourceLocation;
+import alonzo.unit.Test;
+
+public class ParserTest {
+
+    private final IterativeParser parser = new IterativeParser();
+    private final Formatter fmt = new IterativeFormatter();
+
+    @Test
+    public void parseVar() {
+        final ASTNode node = parser.parse("  testVariableName\n");
+
+        assertTrue(node.isVar());
+        assertEquals("testVariableName", fmt.format(node));
+    }
+
+    @Test
+    public void parseFun() {
+        assertEquals("(λvar.body)", format("(λvar.body)"));
+        assertEquals("(λvar.body)", format("λ var . body"));
+        assertEquals("(λvar.body)", format("\\var.body"));
+    }
+
+    @Test
+    public void parseApp() {
+        assertEquals("((λx.x) y)", format("((λx.x) y)"));
+        assertEquals("((f x) y)", format("f x y"));
+        assertEquals("(f (x y))", format("f (x y)"));
+    }
+
+    @Test
+    public void lambdaBodyExtendsRight() {
+        assertEquals("(λx.(λy.((x y) z)))", format("λx.λy.x y z"));
+        assertEquals("(a (λx.(x y)))", format("a λx.x y"));
+        assertEquals("((λx.x) y)", format("(λx.x) y"));
+    }
+
+    @Test
+    public void roundTripsFormatterOutput() {
+        final String ycombinator = "(λf.((λx.(f (x x))) (λx.(f (x x)))))";
+
+        assertEquals(ycombinator, format(ycombinator));
+    }
+
+    @Test
+    public void parseBytes() {
+        final byte[] bytes = "λx.\u2003(f\tx)\u00e9 😀".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("(λx.(((f x) é) 😀))", fmt.format(parser.parse(bytes)));
+        assertEquals("(λx.(((f x) é) 😀))", fmt.format(parser.parse(ByteBuffer.wrap(bytes))));
+        assertEquals("(λx.(((f x) é) 😀))", fmt.format(parser.parse(direct(bytes))));
+    }
+
+    @Test
+    public void parseInputStream() throws IOException {
+        final byte[] bytes = "(λx.x) y".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("((λx.x) y)", fmt.format(parser.parse(new ByteArrayInputStream(bytes))));
+    }
+
+    @Test
+    public void parsePath() throws IOException {
+        final String ycombinator = "(λf.((λx.(f (x x))) (λx.(f (x x)))))";
+        final Path file = Files.createTempFile("alonzo", ".lc");
+
+        try {
+            Files.write(file, ycombinator.getBytes(StandardCharsets.UTF_8));
+            assertEquals(ycombinator, fmt.format(parser.parse(file)));
+
+            Files.write(file, ycombinator.getBytes(StandardCharsets.UTF_16));
+            assertEquals(ycombinator,
+                         fmt.format(new IterativeParser(StandardCharsets.UTF_16).parse(file)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void deeplyNestedInput() {
+        final int depth = 100000;
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < depth; ++i) { input.append("(λx."); }
+        input.append('x');
+        for (int i = 0; i < depth; ++i) { input.append(')'); }
+
+        assertEquals(input.toString(), fmt.format(parser.parse(input.toString())));
+    }
+
+    @Test
+    public void errors() {
+        assertParseError("", "Expected a term", SourceLocation.of(0, 1));
+        assertParseError("x )", "Unmatched ')'", SourceLocation.of(2, 1));
+        assertParseError("(x", "Unclosed '('", SourceLocation.of(0, 1));
+        assertParseError("f ()", "Empty parentheses", SourceLocation.of(2, 1));
+        assertParseError("λx.", "Empty function body", SourceLocation.of(0, 1));
+        assertParseError("λ.x", "Expected a parameter name", SourceLocation.of(1, 1));
+        assertParseError("λx y", "Expected '.' after parameter name", SourceLocation.of(3, 1));
+        assertParseError("x\n.", "Unexpected '.'", SourceLocation.of(0, 2));
+        assertParseError("😀é λ", "Expected a parameter name", SourceLocation.of(5, 1));
+    }
+
+    private void assertParseError(final String input,
+                                  final String message,
+                                  final SourceLocation location)
+    {
+        try {
+            parser.parse(input);
+            fail("Expected ParseException for \"%s\".", input);
+        } catch (final ParseException e) {
+            assertTrue(e.getMessage().startsWith(message));
+            assertEquals(location, e.location());
+        }
+
+        try {
+            parser.parse(input.getBytes(StandardCharsets.UTF_8));
+            fail("Expected ParseException for bytes of \"%s\".", input);
+        } catch (final ParseException e) {
+            assertTrue(e.getMessage().startsWith(message));
+            assertEquals(location, e.location());
+        }
+    }
+
+    /**
+     * Parses the input both as characters and as UTF-8 bytes, checking the results agree.
+     * @return the formatted result.
+     */
+    private String format(final String input) {
+        final String formatted = fmt.format(parser.parse(input));
+
+        assertEquals(formatted, fmt.format(parser.parse(input.getBytes(StandardCharsets.UTF_8))));
+        return formatted;
+    }
+
+    private static ByteBuffer direct(final byte[] bytes) {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return buffer;
+    }
+}
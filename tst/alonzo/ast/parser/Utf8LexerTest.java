@@ -0,0 +1,107 @@
+package alonzo.ast.parser;
+
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import alonzo.unit.Test;
+
+public class Utf8LexerTest {
+
+    @Test
+    public void punctuation() {
+        final Tokens tokens = lex("λ\\.()");
+
+        assertEquals(5, tokens.size());
+        assertToken(tokens, 0, Tokens.LAMBDA, 0, 2);
+        assertToken(tokens, 1, Tokens.LAMBDA, 2, 1);
+        assertToken(tokens, 2, Tokens.DOT, 3, 1);
+        assertToken(tokens, 3, Tokens.LEFT_PAREN, 4, 1);
+        assertToken(tokens, 4, Tokens.RIGHT_PAREN, 5, 1);
+    }
+
+    @Test
+    public void names() {
+        final Tokens tokens = lex("(λxé.f'\t😀)");
+
+        assertEquals(7, tokens.size());
+        assertToken(tokens, 0, Tokens.LEFT_PAREN, 0, 1);
+        assertToken(tokens, 1, Tokens.LAMBDA, 1, 2);
+        assertToken(tokens, 2, Tokens.NAME, 3, 3);
+        assertToken(tokens, 3, Tokens.DOT, 6, 1);
+        assertToken(tokens, 4, Tokens.NAME, 7, 2);
+        assertToken(tokens, 5, Tokens.NAME, 10, 4);
+        assertToken(tokens, 6, Tokens.RIGHT_PAREN, 14, 1);
+    }
+
+    @Test
+    public void whitespace() {
+        // U+2003 EM SPACE separates tokens, U+00A0 NO-BREAK SPACE does not.
+        final Tokens tokens = lex(" \n\u2003a\u2003b\u00a0c ");
+
+        assertEquals(2, tokens.size());
+        assertToken(tokens, 0, Tokens.NAME, 5, 1);
+        assertToken(tokens, 1, Tokens.NAME, 9, 4);
+    }
+
+    @Test
+    public void lambdaLeadByteAlone() {
+        // 0xCE not followed by 0xBB is part of a name, as are malformed bytes.
+        final byte[] bytes = { 'a', (byte) 0xCE, (byte) 0x91, ' ', (byte) 0xCE, (byte) 0xE2 };
+        final Tokens tokens = Utf8Lexer.lex(ByteBuffer.wrap(bytes));
+
+        assertEquals(2, tokens.size());
+        assertToken(tokens, 0, Tokens.NAME, 0, 3);
+        assertToken(tokens, 1, Tokens.NAME, 4, 2);
+    }
+
+    @Test
+    public void respectsPositionAndLimit() {
+        final ByteBuffer buffer = ByteBuffer.wrap("ab c d".getBytes(StandardCharsets.UTF_8));
+        buffer.position(1);
+        buffer.limit(4);
+
+        final Tokens tokens = Utf8Lexer.lex(buffer);
+        assertEquals(2, tokens.size());
+        assertToken(tokens, 0, Tokens.NAME, 1, 1);
+        assertToken(tokens, 1, Tokens.NAME, 3, 1);
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    public void manyTokens() {
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) { input.append("(x) "); }
+
+        final Tokens tokens = lex(input.toString());
+        assertEquals(3000, tokens.size());
+        assertToken(tokens, 2999, Tokens.RIGHT_PAREN, 3998, 1);
+    }
+
+    @Test
+    public void indexOutOfBounds() {
+        try {
+            lex("x").kind(1);
+            fail("Expected IndexOutOfBoundsException.");
+        } catch (final IndexOutOfBoundsException e) {
+            assertEquals("1 of 1 tokens", e.getMessage());
+        }
+    }
+
+    private static Tokens lex(final String input) {
+        return Utf8Lexer.lex(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertToken(final Tokens tokens,
+                                    final int i,
+                                    final int kind,
+                                    final int start,
+                                    final int length)
+    {
+        assertEquals(kind, tokens.kind(i));
+        assertEquals(start, tokens.start(i));
+        assertEquals(length, tokens.length(i));
+    }
+}
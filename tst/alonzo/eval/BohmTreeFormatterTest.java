@@ -0,0 +1,134 @@
+package alonzo.eval;
+
+import static alonzo.eval.EvaluatorFixtures.OMEGA;
+import static alonzo.eval.EvaluatorFixtures.THREE;
+import static alonzo.eval.EvaluatorFixtures.TWO;
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertTrue;
+import static alonzo.unit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.Var;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class BohmTreeFormatterTest {
+
+    // Turing's fixed point combinator, whose Böhm tree is λf.(f (f (f ...))).
+    private static final String THETA = "((λx.λf.(f (x x f))) (λx.λf.(f (x x f))))";
+
+    private final Parser parser = new IterativeParser();
+    private final Formatter fmt = new IterativeFormatter();
+    private final BohmTreeFormatter bohm = new BohmTreeFormatter();
+
+    @Test
+    public void normalForms() {
+        assertEquals("x", bohm.format(parser.parse("x")));
+        assertEquals("(λx.(λy.(x y)))", bohm.format(parser.parse("λx.λy.(x ((λz.z) y))")));
+        assertEquals("(a (b c))", bohm.format(parser.parse("(λx.(a x)) ((λy.(b y)) c)")));
+        assertEquals("(λy.y)", bohm.format(parser.parse("(λx.λy.y) " + OMEGA)));
+    }
+
+    @Test
+    public void agreesWithNormalOrder() {
+        final String[] inputs = {
+            "(λm.λn.λf.λx.((m f) ((n f) x))) " + TWO + " " + THREE,
+            "(λm.λn.λf.(m (n f))) " + TWO + " " + THREE,
+            "(λn.(n n)) " + THREE,
+            "λz.(z ((λx.(x x)) (λy.y)) ((λx.λy.x) z))",
+            "(λx.λy_1.λy.(y y_1)) y",
+            "λy.((λx.λy.(x y)) y)",
+        };
+
+        final Evaluator normalOrder = new NormalOrderEvaluator();
+        for (final String input : inputs) {
+            final Result expected = normalOrder.evaluate(parser.parse(input));
+            final String actual = bohm.format(parser.parse(input));
+            assertEquals(DeBruijn.toNameless(expected.term()),
+                         DeBruijn.toNameless(parser.parse(actual)));
+        }
+    }
+
+    @Test
+    public void flushesBeforeReducing() throws IOException {
+        final RecordingStream out = new RecordingStream();
+        final StopReason stopReason =
+            bohm.format(out, parser.parse("λz.(z a ((λx.x) b))"), Budget.unlimited());
+
+        assertEquals(StopReason.NORMAL_FORM, stopReason);
+        assertEquals("[(λz.((z a) , (λz.((z a) b))]", out.flushes.toString());
+    }
+
+    @Test
+    public void stepBudget() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final String input = "λz.(z ((λy.y) w) " + OMEGA + " ((λy.y) w))";
+        final StopReason stopReason = bohm.format(out, parser.parse(input), Budget.ofSteps(10));
+
+        assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, stopReason);
+        assertEquals("(λz.(((z w) " + OMEGA + ") ((λy.y) w)))",
+                     new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void infiniteTrees() {
+        final LimitedStream out = new LimitedStream(64);
+        try {
+            bohm.format(out, parser.parse(THETA));
+            fail("Expected an IOException");
+        } catch (final IOException e) {
+            final String written = new String(out.toByteArray(), StandardCharsets.UTF_8);
+            assertTrue(written.startsWith("(λf.(f (f (f (f "));
+        }
+    }
+
+    @Test
+    public void deepTerms() {
+        final int depth = 100000;
+        ASTNode term = new App(new Fun(new Var("x"), new Var("x")), new Var("y"));
+        for (int i = 0; i < depth; ++i) {
+            term = new Fun(new Var("z"), new App(new Var("z"), term));
+        }
+
+        final Result expected = new NormalOrderEvaluator().evaluate(term);
+        assertEquals(fmt.format(expected.term()), bohm.format(term));
+    }
+
+    /** Records what had been written each time it was flushed. */
+    private static class RecordingStream extends ByteArrayOutputStream {
+        private final List<String> flushes = new ArrayList<>();
+
+        @Override
+        public void flush() {
+            flushes.add(new String(toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /** Fails once more than a given number of bytes are written, as a client hanging up would. */
+    private static class LimitedStream extends ByteArrayOutputStream {
+        private final int limit;
+
+        private LimitedStream(final int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(final byte[] bytes) throws IOException {
+            if (size() + bytes.length > limit) { throw new IOException("closed"); }
+            super.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package alonzo.eval;
+
+import static alonzo.unit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import alonzo.ast.NodeFactory;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class BytecodeEvaluatorTest {
+
+    private final Parser parser = new IterativeParser();
+    private final Evaluator evaluator = new BytecodeEvaluator();
+    private final EvaluatorFixtures fixtures = new EvaluatorFixtures(evaluator);
+
+    @Test
+    public void normalForms() {
+        fixtures.assertReadBackNormalForms();
+    }
+
+    @Test
+    public void compiledCode() {
+        final BytecodeEvaluator.Program program =
+            BytecodeEvaluator.compile(DeBruijn.toNameless(parser.parse("λx.(x (λz.z) y)")));
+
+        final int[] expected = {
+            BytecodeEvaluator.GRAB, 0,
+            BytecodeEvaluator.PUSH, 12,
+            BytecodeEvaluator.PUSH, 8,
+            BytecodeEvaluator.ACCESS, 0,
+            BytecodeEvaluator.GRAB, 1,
+            BytecodeEvaluator.ACCESS, 0,
+            BytecodeEvaluator.FREE, 2,
+        };
+        assertEquals(Arrays.toString(expected), Arrays.toString(program.code()));
+        assertEquals("[x, z, y]", Arrays.toString(program.constants()));
+    }
+
+    @Test
+    public void agreesWithNormalOrder() {
+        final String input = "(λx.λy_1.λy.(y y_1)) y";
+        fixtures.assertAgreesWith(new NormalOrderEvaluator(), true, input);
+        // A heap of a single cell is collected on nearly every allocation.
+        new EvaluatorFixtures(new BytecodeEvaluator(1, new NodeFactory()))
+            .assertAgreesWith(new NormalOrderEvaluator(), true, input);
+    }
+
+    @Test
+    public void stepBudget() {
+        fixtures.assertStepBudget();
+    }
+
+    @Test
+    public void partialResult() {
+        fixtures.assertPartialResult();
+    }
+
+    @Test
+    public void deepTerms() {
+        fixtures.assertDeepTerms();
+    }
+}
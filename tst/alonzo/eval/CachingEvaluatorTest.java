@@ -0,0 +1,65 @@
+package alonzo.eval;
+
+import static alonzo.eval.EvaluatorFixtures.OMEGA;
+import static alonzo.eval.EvaluatorFixtures.THREE;
+import static alonzo.eval.EvaluatorFixtures.TWO;
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertTrue;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class CachingEvaluatorTest {
+
+    private final Parser parser = new IterativeParser();
+
+    @Test
+    public void repeatedNormalizations() {
+        final NormalFormCache cache = new NormalFormCache(1 << 16);
+        final Evaluator evaluator = new CachingEvaluator(new NormalOrderEvaluator(), cache);
+        final String input = "(λm.λn.λf.(m (n f))) " + TWO + " " + THREE;
+
+        final Result first = evaluator.evaluate(parser.parse(input));
+        final Result second = evaluator.evaluate(parser.parse(input.replace('f', 'g')));
+
+        assertTrue(first.isNormalForm());
+        assertTrue(second.term() == first.term());
+        assertEquals(first.steps(), second.steps());
+        assertEquals(1L, cache.hits());
+        assertEquals(1L, cache.misses());
+    }
+
+    @Test
+    public void divergentTerms() {
+        final NormalFormCache cache = new NormalFormCache(1 << 16);
+        final Evaluator evaluator = new CachingEvaluator(new NormalOrderEvaluator(), cache);
+        final ASTNode omega = parser.parse(OMEGA);
+
+        assertEquals(StopReason.STEP_BUDGET_EXHAUSTED,
+                     evaluator.evaluate(omega, Budget.ofSteps(100)).stopReason());
+        final Result cached = evaluator.evaluate(omega, Budget.ofSteps(50));
+        assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, cached.stopReason());
+        assertEquals(50L, cached.steps());
+        assertEquals(1L, cache.hits());
+    }
+
+    @Test
+    public void optOut() {
+        final NormalFormCache cache = new NormalFormCache(1 << 16);
+        final CachingEvaluator evaluator =
+            new CachingEvaluator(new NormalOrderEvaluator(), cache);
+        final ASTNode term = parser.parse("(λx.x) y");
+
+        evaluator.evaluate(term, Budget.unlimited(), false);
+        assertEquals(0, cache.size());
+        assertEquals(0L, cache.misses());
+
+        evaluator.evaluate(term);
+        evaluator.evaluate(term, Budget.unlimited(), false);
+        assertEquals(0L, cache.hits());
+        evaluator.evaluate(term);
+        assertEquals(1L, cache.hits());
+    }
+}
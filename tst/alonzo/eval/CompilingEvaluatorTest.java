@@ -0,0 +1,125 @@
+package alonzo.eval;
+
+import static alonzo.eval.EvaluatorFixtures.TWO;
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertFalse;
+import static alonzo.unit.Assert.assertTrue;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.Var;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class CompilingEvaluatorTest {
+
+    private final Parser parser = new IterativeParser();
+    private final Formatter fmt = new IterativeFormatter();
+    private final RecordingEvaluator fallback = new RecordingEvaluator();
+    private final CompilingEvaluator evaluator = new CompilingEvaluator(fallback);
+    private final EvaluatorFixtures fixtures = new EvaluatorFixtures(evaluator);
+
+    @Test
+    public void normalForms() {
+        fixtures.assertReadBackNormalForms();
+        assertFalse(fallback.called);
+    }
+
+    @Test
+    public void agreesWithCallByNeed() {
+        fixtures.assertAgreesWith(new KrivineEvaluator(KrivineEvaluator.Mode.CALL_BY_NEED), false,
+                                  "(" + TWO + " " + TWO + " " + TWO + ")");
+        assertFalse(fallback.called);
+    }
+
+    @Test
+    public void sharesArguments() {
+        final Result result = evaluator.evaluate(parser.parse("(λx.(x x)) ((λy.y) (λz.z))"));
+        assertEquals("(λz.z)", fmt.format(result.term()));
+        assertEquals(3L, result.steps());
+    }
+
+    @Test
+    public void cachesCodeByNamelessForm() {
+        evaluator.evaluate(parser.parse("(λx.x) y"));
+        evaluator.evaluate(parser.parse("(λz.z) y"));
+        assertEquals(1, evaluator.cached());
+
+        evaluator.evaluate(parser.parse("(λx.x) w"));
+        assertEquals(2, evaluator.cached());
+
+        final CompilingEvaluator uncached = new CompilingEvaluator(fallback, 0, 16,
+                                                                   new NodeFactory());
+        uncached.evaluate(parser.parse("(λx.x) y"));
+        assertEquals(0, uncached.cached());
+    }
+
+    @Test
+    public void fallsBackWhenTooDeep() {
+        final Evaluator shallow = new CompilingEvaluator(fallback, 16, 1, new NodeFactory());
+        final Result result = shallow.evaluate(parser.parse("(λx.x) y"));
+
+        assertTrue(fallback.called);
+        assertEquals("((λx.x) y)", fmt.format(result.term()));
+    }
+
+    @Test
+    public void fallsBackBeforeOverflowing() {
+        // Each f calls the next from within its body, nesting calls 100000 deep.
+        ASTNode calls = new Var("g");
+        for (int i = 0; i < 100000; ++i) {
+            calls = new App(new Var("f"), calls);
+        }
+        final Fun f = new Fun(new Var("y"), new App(new Var("y"), new Var("a")));
+        evaluator.evaluate(new App(new Fun(new Var("f"), calls), f));
+        assertTrue(fallback.called);
+
+        // A single application nested 100000 deep within compiled code.
+        ASTNode spine = new Var("f");
+        for (int i = 0; i < 100000; ++i) {
+            spine = new App(spine, new Var("a"));
+        }
+        fallback.called = false;
+        evaluator.evaluate(spine);
+        assertTrue(fallback.called);
+    }
+
+    @Test
+    public void stepBudget() {
+        fixtures.assertStepBudget();
+        assertFalse(fallback.called);
+    }
+
+    @Test
+    public void partialResult() {
+        fixtures.assertPartialResult();
+        assertFalse(fallback.called);
+    }
+
+    @Test
+    public void partialResultIsBounded() {
+        // Read back as a tree, the values this shares grow exponentially with the steps taken.
+        final ASTNode term =
+            parser.parse("((λy.(y ((y (y y)) (a (y y))))) (λf.(f (((λy.f) f) f))))");
+        final Evaluator evaluator = new CompilingEvaluator();
+
+        for (final long steps : new long[] {10, 20, 40, 100, 150}) {
+            final Result result = evaluator.evaluate(term, Budget.ofSteps(steps));
+
+            assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, result.stopReason());
+            assertTrue(result.term().size() <= 2 * CompilingEvaluator.READ_BACK_FACTOR
+                                               * (term.size() + steps));
+        }
+    }
+
+    @Test
+    public void deepTerms() {
+        fixtures.assertDeepTerms();
+        assertFalse(fallback.called);
+    }
+}
@@ -0,0 +1,125 @@
+package alonzo.eval;
+
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.Var;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+
+/**
+ * Terms and checks shared by the tests of the evaluators, run against the evaluator under test.
+ * Each test class keeps the checks specific to its evaluator.
+ */
+final class EvaluatorFixtures {
+
+    static final String OMEGA = "((λx.(x x)) (λx.(x x)))";
+    static final String TWO = "(λf.λx.(f (f x)))";
+    static final String THREE = "(λf.λx.(f (f (f x))))";
+
+    /** Terms with a normal form that takes every evaluator some reduction to find. */
+    private static final String[] ARITHMETIC = {
+        "(λm.λn.λf.λx.((m f) ((n f) x))) " + TWO + " " + THREE,
+        "(λm.λn.λf.(m (n f))) " + TWO + " " + THREE,
+        "(λn.(n n)) " + THREE,
+        "λz.(z ((λx.(x x)) (λy.y)) ((λx.λy.x) z))",
+    };
+
+    private final Evaluator evaluator;
+    private final Parser parser = new IterativeParser();
+    private final Formatter fmt = new IterativeFormatter();
+
+    EvaluatorFixtures(final Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /** Asserts the normal forms of terms every evaluator reduces the same way. */
+    void assertNormalForms() {
+        assertNormalForm("x", "x");
+        assertNormalForm("(λx.x)", "λx.x");
+        assertNormalForm("y", "(λx.x) y");
+        assertNormalForm("(λz.z)", "λz.((λx.x) z)");
+        assertNormalForm("(a (b c))", "(λx.(a x)) ((λy.(b y)) c)");
+        assertNormalForm("(λy.y)", "(λx.λy.y) " + OMEGA);
+    }
+
+    /**
+     * Asserts the {@link #assertNormalForms() normal forms}, and that parameters that would
+     * capture a free variable are renamed as {@link DeBruijn#toAST} does, for evaluators reading
+     * their results back from nameless terms.
+     */
+    void assertReadBackNormalForms() {
+        assertNormalForms();
+        assertNormalForm("(λy1.(y y1))", "(λx.λy.(x y)) y");
+    }
+
+    void assertNormalForm(final String expected, final String input) {
+        final Result result = evaluator.evaluate(parser.parse(input));
+        assertTrue(result.isNormalForm());
+        assertEquals(expected, fmt.format(result.term()));
+    }
+
+    /**
+     * Asserts that the evaluator reaches the same normal forms as the given one, up to the names
+     * of bound variables, for a few arithmetic terms and the given ones.
+     * @param sameSteps Whether the evaluators must also take as many steps.
+     */
+    void assertAgreesWith(final Evaluator reference,
+                          final boolean sameSteps,
+                          final String... inputs)
+    {
+        final List<String> all = new ArrayList<>(Arrays.asList(ARITHMETIC));
+        all.addAll(Arrays.asList(inputs));
+        for (final String input : all) {
+            final Result expected = reference.evaluate(parser.parse(input));
+            final Result actual = evaluator.evaluate(parser.parse(input));
+
+            assertTrue(actual.isNormalForm());
+            assertEquals(DeBruijn.toNameless(expected.term()), DeBruijn.toNameless(actual.term()));
+            if (sameSteps) { assertEquals(expected.steps(), actual.steps()); }
+        }
+    }
+
+    /** Asserts that reducing a term with no normal form stops when the step budget is spent. */
+    void assertStepBudget() {
+        final ASTNode omega = parser.parse(OMEGA);
+        final Result result = evaluator.evaluate(omega, Budget.ofSteps(10));
+
+        assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, result.stopReason());
+        assertEquals(10L, result.steps());
+        assertEquals(DeBruijn.toNameless(omega), DeBruijn.toNameless(result.term()));
+    }
+
+    /** Asserts the partial result of a term reduced by as many steps as it has redexes but one. */
+    void assertPartialResult() {
+        final ASTNode term = parser.parse("(λx.x) ((λx.x) ((λx.x) y))");
+        final Result result = evaluator.evaluate(term, Budget.ofSteps(2));
+
+        assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, result.stopReason());
+        assertEquals(2L, result.steps());
+        assertEquals("((λx.x) y)", fmt.format(result.term()));
+    }
+
+    /** Asserts that a term nested deeper than the call stack could recurse is reduced. */
+    void assertDeepTerms() {
+        final int depth = 100000;
+        ASTNode term = new App(new Fun(new Var("x"), new Var("x")), new Var("y"));
+        for (int i = 0; i < depth; ++i) {
+            term = new Fun(new Var("z"), new App(new Var("z"), term));
+        }
+
+        final Result result = evaluator.evaluate(term);
+        assertTrue(result.isNormalForm());
+        assertEquals(1L, result.steps());
+    }
+}
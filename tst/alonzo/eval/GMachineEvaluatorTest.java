@@ -0,0 +1,73 @@
+package alonzo.eval;
+
+import static alonzo.eval.EvaluatorFixtures.TWO;
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertTrue;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class GMachineEvaluatorTest {
+
+    private final Parser parser = new IterativeParser();
+    private final Formatter fmt = new IterativeFormatter();
+    private final Evaluator evaluator = new GMachineEvaluator();
+    private final EvaluatorFixtures fixtures = new EvaluatorFixtures(evaluator);
+
+    @Test
+    public void normalForms() {
+        fixtures.assertReadBackNormalForms();
+        // Names of lifted functions don't clash with free variables.
+        fixtures.assertNormalForm("($0 y)", "(λx.($0 x)) y");
+    }
+
+    @Test
+    public void agreesWithCallByNeed() {
+        fixtures.assertAgreesWith(new KrivineEvaluator(KrivineEvaluator.Mode.CALL_BY_NEED), false,
+                                  "(" + TWO + " " + TWO + " " + TWO + ")",
+                                  "(λx.λy_1.λy.(y y_1)) y");
+    }
+
+    @Test
+    public void sharesInstances() {
+        final Result result = evaluator.evaluate(parser.parse("(λx.(x x)) ((λy.y) (λz.z))"));
+        // Both functions are the same supercombinator, named after the first.
+        assertEquals("(λy.y)", fmt.format(result.term()));
+        assertEquals(3L, result.steps());
+    }
+
+    @Test
+    public void stepBudget() {
+        fixtures.assertStepBudget();
+    }
+
+    @Test
+    public void partialResult() {
+        fixtures.assertPartialResult();
+    }
+
+    @Test
+    public void partialResultIsBounded() {
+        // Read back as a tree, the graph this builds grows exponentially with the steps taken, so
+        // it is given up for the input.
+        final ASTNode term =
+            parser.parse("((λy.(y ((y (y y)) (a (y y))))) (λf.(f (((λy.f) f) f))))");
+
+        for (final long steps : new long[] {10, 50, 200, 2000}) {
+            final Result result = evaluator.evaluate(term, Budget.ofSteps(steps));
+
+            assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, result.stopReason());
+            assertEquals(steps, result.steps());
+            assertTrue(result.term() == term);
+        }
+    }
+
+    @Test
+    public void deepTerms() {
+        fixtures.assertDeepTerms();
+    }
+}
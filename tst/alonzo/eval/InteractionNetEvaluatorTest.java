@@ -0,0 +1,84 @@
+package alonzo.eval;
+
+import static alonzo.eval.EvaluatorFixtures.OMEGA;
+import static alonzo.eval.EvaluatorFixtures.THREE;
+import static alonzo.eval.EvaluatorFixtures.TWO;
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertFalse;
+import static alonzo.unit.Assert.assertTrue;
+
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class InteractionNetEvaluatorTest {
+
+    private final Parser parser = new IterativeParser();
+    private final RecordingEvaluator fallback = new RecordingEvaluator();
+    private final Evaluator evaluator = new InteractionNetEvaluator(fallback);
+    private final EvaluatorFixtures fixtures = new EvaluatorFixtures(evaluator);
+
+    @Test
+    public void normalForms() {
+        fixtures.assertReadBackNormalForms();
+        fixtures.assertNormalForm("((a b) (λz.z))", "(a b) ((λx.x) (λz.z))");
+        assertFalse(fallback.called);
+    }
+
+    @Test
+    public void agreesWithCallByNeed() {
+        fixtures.assertAgreesWith(new KrivineEvaluator(KrivineEvaluator.Mode.CALL_BY_NEED), false,
+                                  "(" + TWO + " " + TWO + " " + TWO + ")",
+                                  "(λx.(x x x)) (λy.y)");
+        assertFalse(fallback.called);
+    }
+
+    @Test
+    public void sharesWorkBetweenCopies() {
+        // 2^16 takes tens of thousands of steps by any other strategy.
+        final String input = "(" + TWO + " " + TWO + " " + TWO + " " + TWO + ")";
+        final Result result = evaluator.evaluate(parser.parse(input), Budget.ofSteps(10000));
+
+        assertTrue(result.isNormalForm());
+        assertTrue(result.steps() < 5000);
+        assertFalse(fallback.called);
+    }
+
+    @Test
+    public void agreesWithNormalOrder() {
+        // Terms outside Elementary Affine Logic, which need brackets and croissants to reduce
+        // correctly, some of whose parts have no normal form and must be erased before reduction.
+        final String[] inputs = {
+            "(λn.(n n)) " + THREE,
+            "(λa.λb.(a a)) (λx.λy.((λz.((x y) (z x))) (λz.(x λw.w))))",
+            "(((λv0.(((λv1.(v0 v0)) (λv3.(v0 v0))) v0)) ((λv3.(λv1.v3)) "
+                + "(λv2.(λv0.((v0 v2) v2))))) (λv2.(v2 v2)))",
+            "(λv0.((λv1.((λv3.f0) (((λv3.v1) f0) v1))) (λv2.(v0 (v2 v2)))))",
+            "((λv0.(v0 (λv1.(v1 v0)))) (λv1.(f0 ((λv3.v1) (λv2.(v1 v1))))))",
+            "((λv0.(λv2.((λv2.((λv1.(λv0.((f0 (v1 (v2 (λv0.v2)))) (λv3.(λv1.(λv0.(λv3.v2)))))))"
+                + " (λv0.f0))) (λv1.(v0 v1))))) (λv3.((v3 (λv2.(f1 v2))) v3)))",
+        };
+
+        final Evaluator normalOrder = new NormalOrderEvaluator();
+        for (final String input : inputs) {
+            final Result expected = normalOrder.evaluate(parser.parse(input));
+            final Result actual = evaluator.evaluate(parser.parse(input));
+
+            assertTrue(actual.isNormalForm());
+            assertEquals(DeBruijn.toNameless(expected.term()), DeBruijn.toNameless(actual.term()));
+        }
+        assertFalse(fallback.called);
+    }
+
+    @Test
+    public void fallsBackWhenOutOfBudget() {
+        evaluator.evaluate(parser.parse(OMEGA), Budget.ofSteps(10));
+        assertTrue(fallback.called);
+
+        final Result result = new InteractionNetEvaluator().evaluate(parser.parse(OMEGA),
+                                                                     Budget.ofSteps(10));
+        assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, result.stopReason());
+        assertEquals(10L, result.steps());
+    }
+}
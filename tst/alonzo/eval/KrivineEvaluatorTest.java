@@ -0,0 +1,84 @@
+package alonzo.eval;
+
+import static alonzo.eval.EvaluatorFixtures.OMEGA;
+import static alonzo.eval.EvaluatorFixtures.THREE;
+import static alonzo.eval.EvaluatorFixtures.TWO;
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertTrue;
+
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class KrivineEvaluatorTest {
+
+    private final Parser parser = new IterativeParser();
+    private final Formatter fmt = new IterativeFormatter();
+    private final Evaluator evaluator = new KrivineEvaluator();
+    private final EvaluatorFixtures fixtures = new EvaluatorFixtures(evaluator);
+
+    @Test
+    public void normalForms() {
+        fixtures.assertReadBackNormalForms();
+    }
+
+    @Test
+    public void agreesWithNormalOrder() {
+        fixtures.assertAgreesWith(new NormalOrderEvaluator(), true);
+    }
+
+    @Test
+    public void callByNeedSharesArguments() {
+        final String input = "(λx.(x x)) ((λy.y) (λz.z))";
+        final Evaluator byNeed = new KrivineEvaluator(KrivineEvaluator.Mode.CALL_BY_NEED);
+
+        final Result byNameResult = evaluator.evaluate(parser.parse(input));
+        final Result byNeedResult = byNeed.evaluate(parser.parse(input));
+        assertEquals("(λz.z)", fmt.format(byNameResult.term()));
+        assertEquals("(λz.z)", fmt.format(byNeedResult.term()));
+        assertEquals(4L, byNameResult.steps());
+        assertEquals(3L, byNeedResult.steps());
+    }
+
+    @Test
+    public void callByNeedAgreesWithCallByName() {
+        final String[] inputs = {
+            "(λm.λn.λf.λx.((m f) ((n f) x))) " + TWO + " " + THREE,
+            "(λn.(n n)) " + THREE,
+            "(λn.(n n)) ((λm.λn.λf.(m (n f))) " + TWO + " " + TWO + ")",
+            "(λx.λy.y) " + OMEGA,
+        };
+
+        final Evaluator byNeed = new KrivineEvaluator(KrivineEvaluator.Mode.CALL_BY_NEED);
+        for (final String input : inputs) {
+            final Result byName = evaluator.evaluate(parser.parse(input));
+            final Result result = byNeed.evaluate(parser.parse(input));
+
+            assertTrue(result.isNormalForm());
+            assertEquals(DeBruijn.toNameless(byName.term()), DeBruijn.toNameless(result.term()));
+            assertTrue(result.steps() <= byName.steps());
+        }
+    }
+
+    @Test
+    public void stepBudget() {
+        fixtures.assertStepBudget();
+    }
+
+    @Test
+    public void partialResultKeepsContext() {
+        final Result result =
+            evaluator.evaluate(parser.parse("λz.(z ((λx.x) " + OMEGA + ") z)"), Budget.ofSteps(1));
+
+        assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, result.stopReason());
+        assertEquals("(λz.((z " + OMEGA + ") z))", fmt.format(result.term()));
+    }
+
+    @Test
+    public void deepTerms() {
+        fixtures.assertDeepTerms();
+    }
+}
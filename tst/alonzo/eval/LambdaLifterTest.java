@@ -0,0 +1,95 @@
+package alonzo.eval;
+
+import static alonzo.unit.Assert.assertEquals;
+
+import java.util.List;
+
+import alonzo.ast.nameless.Apply;
+import alonzo.ast.nameless.Bound;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.nameless.Free;
+import alonzo.ast.nameless.Term;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class LambdaLifterTest {
+
+    private final Parser parser = new IterativeParser();
+
+    @Test
+    public void withoutFunctions() {
+        final LambdaLifter.Program program = LambdaLifter.lift(parser.parse("(x y)"));
+        assertEquals(0, program.combinators().size());
+        assertEquals(nameless("(x y)"), program.main());
+    }
+
+    @Test
+    public void capturedVariables() {
+        final LambdaLifter.Program program = LambdaLifter.lift(parser.parse("λx.λy.(x λz.(z y))"));
+        final List<Supercombinator> combinators = program.combinators();
+        assertEquals(2, combinators.size());
+
+        final Supercombinator inner = combinators.get(0);
+        assertEquals("$0", inner.name());
+        assertEquals(2, inner.arity());
+        assertEquals(1, inner.captured());
+        assertEquals(nameless("λy.λz.(z y)"), inner.definition());
+        assertEquals(new Apply(new Bound(0), new Bound(1)), inner.body());
+
+        final Supercombinator outer = combinators.get(1);
+        assertEquals("$1", outer.name());
+        assertEquals(0, outer.captured());
+        assertEquals(nameless("λx.λy.(x ($0 y))"), outer.definition());
+        assertEquals(new Free("$1"), program.main());
+    }
+
+    @Test
+    public void capturedOutermostFirst() {
+        final LambdaLifter.Program program =
+            LambdaLifter.lift(parser.parse("λa.λb.λc.(b λx.(x c a))"));
+
+        final Supercombinator inner = program.combinators().get(0);
+        assertEquals(2, inner.captured());
+        assertEquals(nameless("λa.λc.λx.(x c a)"), inner.definition());
+        assertEquals(nameless("λa.λb.λc.(b ($0 a c))"),
+                     program.combinators().get(1).definition());
+    }
+
+    @Test
+    public void sharesEquivalentDefinitions() {
+        final LambdaLifter.Program program =
+            LambdaLifter.lift(parser.parse("(λx.x) (λy.y) λz.λw.(w (λv.v) z)"));
+
+        assertEquals(2, program.combinators().size());
+        assertEquals(nameless("λx.x"), program.combinators().get(0).definition());
+        assertEquals(nameless("λz.λw.(w $0 z)"), program.combinators().get(1).definition());
+        assertEquals(nameless("$0 $0 $1"), program.main());
+    }
+
+    @Test
+    public void namesAvoidFreeVariables() {
+        final LambdaLifter.Program program = LambdaLifter.lift(parser.parse("$0 $$x λx.x"));
+        assertEquals("$$$0", program.combinators().get(0).name());
+        assertEquals(nameless("$0 $$x $$$0"), program.main());
+    }
+
+    @Test
+    public void deepTerms() {
+        final StringBuilder input = new StringBuilder();
+        final int depth = 100000;
+        for (int i = 0; i < depth; ++i) {
+            input.append("λx").append(i).append('.');
+        }
+        input.append("x0");
+
+        final LambdaLifter.Program program = LambdaLifter.lift(parser.parse(input.toString()));
+        assertEquals(1, program.combinators().size());
+        assertEquals(depth, program.combinators().get(0).arity());
+        assertEquals(new Bound(depth - 1), program.combinators().get(0).body());
+    }
+
+    private Term nameless(final String input) {
+        return DeBruijn.toNameless(parser.parse(input));
+    }
+}
@@ -0,0 +1,140 @@
+package alonzo.eval;
+
+import static alonzo.eval.EvaluatorFixtures.OMEGA;
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertTrue;
+import static alonzo.unit.Assert.fail;
+
+import java.time.Duration;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.Var;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class NormalFormCacheTest {
+
+    private final Parser parser = new IterativeParser();
+
+    @Test
+    public void normalForms() {
+        final NormalFormCache cache = new NormalFormCache(1000);
+        final ASTNode term = parser.parse("(λx.x) ((λy.y) z)");
+        cache.record(term, new Result(parser.parse("z"), StopReason.NORMAL_FORM, 2));
+
+        final ASTNode renamed = parser.parse("(λu.u) ((λv.v) z)");
+        final Result hit = cache.lookup(renamed, Budget.unlimited());
+        assertTrue(hit.isNormalForm());
+        assertEquals("z", ((Var) hit.term()).name());
+        assertEquals(2L, hit.steps());
+
+        // Too small a budget is known to be exhausted.
+        final Result exhausted = cache.lookup(renamed, Budget.ofSteps(1));
+        assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, exhausted.stopReason());
+        assertEquals(1L, exhausted.steps());
+        assertTrue(exhausted.term() == renamed);
+
+        assertTrue(cache.lookup(parser.parse("(λx.x) ((λy.y) w)"), Budget.unlimited()) == null);
+        assertEquals(2L, cache.hits());
+        assertEquals(1L, cache.misses());
+    }
+
+    @Test
+    public void exhaustedBudgets() {
+        final NormalFormCache cache = new NormalFormCache(1000);
+        final ASTNode omega = parser.parse(OMEGA);
+        cache.record(omega, new Result(omega, StopReason.STEP_BUDGET_EXHAUSTED, 10));
+
+        assertEquals(10L, cache.lookup(omega, Budget.ofSteps(10)).steps());
+        assertEquals(5L, cache.lookup(omega, Budget.ofSteps(5)).steps());
+        assertTrue(cache.lookup(omega, Budget.ofSteps(11)) == null);
+
+        // Only a larger budget is worth remembering.
+        cache.record(omega, new Result(omega, StopReason.STEP_BUDGET_EXHAUSTED, 5));
+        assertEquals(10L, cache.lookup(omega, Budget.ofSteps(10)).steps());
+        cache.record(omega, new Result(omega, StopReason.STEP_BUDGET_EXHAUSTED, 20));
+        assertEquals(20L, cache.lookup(omega, Budget.ofSteps(20)).steps());
+
+        // Deadlines depend on more than the term.
+        final ASTNode other = parser.parse("λx." + OMEGA);
+        cache.record(other, new Result(other, StopReason.DEADLINE_EXCEEDED, 3));
+        assertTrue(cache.lookup(other, Budget.ofTimeout(Duration.ofDays(1))) == null);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void boundedByNodes() {
+        final NormalFormCache cache = new NormalFormCache(25);
+        final ASTNode[] terms = new ASTNode[4];
+        for (int i = 0; i < terms.length; ++i) {
+            // Four nodes each, plus one for the normal form.
+            terms[i] = parser.parse("(λx.x) v" + i);
+            cache.record(terms[i], new Result(parser.parse("v" + i), StopReason.NORMAL_FORM, 1));
+        }
+        assertEquals(20L, cache.nodes());
+
+        // Used again, the first term is protected from the burst of terms used once.
+        assertTrue(cache.lookup(terms[0], Budget.unlimited()) != null);
+        for (int i = 4; i < 10; ++i) {
+            cache.record(parser.parse("(λx.x) v" + i),
+                         new Result(parser.parse("v" + i), StopReason.NORMAL_FORM, 1));
+        }
+
+        assertEquals(5, cache.size());
+        assertEquals(5L, cache.evictions());
+        assertTrue(cache.nodes() <= cache.maxNodes());
+        assertTrue(cache.lookup(terms[0], Budget.unlimited()) != null);
+        assertTrue(cache.lookup(terms[1], Budget.unlimited()) == null);
+
+        // Terms larger than the whole cache are not kept.
+        final ASTNode large = parser.parse("(λx.x) (a b c d e f g h i j k l m n o p q r s t)");
+        cache.record(large, new Result(large, StopReason.STEP_BUDGET_EXHAUSTED, 0));
+        assertTrue(cache.lookup(large, Budget.ofSteps(0)) == null);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0L, cache.nodes());
+    }
+
+    @Test
+    public void concurrentHits() throws InterruptedException {
+        final NormalFormCache cache = new NormalFormCache(25);
+        final ASTNode hot = parser.parse("(λx.x) v");
+        cache.record(hot, new Result(parser.parse("v"), StopReason.NORMAL_FORM, 1));
+
+        // Far more hits than the read buffers hold, so lookups replay them onto the segments.
+        final int lookups = NormalFormCache.READ_BUFFER_SIZE * 100;
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < lookups; ++i) {
+                    assertTrue(cache.lookup(hot, Budget.unlimited()) != null);
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals((long) lookups * threads.length, cache.hits());
+
+        // The hits promoted the term, protecting it from the burst of terms used once.
+        for (int i = 0; i < 10; ++i) {
+            cache.record(parser.parse("(λx.x) v" + i),
+                         new Result(parser.parse("v" + i), StopReason.NORMAL_FORM, 1));
+        }
+        assertTrue(cache.lookup(hot, Budget.unlimited()) != null);
+        assertTrue(cache.nodes() <= cache.maxNodes());
+    }
+
+    @Test
+    public void invalidCapacity() {
+        try {
+            new NormalFormCache(0);
+            fail("Expected IllegalArgumentException.");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("non-positive maxNodes (0)", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package alonzo.eval;
+
+import static alonzo.eval.EvaluatorFixtures.OMEGA;
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertFalse;
+import static alonzo.unit.Assert.assertTrue;
+import static alonzo.unit.Assert.fail;
+
+import java.time.Duration;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.NodeFactory;
+import alonzo.ast.SymbolTable;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class NormalOrderEvaluatorTest {
+
+    private final Parser parser = new IterativeParser();
+    private final Formatter fmt = new IterativeFormatter();
+    private final Evaluator evaluator = new NormalOrderEvaluator();
+    private final EvaluatorFixtures fixtures = new EvaluatorFixtures(evaluator);
+
+    @Test
+    public void normalForms() {
+        fixtures.assertNormalForms();
+    }
+
+    @Test
+    public void steps() {
+        final Result result = evaluator.evaluate(parser.parse("(λx.x) ((λx.x) y)"));
+        assertTrue(result.isNormalForm());
+        assertEquals(2L, result.steps());
+    }
+
+    @Test
+    public void substitutionAvoidsCapture() {
+        assertAlphaEquivalent("λz.(y z)", "(λx.λy.(x y)) y");
+        fixtures.assertNormalForm("(λx.x)", "(λx.λx.x) y");
+        assertAlphaEquivalent("λz.λy.(y z)", "(λx.λy_1.λy.(y y_1)) y");
+    }
+
+    @Test
+    public void freshNames() {
+        final SymbolTable symbols = new SymbolTable();
+        final Parser parser = new IterativeParser(symbols);
+        final Evaluator evaluator = new NormalOrderEvaluator(new NodeFactory(symbols));
+
+        // Names are counted through the whole evaluation.
+        assertEquals("(λy_1.(y (λy_2.(y y_2))))",
+                     fmt.format(evaluator.evaluate(parser.parse("(λx.λy.(x (λy.(x y)))) y"))
+                                         .term()));
+        // Each evaluation counts from 1, skipping names the terms use.
+        assertEquals("(λy_1.(y y))",
+                     fmt.format(evaluator.evaluate(parser.parse("(λx.λy.(x x)) y")).term()));
+        assertEquals("(λy_2.(y y_1))",
+                     fmt.format(evaluator.evaluate(parser.parse("(λx.λy.(x y_1)) y")).term()));
+        // Renaming a renamed parameter replaces its suffix.
+        assertEquals("(λy_1.(y_5 y_1))",
+                     fmt.format(evaluator.evaluate(parser.parse("(λx.λy_5.(x y_5)) y_5")).term()));
+    }
+
+    @Test
+    public void freshNamesDontGrowDefaultTable() {
+        final String input = "((λf.λy.(f (f y))) (λx.λy.(x y)))";
+        final String expected = fmt.format(evaluator.evaluate(parser.parse(input)).term());
+        final int size = SymbolTable.current().size();
+
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(expected, fmt.format(evaluator.evaluate(parser.parse(input)).term()));
+        }
+        assertEquals(size, SymbolTable.current().size());
+    }
+
+    @Test
+    public void freshNamesAcrossTables() {
+        final ASTNode function = new IterativeParser(new SymbolTable()).parse("λx.λy.x");
+        final ASTNode argument = new IterativeParser(new SymbolTable()).parse("(y y_1)");
+
+        final Evaluator evaluator = new NormalOrderEvaluator(new NodeFactory(new SymbolTable()));
+
+        // y_1 is only interned in the argument's table, yet must not be captured.
+        assertEquals("(λy_2.(y y_1))",
+                     fmt.format(evaluator.evaluate(new App(function, argument)).term()));
+    }
+
+    @Test
+    public void defaultTableIsScoped() {
+        final SymbolTable outer = SymbolTable.current();
+        final SymbolTable scoped = new SymbolTable();
+
+        final Result result = SymbolTable.withTable(scoped, () ->
+            evaluator.evaluate(new IterativeParser().parse("(λx.λy.(x y)) scopedName")));
+
+        assertTrue(result.term().symbols() == scoped);
+        assertFalse(outer.contains("scopedName"));
+    }
+
+    @Test
+    public void churchArithmetic() {
+        final String two = "(λf.λx.(f (f x)))";
+        final String three = "(λf.λx.(f (f (f x))))";
+        final String plus = "(λm.λn.λf.λx.((m f) ((n f) x)))";
+        final String times = "(λm.λn.λf.(m (n f)))";
+
+        assertAlphaEquivalent("λf.λx.(f (f (f (f (f x)))))", plus + " " + two + " " + three);
+        assertAlphaEquivalent("λf.λx.(f (f (f (f (f (f x))))))", times + " " + two + " " + three);
+    }
+
+    @Test
+    public void stepBudget() {
+        final Result result = evaluator.evaluate(parser.parse(OMEGA), Budget.ofSteps(10));
+
+        assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, result.stopReason());
+        assertFalse(result.isNormalForm());
+        assertEquals(10L, result.steps());
+        assertEquals(OMEGA, fmt.format(result.term()));
+    }
+
+    @Test
+    public void partialResultKeepsContext() {
+        final Result result =
+            evaluator.evaluate(parser.parse("λz.(z ((λx.x) " + OMEGA + "))"), Budget.ofSteps(1));
+
+        assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, result.stopReason());
+        assertEquals("(λz.(z " + OMEGA + "))", fmt.format(result.term()));
+    }
+
+    @Test
+    public void deadline() {
+        final Result expired =
+            evaluator.evaluate(parser.parse(OMEGA), Budget.of(10, Duration.ZERO));
+        assertEquals(StopReason.DEADLINE_EXCEEDED, expired.stopReason());
+        assertEquals(0L, expired.steps());
+
+        final Result result =
+            evaluator.evaluate(parser.parse(OMEGA), Budget.ofTimeout(Duration.ofMillis(20)));
+        assertEquals(StopReason.DEADLINE_EXCEEDED, result.stopReason());
+        assertTrue(result.steps() > 0);
+    }
+
+    @Test
+    public void invalidBudgets() {
+        try {
+            Budget.ofSteps(-1);
+            fail("Expected an IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("negative maxSteps (-1)", e.getMessage());
+        }
+    }
+
+    @Test
+    public void deepTerms() {
+        fixtures.assertDeepTerms();
+    }
+
+    private void assertAlphaEquivalent(final String expected, final String input) {
+        final Result result = evaluator.evaluate(parser.parse(input));
+        assertTrue(result.isNormalForm());
+        assertEquals(DeBruijn.toNameless(parser.parse(expected)),
+                     DeBruijn.toNameless(result.term()));
+    }
+}
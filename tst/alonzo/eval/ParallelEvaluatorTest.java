@@ -0,0 +1,141 @@
+package alonzo.eval;
+
+import static alonzo.eval.EvaluatorFixtures.OMEGA;
+import static alonzo.eval.EvaluatorFixtures.THREE;
+import static alonzo.eval.EvaluatorFixtures.TWO;
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertFalse;
+import static alonzo.unit.Assert.assertTrue;
+import static alonzo.unit.Assert.fail;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import alonzo.ast.NodeFactory;
+import alonzo.ast.SharingNodeFactory;
+import alonzo.ast.SymbolTable;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class ParallelEvaluatorTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private final Parser parser = new IterativeParser();
+    private final Formatter fmt = new IterativeFormatter();
+
+    // Forks every argument but the last of each head normal form.
+    private final Evaluator evaluator = new ParallelEvaluator(POOL, 1);
+    private final EvaluatorFixtures fixtures = new EvaluatorFixtures(evaluator);
+
+    @Test
+    public void normalForms() {
+        fixtures.assertNormalForms();
+        fixtures.assertNormalForm("(((a b) c) d)", "(λx.(x ((λy.y) b) ((λy.y) c))) a d");
+    }
+
+    @Test
+    public void substitutionAvoidsCapture() {
+        final SymbolTable symbols = new SymbolTable();
+        final Evaluator evaluator = new ParallelEvaluator(POOL, 1, new NodeFactory(symbols));
+        final Result result = evaluator.evaluate(new IterativeParser(symbols)
+                                                     .parse("(λx.λy.(x y)) y"));
+
+        assertEquals("(λy_1.(y y_1))", fmt.format(result.term()));
+    }
+
+    @Test
+    public void agreesWithNormalOrder() {
+        fixtures.assertAgreesWith(new NormalOrderEvaluator(), true,
+                                  "λg.(g (" + TWO + " " + THREE + ") (" + THREE + " " + TWO
+                                      + ") (" + TWO + " " + TWO + "))");
+    }
+
+    @Test
+    public void sharingNodeFactory() {
+        final Evaluator sharing = new ParallelEvaluator(POOL, 1, new SharingNodeFactory());
+        final String input = "λg.(g (" + TWO + " " + THREE + ") (" + THREE + " " + TWO + "))";
+
+        final Result expected = new NormalOrderEvaluator().evaluate(parser.parse(input));
+        final Result actual = sharing.evaluate(parser.parse(input));
+        assertEquals(DeBruijn.toNameless(expected.term()), DeBruijn.toNameless(actual.term()));
+    }
+
+    @Test
+    public void sharedStepBudget() {
+        final String input = "λz.(z " + OMEGA + " " + OMEGA + " " + OMEGA + ")";
+        final Result result = evaluator.evaluate(parser.parse(input), Budget.ofSteps(100));
+
+        assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, result.stopReason());
+        assertFalse(result.isNormalForm());
+        assertEquals(100L, result.steps());
+        assertEquals("(λz.(((z " + OMEGA + ") " + OMEGA + ") " + OMEGA + "))",
+                     fmt.format(result.term()));
+    }
+
+    @Test
+    public void smallBudgetAcrossTasks() {
+        // Each argument takes 40 steps in tasks of their own, which reserve steps from the budget
+        // several at a time.
+        String i40y = "y";
+        String i40z = "z";
+        for (int i = 0; i < 40; ++i) {
+            i40y = "((λx.x) " + i40y + ")";
+            i40z = "((λx.x) " + i40z + ")";
+        }
+        final String input = "((x " + i40y + ") " + i40z + ")";
+        final Evaluator forking = new ParallelEvaluator(POOL, 2);
+
+        for (int run = 0; run < 50; ++run) {
+            final Result result = forking.evaluate(parser.parse(input), Budget.ofSteps(100));
+            assertTrue(result.isNormalForm());
+            assertEquals(80L, result.steps());
+            assertEquals("((x y) z)", fmt.format(result.term()));
+
+            final Result exhausted = forking.evaluate(parser.parse(input), Budget.ofSteps(79));
+            assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, exhausted.stopReason());
+            assertEquals(79L, exhausted.steps());
+        }
+    }
+
+    @Test
+    public void unboundedTimeout() {
+        final Result result = evaluator.evaluate(parser.parse("(λx.x) y"),
+                                                  Budget.ofTimeout(Duration.ofDays(1_000_000)));
+        assertTrue(result.isNormalForm());
+        assertEquals("y", fmt.format(result.term()));
+    }
+
+    @Test
+    public void deadline() {
+        final String input = "λz.(z " + OMEGA + " " + OMEGA + ")";
+        final Result expired =
+            evaluator.evaluate(parser.parse(input), Budget.of(10, Duration.ZERO));
+        assertEquals(StopReason.DEADLINE_EXCEEDED, expired.stopReason());
+        assertEquals(0L, expired.steps());
+
+        final Result result =
+            evaluator.evaluate(parser.parse(input), Budget.ofTimeout(Duration.ofMillis(20)));
+        assertEquals(StopReason.DEADLINE_EXCEEDED, result.stopReason());
+        assertTrue(result.steps() > 0);
+    }
+
+    @Test
+    public void invalidThreshold() {
+        try {
+            new ParallelEvaluator(POOL, 0);
+            fail("Expected an IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("non-positive threshold (0)", e.getMessage());
+        }
+    }
+
+    @Test
+    public void deepTerms() {
+        new EvaluatorFixtures(new ParallelEvaluator(POOL, 64)).assertDeepTerms();
+    }
+}
@@ -0,0 +1,18 @@
+package alonzo.eval;
+
+import alonzo.ast.ASTNode;
+
+/**
+ * Evaluator standing in for the fallback of the evaluator under test, which records whether it was
+ * called and leaves terms as they are.
+ */
+class RecordingEvaluator extends Evaluator {
+
+    boolean called = false;
+
+    @Override
+    public Result evaluate(final ASTNode term, final Budget budget) {
+        called = true;
+        return new Result(term, StopReason.NORMAL_FORM, 0);
+    }
+}
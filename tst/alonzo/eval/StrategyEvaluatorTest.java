@@ -0,0 +1,222 @@
+package alonzo.eval;
+
+import static alonzo.eval.EvaluatorFixtures.OMEGA;
+import static alonzo.eval.EvaluatorFixtures.THREE;
+import static alonzo.eval.EvaluatorFixtures.TWO;
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertFalse;
+import static alonzo.unit.Assert.assertTrue;
+import static alonzo.unit.Assert.fail;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.Var;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.nameless.DeBruijn;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class StrategyEvaluatorTest {
+
+    private final Parser parser = new IterativeParser();
+    private final Formatter fmt = new IterativeFormatter();
+    private final StrategyEvaluator evaluator =
+        new StrategyEvaluator(BuiltinStrategy.NORMAL_ORDER);
+
+    @Test
+    public void weakHead() {
+        assertReduces("(λy.((λz.z) y))", 1, StopReason.WEAK_HEAD_NORMAL_FORM,
+                      "(λx.λy.((λz.z) y)) a", BuiltinStrategy.WEAK_HEAD);
+        assertReduces("(x ((λy.y) z))", 0, StopReason.WEAK_HEAD_NORMAL_FORM,
+                      "x ((λy.y) z)", BuiltinStrategy.WEAK_HEAD);
+        assertReduces("(λz." + OMEGA + ")", 0, StopReason.WEAK_HEAD_NORMAL_FORM,
+                      "λz." + OMEGA, BuiltinStrategy.WEAK_HEAD);
+        assertReduces("((u " + OMEGA + ") b)", 2, StopReason.WEAK_HEAD_NORMAL_FORM,
+                      "(λf.(f " + OMEGA + ")) (λy.u y) b", BuiltinStrategy.WEAK_HEAD);
+    }
+
+    @Test
+    public void head() {
+        assertReduces("(λz.(z ((λy.y) w)))", 1, StopReason.HEAD_NORMAL_FORM,
+                      "λz.((λx.x) (z ((λy.y) w)))", BuiltinStrategy.HEAD);
+        assertReduces("(λz.(z " + OMEGA + "))", 1, StopReason.HEAD_NORMAL_FORM,
+                      "(λx.λz.(z x)) " + OMEGA, BuiltinStrategy.HEAD);
+    }
+
+    @Test
+    public void applicativeOrder() {
+        assertReduces("(λy.y)", 2, StopReason.NORMAL_FORM,
+                      "(λx.λy.y) ((λz.z) w)", BuiltinStrategy.APPLICATIVE_ORDER);
+        assertReduces("(a (b c))", 2, StopReason.NORMAL_FORM,
+                      "(λx.(a x)) ((λy.(b y)) c)", BuiltinStrategy.APPLICATIVE_ORDER);
+        assertReduces("(λz.(z w))", 2, StopReason.NORMAL_FORM,
+                      "λz.((λx.(z x)) ((λy.y) w))", BuiltinStrategy.APPLICATIVE_ORDER);
+
+        final Result result = evaluator.evaluate(parser.parse("(λx.λy.y) " + OMEGA),
+                                                 Budget.ofSteps(10),
+                                                 BuiltinStrategy.APPLICATIVE_ORDER);
+        assertEquals(StopReason.STEP_BUDGET_EXHAUSTED, result.stopReason());
+    }
+
+    @Test
+    public void strategiesAgreeOnNormalForms() {
+        final String[] inputs = {
+            "(λm.λn.λf.λx.((m f) ((n f) x))) " + TWO + " " + THREE,
+            "(λm.λn.λf.(m (n f))) " + TWO + " " + THREE,
+            "(λx.λy_1.λy.(y y_1)) y",
+        };
+
+        for (final String input : inputs) {
+            final Result normal = evaluator.evaluate(parser.parse(input));
+            final Result applicative = evaluator.evaluate(parser.parse(input), Budget.unlimited(),
+                                                          BuiltinStrategy.APPLICATIVE_ORDER);
+            assertTrue(normal.isNormalForm());
+            assertTrue(applicative.isNormalForm());
+            assertEquals(DeBruijn.toNameless(normal.term()),
+                         DeBruijn.toNameless(applicative.term()));
+        }
+    }
+
+    @Test
+    public void customStrategy() {
+        // Weak normal form: arguments are reduced, but not the bodies of functions.
+        final ReductionStrategy weak = new ReductionStrategy() {
+            @Override
+            public boolean reducesUnderFunctions() {
+                return false;
+            }
+
+            @Override
+            public boolean reducesArguments() {
+                return true;
+            }
+
+            @Override
+            public boolean reducesInnermostFirst() {
+                return false;
+            }
+
+            @Override
+            public StopReason goal() {
+                return StopReason.WEAK_HEAD_NORMAL_FORM;
+            }
+        };
+
+        assertReduces("((x z) (λw.((λv.v) w)))", 1, StopReason.WEAK_HEAD_NORMAL_FORM,
+                      "x ((λy.y) z) (λw.((λv.v) w))", weak);
+    }
+
+    @Test
+    public void defaultStrategy() {
+        final Evaluator weakHead = new StrategyEvaluator(BuiltinStrategy.WEAK_HEAD);
+        final Result result = weakHead.evaluate(parser.parse("(λx.λy.((λz.z) y)) a"));
+
+        assertEquals(StopReason.WEAK_HEAD_NORMAL_FORM, result.stopReason());
+        assertEquals("(λy.((λz.z) y))", fmt.format(result.term()));
+    }
+
+    @Test
+    public void steps() {
+        final List<String> trace = evaluator.stream(parser.parse("(λx.x) ((λy.y) z)"))
+            .map(fmt::format)
+            .collect(Collectors.toList());
+        assertEquals("[((λy.y) z), z]", trace.toString());
+
+        final List<String> weakHead =
+            evaluator.stream(parser.parse("(λx.λy.((λz.z) x)) a"), BuiltinStrategy.WEAK_HEAD)
+                .map(fmt::format)
+                .collect(Collectors.toList());
+        assertEquals("[(λy.((λz.z) a))]", weakHead.toString());
+    }
+
+    @Test
+    public void stepsAreLazy() {
+        assertEquals(3L, evaluator.stream(parser.parse(OMEGA)).limit(3).count());
+
+        final Iterator<ASTNode> steps = evaluator.steps(parser.parse(OMEGA));
+        for (int i = 0; i < 1000; ++i) {
+            assertTrue(steps.hasNext());
+            assertEquals(OMEGA, fmt.format(steps.next()));
+        }
+    }
+
+    @Test
+    public void stepsShareUnchangedSubterms() {
+        final ASTNode unchanged = parser.parse("λw.(w ((λv.v) w))");
+        final ASTNode term = new App(new App(new Fun(new Var("x"), new Var("x")), new Var("y")),
+                                     unchanged);
+
+        final ASTNode step = evaluator.steps(term).next();
+        assertEquals("(y (λw.(w ((λv.v) w))))", fmt.format(step));
+        assertTrue(((App) step).argument() == unchanged);
+    }
+
+    @Test
+    public void stepsEndAtTheGoal() {
+        final String input = "(λm.λn.λf.λx.((m f) ((n f) x))) " + TWO + " " + THREE;
+        final Result result = evaluator.evaluate(parser.parse(input));
+
+        final List<ASTNode> trace = evaluator.stream(parser.parse(input))
+            .collect(Collectors.toList());
+        assertEquals(result.steps(), (long) trace.size());
+        assertEquals(fmt.format(result.term()), fmt.format(trace.get(trace.size() - 1)));
+
+        final Iterator<ASTNode> none = evaluator.steps(parser.parse("λx.(x y)"));
+        assertFalse(none.hasNext());
+        try {
+            none.next();
+            fail("Expected a NoSuchElementException");
+        } catch (final NoSuchElementException e) {
+            assertEquals("no redex left", e.getMessage());
+        }
+    }
+
+    @Test
+    public void nullStrategy() {
+        try {
+            new StrategyEvaluator(null);
+            fail("Expected a NullPointerException");
+        } catch (final NullPointerException e) {
+            assertEquals("null strategy", e.getMessage());
+        }
+    }
+
+    @Test
+    public void deepTerms() {
+        final int depth = 100000;
+        ASTNode term = new App(new Fun(new Var("x"), new Var("x")), new Var("y"));
+        for (int i = 0; i < depth; ++i) {
+            term = new Fun(new Var("z"), new App(new Var("z"), term));
+        }
+
+        final Result head = evaluator.evaluate(term, Budget.unlimited(), BuiltinStrategy.HEAD);
+        assertEquals(StopReason.HEAD_NORMAL_FORM, head.stopReason());
+        assertEquals(0L, head.steps());
+        assertTrue(head.term() == term);
+
+        final Result applicative =
+            evaluator.evaluate(term, Budget.unlimited(), BuiltinStrategy.APPLICATIVE_ORDER);
+        assertTrue(applicative.isNormalForm());
+        assertEquals(1L, applicative.steps());
+    }
+
+    private void assertReduces(final String expected,
+                               final long steps,
+                               final StopReason stopReason,
+                               final String input,
+                               final ReductionStrategy strategy)
+    {
+        final Result result = evaluator.evaluate(parser.parse(input), Budget.unlimited(), strategy);
+        assertEquals(stopReason, result.stopReason());
+        assertEquals(expected, fmt.format(result.term()));
+        assertEquals(steps, result.steps());
+    }
+}
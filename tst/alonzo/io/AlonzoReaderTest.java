@@ -40,6 +40,41 @@ public class AlonzoReaderTest {
         }
     }
 
+    @Test
+    public void readChar() throws IOException {
+        try (final AlonzoReader reader = new AlonzoReader(new StringReader("a\nb"))) {
+            assertEquals(SourceLocation.of(0, 1), reader.location());
+            assertEquals('a', reader.peekChar());
+            assertEquals('a', reader.readChar());
+            assertEquals(SourceLocation.of(1, 1), reader.location());
+
+            assertEquals('\n', reader.readChar());
+            assertEquals(0, reader.character());
+            assertEquals(2, reader.line());
+
+            assertEquals('b', reader.readChar());
+            assertEquals(AlonzoReader.END_OF_STREAM, reader.peekChar());
+            assertEquals(AlonzoReader.END_OF_STREAM, reader.readChar());
+            assertEquals(SourceLocation.of(1, 2), reader.location());
+        }
+    }
+
+    @Test
+    public void readCharAndReadInterleave() throws IOException {
+        final StubReader stub = new StubReader.Builder("ab", "c").build();
+        try (final AlonzoReader reader = new AlonzoReader(stub, 1)) {
+            assertEquals('a', reader.readChar());
+
+            final ReaderResult result = reader.read();
+            assertEquals('b', result.get());
+            assertEquals(SourceLocation.of(1, 1), result.location());
+
+            assertEquals('c', reader.peekChar());
+            assertEquals('c', reader.peek().get());
+            assertEquals(SourceLocation.of(2, 1), reader.peek().location());
+        }
+    }
+
     @Test
     @SuppressWarnings("resource")
     public void close() throws IOException {
@@ -0,0 +1,156 @@
+package alonzo.io;
+
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertFalse;
+import static alonzo.unit.Assert.assertTrue;
+import static alonzo.unit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import alonzo.unit.Test;
+
+public class MappedFileReaderTest {
+
+    @Test
+    public void readAscii() throws IOException {
+        final Path file = file("ab\nc".getBytes(StandardCharsets.UTF_8));
+
+        try (final MappedFileReader reader = new MappedFileReader(file)) {
+            assertEquals('a', reader.peekChar());
+            assertEquals('a', reader.readChar());
+            assertEquals('b', reader.readChar());
+
+            final ReaderResult newline = reader.read();
+            assertEquals('\n', newline.get());
+            assertEquals(SourceLocation.of(2, 1), newline.location());
+
+            assertEquals('c', reader.peek().get());
+            assertEquals(SourceLocation.of(0, 2), reader.peek().location());
+            assertEquals('c', reader.readChar());
+
+            assertEquals(SourceReader.END_OF_STREAM, reader.peekChar());
+            assertEquals(SourceReader.END_OF_STREAM, reader.readChar());
+            assertTrue(reader.read().endOfStream());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void readMultiByte() throws IOException {
+        final String source = "λx.é€😀";
+        final byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+
+        assertDecodes(source, bytes, MappedFileReader.DEFAULT_WINDOW_SIZE);
+    }
+
+    @Test
+    public void sequencesSpanningWindows() throws IOException {
+        final String source = "aλbλ€😀c€";
+        final byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+
+        for (long windowSize = 4; windowSize <= 8; ++windowSize) {
+            assertDecodes(source, bytes, windowSize);
+        }
+    }
+
+    @Test
+    public void malformedInputIsReplaced() throws IOException {
+        final byte[] bytes = { 'a', (byte) 0xFF, 'b', (byte) 0xCE, 'c', (byte) 0xC0, (byte) 0x80,
+                               (byte) 0xE2, (byte) 0x82 };
+
+        assertDecodes("a�b�c��", bytes, MappedFileReader.DEFAULT_WINDOW_SIZE);
+    }
+
+    @Test
+    public void emptyFile() throws IOException {
+        final Path file = file(new byte[0]);
+
+        try (final MappedFileReader reader = new MappedFileReader(file)) {
+            assertEquals(SourceReader.END_OF_STREAM, reader.readChar());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("resource")
+    public void close() throws IOException {
+        final Path file = file("test".getBytes(StandardCharsets.UTF_8));
+
+        try {
+            final MappedFileReader reader = new MappedFileReader(file);
+            assertFalse(reader.isClosed());
+
+            reader.close();
+            assertTrue(reader.isClosed());
+            reader.close();
+
+            try {
+                reader.readChar();
+                fail("Expected IOException.");
+            } catch (final IOException e) {
+                assertEquals("Stream is closed", e.getMessage());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void invalidWindowSizeConstruction() throws IOException {
+        try {
+            new MappedFileReader(null, 3).close();
+            fail("Expected NPE");
+        } catch (final NullPointerException e) {}
+
+        final Path file = file(new byte[0]);
+        try {
+            try {
+                new MappedFileReader(file, 3).close();
+                fail("Expected IllegalArgumentException");
+            } catch (final IllegalArgumentException e) {
+                assertEquals("window size too small (3)", e.getMessage());
+            }
+
+            final long tooLarge = Integer.MAX_VALUE + 1L;
+            try {
+                new MappedFileReader(file, tooLarge).close();
+                fail("Expected IllegalArgumentException");
+            } catch (final IllegalArgumentException e) {
+                assertEquals("window size too large (2147483648)", e.getMessage());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertDecodes(final String expected,
+                                      final byte[] bytes,
+                                      final long windowSize)
+    throws IOException
+    {
+        final Path file = file(bytes);
+
+        try (final MappedFileReader reader = new MappedFileReader(file, windowSize)) {
+            final StringBuilder actual = new StringBuilder();
+            int c;
+            while ((c = reader.readChar()) != SourceReader.END_OF_STREAM) {
+                actual.append((char) c);
+            }
+            assertEquals(expected, actual.toString());
+            assertEquals(expected.length(), reader.character());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Path file(final byte[] contents) throws IOException {
+        final Path file = Files.createTempFile("alonzo", ".lc");
+        Files.write(file, contents);
+        return file;
+    }
+}
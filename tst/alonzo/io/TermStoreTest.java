@@ -0,0 +1,220 @@
+package alonzo.io;
+
+import static alonzo.unit.Assert.assertEquals;
+import static alonzo.unit.Assert.assertFalse;
+import static alonzo.unit.Assert.assertTrue;
+import static alonzo.unit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import alonzo.ast.ASTNode;
+import alonzo.ast.App;
+import alonzo.ast.Fun;
+import alonzo.ast.Var;
+import alonzo.ast.fmt.Formatter;
+import alonzo.ast.fmt.IterativeFormatter;
+import alonzo.ast.parser.IterativeParser;
+import alonzo.ast.parser.Parser;
+import alonzo.unit.Test;
+
+public class TermStoreTest {
+
+    private final Parser parser = new IterativeParser();
+    private final Formatter fmt = new IterativeFormatter();
+
+    @Test
+    public void survivesReopening() throws IOException {
+        final Path directory = Files.createTempDirectory("alonzo");
+        try {
+            try (final TermStore store = TermStore.open(directory)) {
+                store.put(parser.parse("λx.(x y)"));
+                store.put(parser.parse("(λx.x) z"), parser.parse("z"), 1);
+                assertEquals(2, store.size());
+            }
+
+            try (final TermStore store = TermStore.open(directory)) {
+                assertEquals(2, store.size());
+
+                final TermStore.Entry plain = store.lookup(parser.parse("λw.(w y)"));
+                assertEquals("(λx.(x y))", fmt.format(plain.term()));
+                assertFalse(plain.hasNormalForm());
+
+                final TermStore.Entry normalized = store.lookup(parser.parse("(λu.u) z"));
+                assertEquals("z", fmt.format(normalized.normalForm()));
+                assertEquals(1L, normalized.steps());
+
+                assertTrue(store.lookup(parser.parse("λx.(x z)")) == null);
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void contentAddressed() throws IOException {
+        final Path directory = Files.createTempDirectory("alonzo");
+        try (final TermStore store = TermStore.open(directory)) {
+            final ASTNode term = parser.parse("λf.λx.(f (f x))");
+            final int address = store.put(term);
+
+            assertEquals(term.alphaHash(), address);
+            assertEquals(address, store.put(parser.parse("λg.λy.(g (g y))")));
+            assertEquals(1, store.size());
+
+            final List<TermStore.Entry> entries = store.lookup(address);
+            assertEquals(1, entries.size());
+            assertTrue(ASTNode.alphaEquivalent(term, entries.get(0).term()));
+            assertTrue(store.lookup(address + 1).isEmpty());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void normalFormsAreReplaced() throws IOException {
+        final Path directory = Files.createTempDirectory("alonzo");
+        try {
+            final ASTNode term = parser.parse("(λx.x) ((λx.x) a)");
+            try (final TermStore store = TermStore.open(directory)) {
+                store.put(term);
+                store.put(term, parser.parse("((λx.x) a)"), 1);
+                store.put(term, parser.parse("a"), 2);
+                assertEquals(1, store.size());
+            }
+
+            try (final TermStore store = TermStore.open(directory)) {
+                assertEquals(1, store.size());
+                assertEquals("a", fmt.format(store.entry(0).normalForm()));
+                assertEquals(2L, store.entry(0).steps());
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void partialRecordsAreIgnored() throws IOException {
+        final Path directory = Files.createTempDirectory("alonzo");
+        try {
+            try (final TermStore store = TermStore.open(directory)) {
+                store.put(parser.parse("a"));
+            }
+            try (final FileChannel index = FileChannel.open(directory.resolve(TermStore.INDEX_FILE),
+                                                            StandardOpenOption.APPEND)) {
+                index.write(ByteBuffer.wrap(new byte[TermStore.RECORD_SIZE / 2]));
+            }
+
+            try (final TermStore store = TermStore.open(directory)) {
+                assertEquals(1, store.size());
+                store.put(parser.parse("b"));
+            }
+            try (final TermStore store = TermStore.open(directory)) {
+                assertEquals(2, store.size());
+                assertEquals("b", fmt.format(store.entry(1).term()));
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void corruptTerms() throws IOException {
+        final Path directory = Files.createTempDirectory("alonzo");
+        try {
+            try (final TermStore store = TermStore.open(directory)) {
+                store.put(parser.parse("a"));
+            }
+            // A symbol table claiming 2^31 - 1 names, in place of the term's.
+            try (final FileChannel data = FileChannel.open(directory.resolve(TermStore.DATA_FILE),
+                                                           StandardOpenOption.WRITE)) {
+                data.write(ByteBuffer.wrap(new byte[] { 1, -1, -1, -1, -1, 0x07 }),
+                           TermStore.HEADER_SIZE);
+            }
+
+            try (final TermStore store = TermStore.open(directory)) {
+                store.entry(0);
+                fail("Expected IOException.");
+            } catch (final IOException e) {
+                assertEquals("Symbol count 2147483647 exceeds the 1 bytes left", e.getMessage());
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void otherFormatVersions() throws IOException {
+        final Path directory = Files.createTempDirectory("alonzo");
+        try {
+            TermStore.open(directory).close();
+            try (final FileChannel index = FileChannel.open(directory.resolve(TermStore.INDEX_FILE),
+                                                            StandardOpenOption.WRITE)) {
+                index.write(ByteBuffer.allocate(4).putInt(0, TermStore.FORMAT_VERSION + 1), 4);
+            }
+
+            try {
+                TermStore.open(directory);
+                fail("Expected IOException.");
+            } catch (final IOException e) {
+                assertTrue(e.getMessage().startsWith("Unsupported format version"));
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void deepTerms() throws IOException {
+        final int depth = 100000;
+        ASTNode term = new Var("x");
+        for (int i = 0; i < depth; ++i) {
+            term = new Fun(new Var("z"), new App(new Var("z"), term));
+        }
+
+        final Path directory = Files.createTempDirectory("alonzo");
+        try (final TermStore store = TermStore.open(directory)) {
+            store.put(term);
+            assertTrue(ASTNode.alphaEquivalent(term, store.entry(0).term()));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void close() throws IOException {
+        final Path directory = Files.createTempDirectory("alonzo");
+        try {
+            final TermStore store = TermStore.open(directory);
+            store.close();
+            store.close();
+
+            try {
+                store.put(parser.parse("a"));
+                fail("Expected IOException.");
+            } catch (final IOException e) {
+                assertEquals("Store is closed", e.getMessage());
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        final List<Path> paths;
+        try (final Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (final Path path : paths) {
+            Files.delete(path);
+        }
+    }
+}